@@ -1,18 +1,21 @@
 package com.makowski.bookshelves;
 
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.boot.CommandLineRunner;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
-import com.makowski.bookshelves.repository.BookRepository;
+import com.makowski.bookshelves.generator.DataGenerator;
 
 import lombok.AllArgsConstructor;
 
 @SpringBootApplication
+@EnableScheduling
 @AllArgsConstructor							
 public class BookshelvesApplication implements CommandLineRunner {
 
-	BookRepository bookRepository;
+	ObjectProvider<DataGenerator> dataGenerator;
 
 	public static void main(String[] args) {
 		SpringApplication.run(BookshelvesApplication.class, args);
@@ -20,5 +23,6 @@ public class BookshelvesApplication implements CommandLineRunner {
 
 	@Override			
 	public void run(String... args) throws Exception {
+		dataGenerator.ifAvailable(DataGenerator::generate);
 	}
 }
\ No newline at end of file
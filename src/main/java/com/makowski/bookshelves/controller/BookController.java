@@ -1,8 +1,11 @@
 package com.makowski.bookshelves.controller;
 
+import java.io.InputStream;
 import java.util.List;
 
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
@@ -10,15 +13,26 @@ import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.context.request.async.WebAsyncUtils;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import com.makowski.bookshelves.dto.BookDto;
+import com.makowski.bookshelves.dto.ImportResultDto;
+import com.makowski.bookshelves.dto.PageDto;
+import com.makowski.bookshelves.dto.ScoreHistogramDto;
+import com.makowski.bookshelves.dto.VersionDto;
 import com.makowski.bookshelves.entity.Book;
 import com.makowski.bookshelves.entity.Rating;
 import com.makowski.bookshelves.entity.Shelf;
 import com.makowski.bookshelves.entity.User;
 import com.makowski.bookshelves.exceptions.ErrorResponse;
+import com.makowski.bookshelves.service.BookExportService;
+import com.makowski.bookshelves.service.BookImportService;
 import com.makowski.bookshelves.service.BookService;
 import com.makowski.bookshelves.service.ShelfService;
 import com.makowski.bookshelves.service.UserService;
@@ -40,16 +54,22 @@ public class BookController {
     private BookService bookService;
     private ShelfService shelfService;
     private UserService userService;
+    private BookImportService bookImportService;
+    private BookExportService bookExportService;
 
     @Operation(summary = "Get book by ID", description = "Returns a book based on an ID")
     @ApiResponses(value = {
         @ApiResponse(responseCode = "200", description = "Successful retrieval of a book", content = @Content(schema = @Schema(implementation = Book.class))),
+        @ApiResponse(responseCode = "304", description = "Book has not changed since the version given in If-None-Match or If-Modified-Since"),
         @ApiResponse(responseCode = "401", description = "JWT Token not valid", content = @Content(schema = @Schema(implementation = ErrorResponse.class))),
         @ApiResponse(responseCode = "404", description = "Book doesn't exist in a database", content = @Content(schema = @Schema(implementation = ErrorResponse.class)))
     }) 
     @GetMapping("/{id}")
-    public ResponseEntity<Book> getBook(@PathVariable Long id) {
-        return new ResponseEntity<>(bookService.getBook(id), HttpStatus.OK);
+    public ResponseEntity<Book> getBook(@PathVariable Long id, WebRequest request) {
+        Book book = bookService.showBook(id);
+        VersionDto version = bookService.getBookVersion(book);
+        if (request.checkNotModified(version.getETag(), version.getLastModified())) return null;
+        return new ResponseEntity<>(book, HttpStatus.OK);
     }
 
     @Operation(summary = "Add book", description = "Adds a new book to the database")
@@ -63,6 +83,29 @@ public class BookController {
         return new ResponseEntity<>(bookService.addBook(book), HttpStatus.CREATED);
     }
 
+    @Operation(summary = "Import books", description = "Streams a CSV file (with a title, author, publisher, genre, pages and year header) or newline-delimited JSON into the database in batches")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Import finished, the numbers of accepted and rejected records are returned together with the first rejection reasons", content = @Content(schema = @Schema(implementation = ImportResultDto.class))),
+        @ApiResponse(responseCode = "400", description = "Invalid Request - the CSV header is incomplete or a CSV record is malformed", content = @Content(schema = @Schema(implementation = ErrorResponse.class))),
+        @ApiResponse(responseCode = "401", description = "JWT Token not valid", content = @Content(schema = @Schema(implementation = ErrorResponse.class))),
+    })
+    @PostMapping(value = "/import", consumes = { BookImportService.CSV, BookImportService.NDJSON })
+    public ResponseEntity<ImportResultDto> importBooks(@RequestHeader(HttpHeaders.CONTENT_TYPE) String contentType, InputStream body) {
+        return new ResponseEntity<>(bookImportService.importBooks(body, contentType), HttpStatus.OK);
+    }
+
+    @Operation(summary = "Export books", description = "Streams every book in the database as newline-delimited JSON, optionally with its rating and number of scores")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Successful export of the catalog", content = @Content(mediaType = BookImportService.NDJSON)),
+        @ApiResponse(responseCode = "401", description = "JWT Token not valid", content = @Content(schema = @Schema(implementation = ErrorResponse.class))),
+    })
+    @GetMapping(value = "/export", produces = BookImportService.NDJSON)
+    public ResponseEntity<StreamingResponseBody> exportBooks(@RequestParam(defaultValue = "false") boolean ratings, WebRequest request) {
+        WebAsyncUtils.getAsyncManager(request).getAsyncWebRequest().setTimeout(bookExportService.getTimeout());
+        StreamingResponseBody body = out -> bookExportService.exportBooks(out, ratings);
+        return ResponseEntity.ok().contentType(MediaType.parseMediaType(BookImportService.NDJSON)).body(body);
+    }
+
     @Operation(summary = "Delete book by ID", description = "Deletes a book based on an ID")
     @ApiResponses(value = {
         @ApiResponse(responseCode = "204", description = "Book successfully deleted from a database"),
@@ -80,7 +123,8 @@ public class BookController {
         @ApiResponse(responseCode = "200", description = "Book has been successfully edited", content = @Content(schema = @Schema(implementation = Book.class))),
         @ApiResponse(responseCode = "400", description = "Invalid Request - request body have to contain valid data, such as a title, an author, a publisher, a genre, pages number and year of publication", content = @Content(schema = @Schema(implementation = ErrorResponse.class))),
         @ApiResponse(responseCode = "401", description = "JWT Token not valid", content = @Content(schema = @Schema(implementation = ErrorResponse.class))),
-        @ApiResponse(responseCode = "404", description = "Book doesn't exist in a database", content = @Content(schema = @Schema(implementation = ErrorResponse.class)))
+        @ApiResponse(responseCode = "404", description = "Book doesn't exist in a database", content = @Content(schema = @Schema(implementation = ErrorResponse.class))),
+        @ApiResponse(responseCode = "409", description = "Book was changed concurrently by other requests and could not be updated, please try again", content = @Content(schema = @Schema(implementation = ErrorResponse.class)))
     }) 
     @PutMapping("/{id}")
     public ResponseEntity<Book> updateBook(@Valid @RequestBody Book book, @PathVariable Long id) {
@@ -111,42 +155,54 @@ public class BookController {
         return new ResponseEntity<>(userService.setAsNowReading(id), HttpStatus.OK);
     }
 
-    @Operation(summary = "Search by phrase", description = "Returns a list of books whose title or author's name contains a given phrase. Character size is irrelevant")
+    @Operation(summary = "Search by phrase", description = "Returns a page of books whose title or author's name contains words starting with a given phrase. Character size is irrelevant. Next page is requested with a cursor returned by the previous one")
     @ApiResponses(value = {
-        @ApiResponse(responseCode = "200", description = "Successful retrieval of list of books", content = @Content(array = @ArraySchema(schema = @Schema(implementation = BookDto.class)))),
-        @ApiResponse(responseCode = "400", description = "Invalid Request - the search phrase must be specified in the request body", content = @Content(schema = @Schema(implementation = ErrorResponse.class))),
+        @ApiResponse(responseCode = "200", description = "Successful retrieval of a page of books", content = @Content(schema = @Schema(implementation = PageDto.class))),
+        @ApiResponse(responseCode = "400", description = "Invalid Request - the search phrase must be specified in the request body, limit must be between 1 and 100 and cursor must be valid", content = @Content(schema = @Schema(implementation = ErrorResponse.class))),
         @ApiResponse(responseCode = "401", description = "JWT Token not valid", content = @Content(schema = @Schema(implementation = ErrorResponse.class))),
         @ApiResponse(responseCode = "404", description = "There's no such book in a database", content = @Content(schema = @Schema(implementation = ErrorResponse.class)))
     }) 
     @GetMapping("/search/{phrase}")
-    public ResponseEntity<List<BookDto>> findBooks(@PathVariable String phrase) {
-        return new ResponseEntity<>(bookService.findBooks(phrase), HttpStatus.OK);
+    public ResponseEntity<PageDto<BookDto>> findBooks(@PathVariable String phrase, @RequestParam(required = false) String cursor, @RequestParam(required = false) Integer limit) {
+        return new ResponseEntity<>(bookService.findBooks(phrase, cursor, limit), HttpStatus.OK);
     }
 
-    @Operation(summary = "Get author's books", description = "Returns a list of all books written by the selected author, sorted by a year of publication")
+    @Operation(summary = "Get author's books", description = "Returns a page of books written by the selected author, sorted by a year of publication. Next page is requested with a cursor returned by the previous one")
     @ApiResponses(value = {
-        @ApiResponse(responseCode = "200", description = "Successful retrieval of a list of books", content = @Content(array = @ArraySchema(schema = @Schema(implementation = BookDto.class)))),
-        @ApiResponse(responseCode = "400", description = "Invalid Request - an author's name must be specified in the request body", content = @Content(schema = @Schema(implementation = ErrorResponse.class))),
+        @ApiResponse(responseCode = "200", description = "Successful retrieval of a page of books", content = @Content(schema = @Schema(implementation = PageDto.class))),
+        @ApiResponse(responseCode = "400", description = "Invalid Request - an author's name must be specified in the request body, limit must be between 1 and 100 and cursor must be valid", content = @Content(schema = @Schema(implementation = ErrorResponse.class))),
         @ApiResponse(responseCode = "401", description = "JWT Token not valid", content = @Content(schema = @Schema(implementation = ErrorResponse.class))),
         @ApiResponse(responseCode = "404", description = "There's no books written by selected author in a database", content = @Content(schema = @Schema(implementation = ErrorResponse.class)))
     }) 
     @GetMapping("/author/{author}")
-    public ResponseEntity<List<BookDto>> getAuthorsBooks(@PathVariable String author) {
-        return new ResponseEntity<>(bookService.getAuthorsBooks(author), HttpStatus.OK);
+    public ResponseEntity<PageDto<BookDto>> getAuthorsBooks(@PathVariable String author, @RequestParam(required = false) String cursor, @RequestParam(required = false) Integer limit) {
+        return new ResponseEntity<>(bookService.getAuthorsBooks(author, cursor, limit), HttpStatus.OK);
     }
     
-    @Operation(summary = "Get book's ratings", description = "Returns a list of all scores and reviews of a selected book, based on ID")
+    @Operation(summary = "Get book's ratings", description = "Returns a page of scores and reviews of a selected book, based on ID. Next page is requested with a cursor returned by the previous one")
     @ApiResponses(value = {
-        @ApiResponse(responseCode = "200", description = "Successful retrieval of a list of ratings", content = @Content(array = @ArraySchema(schema = @Schema(implementation = Rating.class)))),
+        @ApiResponse(responseCode = "200", description = "Successful retrieval of a page of ratings", content = @Content(schema = @Schema(implementation = PageDto.class))),
+        @ApiResponse(responseCode = "400", description = "Invalid Request - limit must be between 1 and 100 and cursor must be valid", content = @Content(schema = @Schema(implementation = ErrorResponse.class))),
         @ApiResponse(responseCode = "401", description = "JWT Token not valid", content = @Content(schema = @Schema(implementation = ErrorResponse.class))),
         @ApiResponse(responseCode = "404", description = "Book doesn't exist in a database or has no ratings", content = @Content(schema = @Schema(implementation = ErrorResponse.class)))
     }) 
     @GetMapping("/{id}/ratings")
-    public ResponseEntity<List<Rating>> getBooksRatings(@PathVariable Long id) {
-        return new ResponseEntity<>(bookService.getBookRatings(id), HttpStatus.OK);
+    public ResponseEntity<PageDto<Rating>> getBooksRatings(@PathVariable Long id, @RequestParam(required = false) String cursor, @RequestParam(required = false) Integer limit) {
+        return new ResponseEntity<>(bookService.getBookRatings(id, cursor, limit), HttpStatus.OK);
+    }
+
+    @Operation(summary = "Get book's score histogram", description = "Returns how many times a selected book was scored 1, 2, ... 10, based on ID. Counts are kept on the book itself, so no ratings are read")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Successful retrieval of a histogram", content = @Content(schema = @Schema(implementation = ScoreHistogramDto.class))),
+        @ApiResponse(responseCode = "401", description = "JWT Token not valid", content = @Content(schema = @Schema(implementation = ErrorResponse.class))),
+        @ApiResponse(responseCode = "404", description = "Book doesn't exist in a database", content = @Content(schema = @Schema(implementation = ErrorResponse.class)))
+    }) 
+    @GetMapping("/{id}/histogram")
+    public ResponseEntity<ScoreHistogramDto> getScoreHistogram(@PathVariable Long id) {
+        return new ResponseEntity<>(bookService.getScoreHistogram(id), HttpStatus.OK);
     }
 
-    @Operation(summary = "Get top10 from genre", description = "Returns a list of 10 best rated books in a selected genre")
+    @Operation(summary = "Get top from genre", description = "Returns a list of best rated books in a selected genre, ranked by a Bayesian average that pulls books with few scores towards the genre mean. Length of the list is set by bookshelves.leaderboard.size property (10 by default)")
     @ApiResponses(value = {
         @ApiResponse(responseCode = "200", description = "Successful retrieval of a list of books", content = @Content(array = @ArraySchema(schema = @Schema(implementation = BookDto.class)))),
         @ApiResponse(responseCode = "400", description = "Invalid Request - the genre must be specified in the request body ", content = @Content(schema = @Schema(implementation = ErrorResponse.class))),
@@ -154,7 +210,7 @@ public class BookController {
         @ApiResponse(responseCode = "404", description = "There's no books of selected genre in a database", content = @Content(schema = @Schema(implementation = ErrorResponse.class)))
     }) 
     @GetMapping("/top/{genre}")
-    public ResponseEntity<List<BookDto>> getTop10FromGenre(@PathVariable String genre) {
-        return new ResponseEntity<>(bookService.top10FromGenre(genre), HttpStatus.OK);
+    public ResponseEntity<List<BookDto>> getTopFromGenre(@PathVariable String genre) {
+        return new ResponseEntity<>(bookService.topFromGenre(genre), HttpStatus.OK);
     } 
 }
@@ -10,7 +10,9 @@ import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
 
+import com.makowski.bookshelves.dto.VersionDto;
 import com.makowski.bookshelves.entity.Rating;
 import com.makowski.bookshelves.exceptions.ErrorResponse;
 import com.makowski.bookshelves.service.RatingService;
@@ -33,12 +35,16 @@ public class RatingController {
     @Operation(summary = "Get rating by ID", description = "Returns a rating based on an ID")
     @ApiResponses(value = {
         @ApiResponse(responseCode = "200", description = "Successful retrieval of a rating", content = @Content(schema = @Schema(implementation = Rating.class))),
+        @ApiResponse(responseCode = "304", description = "Rating has not changed since the version given in If-None-Match or If-Modified-Since"),
         @ApiResponse(responseCode = "401", description = "JWT Token not valid", content = @Content(schema = @Schema(implementation = ErrorResponse.class))),
         @ApiResponse(responseCode = "404", description = "Rating doesn't exist in a database", content = @Content(schema = @Schema(implementation = ErrorResponse.class)))
     }) 
     @GetMapping("/{id}")
-    public ResponseEntity<Rating> getRating(@PathVariable Long id) {
-        return new ResponseEntity<>(ratingService.showRating(id), HttpStatus.OK);
+    public ResponseEntity<Rating> getRating(@PathVariable Long id, WebRequest request) {
+        Rating rating = ratingService.showRating(id);
+        VersionDto version = ratingService.getRatingVersion(rating);
+        if (request.checkNotModified(version.getETag(), version.getLastModified())) return null;
+        return new ResponseEntity<>(rating, HttpStatus.OK);
     }
 
     @Operation(summary = "Create rating", description = "Creates a new rating, which include a review or a score from 1 to 10, or both. Score = 0 is a blank score and doesn't count toward the book's rating.")
@@ -59,7 +65,8 @@ public class RatingController {
         @ApiResponse(responseCode = "400", description = "Invalid Request - rating must include a review or a score from 1 to 10", content = @Content(schema = @Schema(implementation = ErrorResponse.class))),
         @ApiResponse(responseCode = "401", description = "JWT Token not valid", content = @Content(schema = @Schema(implementation = ErrorResponse.class))),
         @ApiResponse(responseCode = "403", description = "Access denied - rating can only be edited by its creator", content = @Content(schema = @Schema(implementation = ErrorResponse.class))),
-        @ApiResponse(responseCode = "404", description = "Rating doesn't exist in a database", content = @Content(schema = @Schema(implementation = ErrorResponse.class)))
+        @ApiResponse(responseCode = "404", description = "Rating doesn't exist in a database", content = @Content(schema = @Schema(implementation = ErrorResponse.class))),
+        @ApiResponse(responseCode = "409", description = "Rating was changed concurrently by other requests and could not be edited, please try again", content = @Content(schema = @Schema(implementation = ErrorResponse.class)))
     }) 
     @PutMapping("/{ratingId}")
     public ResponseEntity<Rating> updateRating(@PathVariable Long ratingId, @RequestBody Rating newRating) {
@@ -1,16 +1,23 @@
 package com.makowski.bookshelves.controller;
 
+import java.util.List;
+
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PatchMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
 
+import com.makowski.bookshelves.dto.ShelfBookResultDto;
+import com.makowski.bookshelves.dto.ShelfBooksDto;
+import com.makowski.bookshelves.dto.VersionDto;
 import com.makowski.bookshelves.entity.Shelf;
 import com.makowski.bookshelves.exceptions.ErrorResponse;
 import com.makowski.bookshelves.service.ShelfService;
@@ -33,12 +40,15 @@ public class ShelfController {
     @Operation(summary = "Get shelf by ID", description = "Returns a shelf based on an ID")
     @ApiResponses(value = {
         @ApiResponse(responseCode = "200", description = "Successful retrieval of a shelf", content = @Content(schema = @Schema(implementation = Shelf.class))),
+        @ApiResponse(responseCode = "304", description = "Neither the shelf, its owner nor its books have changed since the version given in If-None-Match or If-Modified-Since"),
         @ApiResponse(responseCode = "401", description = "JWT Token not valid", content = @Content(schema = @Schema(implementation = ErrorResponse.class))),
         @ApiResponse(responseCode = "403", description = "This shelf is private, only its owner has access to it", content = @Content(schema = @Schema(implementation = ErrorResponse.class))),
         @ApiResponse(responseCode = "404", description = "Shelf doesn't exist in a database", content = @Content(schema = @Schema(implementation = ErrorResponse.class)))
     }) 
     @GetMapping("/{id}")
-    public ResponseEntity<Shelf> getShelf(@PathVariable Long id) {
+    public ResponseEntity<Shelf> getShelf(@PathVariable Long id, WebRequest request) {
+        VersionDto version = shelfService.getShelfVersion(id);
+        if (request.checkNotModified(version.getETag(), version.getLastModified())) return null;
         return new ResponseEntity<>(shelfService.showShelf(id), HttpStatus.OK);
     }
 
@@ -73,7 +83,8 @@ public class ShelfController {
         @ApiResponse(responseCode = "400", description = "Invalid request - the request body requires a new shelf name that does not exist in its owner's library. Only non-permanent shelves can be renamed.", content = @Content(schema = @Schema(implementation = ErrorResponse.class))),
         @ApiResponse(responseCode = "401", description = "JWT Token not valid", content = @Content(schema = @Schema(implementation = ErrorResponse.class))),
         @ApiResponse(responseCode = "403", description = "Shelves can only be renamed by their owner", content = @Content(schema = @Schema(implementation = ErrorResponse.class))),
-        @ApiResponse(responseCode = "404", description = "Shelf doesn't exist in a database", content = @Content(schema = @Schema(implementation = ErrorResponse.class)))
+        @ApiResponse(responseCode = "404", description = "Shelf doesn't exist in a database", content = @Content(schema = @Schema(implementation = ErrorResponse.class))),
+        @ApiResponse(responseCode = "409", description = "Shelf was changed concurrently by other requests and could not be renamed, please try again", content = @Content(schema = @Schema(implementation = ErrorResponse.class)))
     }) 
     @PutMapping("/{id}")
     public ResponseEntity<Shelf> renameShelf(@PathVariable Long id, @RequestBody String newName) {
@@ -91,4 +102,17 @@ public class ShelfController {
     public ResponseEntity<Shelf> deleteBookFromShelf(@PathVariable Long shelfId, @PathVariable Long bookId) {
         return new ResponseEntity<>(shelfService.deleteBookFromShelf(bookId, shelfId), HttpStatus.OK);
     }
+
+    @Operation(summary = "Add and remove books in bulk", description = "Adds and removes books with selected IDs on a shelf with a selected ID in one transaction and returns a result for every book ID")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Shelf successfully updated, each book ID is reported as ADDED, REMOVED, ALREADY_ON_SHELF, NOT_ON_SHELF or BOOK_NOT_FOUND", content = @Content(array = @ArraySchema(schema = @Schema(implementation = ShelfBookResultDto.class)))),
+        @ApiResponse(responseCode = "400", description = "Invalid request - no book IDs were provided or a book ID is both added and removed", content = @Content(schema = @Schema(implementation = ErrorResponse.class))),
+        @ApiResponse(responseCode = "401", description = "JWT Token not valid", content = @Content(schema = @Schema(implementation = ErrorResponse.class))),
+        @ApiResponse(responseCode = "403", description = "Only the owner of a shelf can add or remove its books", content = @Content(schema = @Schema(implementation = ErrorResponse.class))),
+        @ApiResponse(responseCode = "404", description = "Shelf doesn't exist in a database", content = @Content(schema = @Schema(implementation = ErrorResponse.class)))
+    })
+    @PatchMapping("/{id}/books")
+    public ResponseEntity<List<ShelfBookResultDto>> updateShelfBooks(@PathVariable Long id, @RequestBody ShelfBooksDto shelfBooks) {
+        return new ResponseEntity<>(shelfService.updateShelfBooks(id, shelfBooks), HttpStatus.OK);
+    }
 }
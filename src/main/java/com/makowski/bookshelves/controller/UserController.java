@@ -11,12 +11,14 @@ import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
+import com.makowski.bookshelves.dto.PageDto;
 import com.makowski.bookshelves.dto.PasswordDto;
+import com.makowski.bookshelves.dto.ShelfDto;
 import com.makowski.bookshelves.dto.UserDto;
 import com.makowski.bookshelves.entity.Rating;
-import com.makowski.bookshelves.entity.Shelf;
 import com.makowski.bookshelves.entity.User;
 import com.makowski.bookshelves.exceptions.ErrorResponse;
 import com.makowski.bookshelves.service.UserService;
@@ -95,28 +97,29 @@ public class UserController {
         return new ResponseEntity<>(userService.changePrivacyStatus(), HttpStatus.OK);
     }
 
-    @Operation(summary = "Get library from a user", description = "Returns a collection of shelves based on their owner ID")
+    @Operation(summary = "Get library from a user", description = "Returns a collection of shelves with summaries of their books, based on their owner ID")
     @ApiResponses(value = {
-        @ApiResponse(responseCode = "200", description = "Successful retrieval of shelves", content = @Content(array = @ArraySchema(schema = @Schema(implementation = Shelf.class)))),
+        @ApiResponse(responseCode = "200", description = "Successful retrieval of shelves", content = @Content(array = @ArraySchema(schema = @Schema(implementation = ShelfDto.class)))),
         @ApiResponse(responseCode = "401", description = "JWT Token not valid", content = @Content(schema = @Schema(implementation = ErrorResponse.class))),
         @ApiResponse(responseCode = "403", description = "This library is private, only its owner has access to it", content = @Content(schema = @Schema(implementation = ErrorResponse.class))),
         @ApiResponse(responseCode = "404", description = "User doesn't exist in a database", content = @Content(schema = @Schema(implementation = ErrorResponse.class)))
     }) 
     @GetMapping("/{userId}/library")
-    public ResponseEntity<List<Shelf>> getLibrary(@PathVariable Long userId) {
+    public ResponseEntity<List<ShelfDto>> getLibrary(@PathVariable Long userId) {
         return new ResponseEntity<>(userService.getUsersLibrary(userId), HttpStatus.OK);
     }
 
-    @Operation(summary = "Get ratings from a user", description = "Returns a collection of all ratings made by a user, based on user's ID")
+    @Operation(summary = "Get ratings from a user", description = "Returns a page of ratings made by a user, based on user's ID. Next page is requested with a cursor returned by the previous one")
     @ApiResponses(value = {
-        @ApiResponse(responseCode = "200", description = "Successful retrieval of ratings", content = @Content(array = @ArraySchema(schema = @Schema(implementation = Rating.class)))),
+        @ApiResponse(responseCode = "200", description = "Successful retrieval of a page of ratings", content = @Content(schema = @Schema(implementation = PageDto.class))),
+        @ApiResponse(responseCode = "400", description = "Invalid Request - limit must be between 1 and 100 and cursor must be valid", content = @Content(schema = @Schema(implementation = ErrorResponse.class))),
         @ApiResponse(responseCode = "401", description = "JWT Token not valid", content = @Content(schema = @Schema(implementation = ErrorResponse.class))),
         @ApiResponse(responseCode = "403", description = "This account is private, only its owner can view ratings", content = @Content(schema = @Schema(implementation = ErrorResponse.class))),
         @ApiResponse(responseCode = "404", description = "User doesn't exist in a database or has not created any ratings", content = @Content(schema = @Schema(implementation = ErrorResponse.class)))
     }) 
     @GetMapping("/{userId}/ratings")
-    public ResponseEntity<List<Rating>> getRatings(@PathVariable Long userId) {
-        return new ResponseEntity<>(userService.showUsersRatings(userId), HttpStatus.OK);
+    public ResponseEntity<PageDto<Rating>> getRatings(@PathVariable Long userId, @RequestParam(required = false) String cursor, @RequestParam(required = false) Integer limit) {
+        return new ResponseEntity<>(userService.showUsersRatings(userId, cursor, limit), HttpStatus.OK);
     }
 
     @Operation(summary = "Delete \"now reading\" status", description = "Changes a currently logged in user's \"now reading\" field to a null value")
@@ -129,15 +132,15 @@ public class UserController {
         return new ResponseEntity<>(userService.deleteNowReadingStatus(), HttpStatus.OK);
     }
 
-    @Operation(summary = "Search by a phrase", description = "Returns a list of users whose username contains a given phrase. Character size is irrelevant")
+    @Operation(summary = "Search by a phrase", description = "Returns a page of users whose username contains a given phrase. Character size is irrelevant. Next page is requested with a cursor returned by the previous one")
     @ApiResponses(value = {
-        @ApiResponse(responseCode = "200", description = "Successful retrieval of a list of users", content = @Content(array = @ArraySchema(schema = @Schema(implementation = UserDto.class)))),
-        @ApiResponse(responseCode = "400", description = "Invalid Request - the search phrase must be specified in the request body", content = @Content(schema = @Schema(implementation = ErrorResponse.class))),
+        @ApiResponse(responseCode = "200", description = "Successful retrieval of a page of users", content = @Content(schema = @Schema(implementation = PageDto.class))),
+        @ApiResponse(responseCode = "400", description = "Invalid Request - the search phrase must be specified in the request body, limit must be between 1 and 100 and cursor must be valid", content = @Content(schema = @Schema(implementation = ErrorResponse.class))),
         @ApiResponse(responseCode = "401", description = "JWT Token not valid", content = @Content(schema = @Schema(implementation = ErrorResponse.class))),
         @ApiResponse(responseCode = "404", description = "There is no such user in the database", content = @Content(schema = @Schema(implementation = ErrorResponse.class)))
     }) 
     @GetMapping("/search/{phrase}")
-    public ResponseEntity<List<UserDto>> findUser(@PathVariable String phrase) {
-        return new ResponseEntity<>(userService.findUser(phrase), HttpStatus.OK);
+    public ResponseEntity<PageDto<UserDto>> findUser(@PathVariable String phrase, @RequestParam(required = false) String cursor, @RequestParam(required = false) Integer limit) {
+        return new ResponseEntity<>(userService.findUser(phrase, cursor, limit), HttpStatus.OK);
     }
 }
\ No newline at end of file
@@ -13,5 +13,6 @@ public class BookDto {
     private int year;
     private float rating;
     private int scoresNumber;
+    private float weightedScore;
 
 }
\ No newline at end of file
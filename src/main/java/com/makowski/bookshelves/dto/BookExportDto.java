@@ -0,0 +1,44 @@
+package com.makowski.bookshelves.dto;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import lombok.Getter;
+import lombok.Setter;
+
+@Getter
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class BookExportDto {
+
+    private Long id;
+    private String title;
+    private String author;
+    private String publisher;
+    private String genre;
+    private int pages;
+    private int year;
+    @Setter
+    private Float rating;
+    @Setter
+    private Integer scoresNumber;
+    @JsonIgnore
+    private Integer scoresSum;
+
+    public BookExportDto(Long id, String title, String author, String publisher, String genre, int pages, int year) {
+        this.id = id;
+        this.title = title;
+        this.author = author;
+        this.publisher = publisher;
+        this.genre = genre;
+        this.pages = pages;
+        this.year = year;
+    }
+
+    public BookExportDto(Long id, String title, String author, String publisher, String genre, int pages, int year,
+            float rating, int scoresNumber, int scoresSum) {
+        this(id, title, author, publisher, genre, pages, year);
+        this.rating = rating;
+        this.scoresNumber = scoresNumber;
+        this.scoresSum = scoresSum;
+    }
+}
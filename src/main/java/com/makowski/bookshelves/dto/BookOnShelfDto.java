@@ -0,0 +1,16 @@
+package com.makowski.bookshelves.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+@Getter
+@AllArgsConstructor
+public class BookOnShelfDto {
+
+    private Long bookId;
+    private Long shelfId;
+
+    public boolean isOnShelf() {
+        return shelfId != null;
+    }
+}
@@ -0,0 +1,16 @@
+package com.makowski.bookshelves.dto;
+
+import java.util.List;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+@Getter
+@AllArgsConstructor
+public class ImportResultDto {
+
+    private long accepted;
+    private long rejected;
+    private List<String> errors;
+
+}
@@ -0,0 +1,15 @@
+package com.makowski.bookshelves.dto;
+
+import java.util.List;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+@Getter
+@AllArgsConstructor
+public class PageDto<T> {
+
+    private List<T> items;
+    private String nextCursor;
+
+}
@@ -0,0 +1,13 @@
+package com.makowski.bookshelves.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+@Getter
+@AllArgsConstructor
+public class ScoreHistogramDto {
+
+    private Long bookId;
+    private int[] counts;
+
+}
@@ -0,0 +1,26 @@
+package com.makowski.bookshelves.dto;
+
+import com.makowski.bookshelves.entity.ScoreHistogram;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+@Getter
+@AllArgsConstructor
+public class ScoresChangeDto {
+
+    private Long bookId;
+    private int scoresNumber;
+    private int scoresSum;
+    private int[] histogram;
+
+    public static ScoresChangeDto of(Long bookId, int oldScore, int newScore) {
+        int number = 0;
+        if (oldScore == 0) number = 1;
+            else if (newScore == 0) number = -1;
+        int[] histogram = new int[ScoreHistogram.SCORES];
+        if (oldScore != 0) histogram[oldScore - 1]--;
+        if (newScore != 0) histogram[newScore - 1]++;
+        return new ScoresChangeDto(bookId, number, newScore - oldScore, histogram);
+    }
+}
@@ -0,0 +1,14 @@
+package com.makowski.bookshelves.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+@Getter
+@AllArgsConstructor
+public class ScoresDto {
+
+    private int scoresNumber;
+    private int scoresSum;
+    private float rating;
+
+}
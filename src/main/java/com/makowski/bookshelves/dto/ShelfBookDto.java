@@ -0,0 +1,15 @@
+package com.makowski.bookshelves.dto;
+
+import com.makowski.bookshelves.entity.Book;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+@Getter
+@AllArgsConstructor
+public class ShelfBookDto {
+
+    private Long shelfId;
+    private Book book;
+
+}
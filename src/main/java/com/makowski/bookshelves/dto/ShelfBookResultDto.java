@@ -0,0 +1,16 @@
+package com.makowski.bookshelves.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+@Getter
+@AllArgsConstructor
+public class ShelfBookResultDto {
+
+    private Long bookId;
+    private Result result;
+
+    public enum Result {
+        ADDED, REMOVED, ALREADY_ON_SHELF, NOT_ON_SHELF, BOOK_NOT_FOUND
+    }
+}
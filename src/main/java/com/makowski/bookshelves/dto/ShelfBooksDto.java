@@ -0,0 +1,16 @@
+package com.makowski.bookshelves.dto;
+
+import java.util.List;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.Setter;
+
+@Getter
+@Setter
+@AllArgsConstructor
+public class ShelfBooksDto {
+
+    private List<Long> add;
+    private List<Long> remove;
+}
@@ -0,0 +1,21 @@
+package com.makowski.bookshelves.dto;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+@Getter
+@AllArgsConstructor
+public class ShelfDto {
+
+    private Long id;
+    private String name;
+    private List<BookDto> books;
+
+    public ShelfDto(Long id, String name) {
+        this(id, name, new ArrayList<>());
+    }
+
+}
@@ -0,0 +1,28 @@
+package com.makowski.bookshelves.dto;
+
+import java.time.Instant;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+@Getter
+@AllArgsConstructor
+public class ShelfVersionDto {
+
+    private Long ownerId;
+    private boolean privateProfile;
+    private long shelfVersion;
+    private Instant shelfModified;
+    private long ownerVersion;
+    private Instant ownerModified;
+    private long books;
+    private long booksVersion;
+    private long booksScoresNumber;
+    private long booksScoresSum;
+    private Instant booksModified;
+
+    public VersionDto toVersionDto() {
+        return VersionDto.of("s" + shelfVersion + "-u" + ownerVersion + "-b" + books + "." + booksVersion + "-r" + booksScoresNumber + "." + booksScoresSum,
+            shelfModified, ownerModified, booksModified);
+    }
+}
@@ -0,0 +1,25 @@
+package com.makowski.bookshelves.dto;
+
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Objects;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+@Getter
+@AllArgsConstructor
+public class VersionDto {
+
+    private String eTag;
+    private long lastModified;
+
+    public static VersionDto of(String eTag, Instant... modified) {
+        return new VersionDto(eTag, Arrays.stream(modified)
+            .filter(Objects::nonNull)
+            .max(Comparator.naturalOrder())
+            .map(Instant::toEpochMilli)
+            .orElse(-1L));
+    }
+}
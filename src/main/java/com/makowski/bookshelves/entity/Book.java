@@ -1,20 +1,33 @@
 package com.makowski.bookshelves.entity;
 
+import java.time.Instant;
 import java.util.List;
 
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.ColumnDefault;
+import org.hibernate.annotations.UpdateTimestamp;
+
 import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.makowski.bookshelves.metrics.EntityLoadListener;
 
+import jakarta.persistence.Cacheable;
 import jakarta.persistence.CascadeType;
 import jakarta.persistence.Column;
+import jakarta.persistence.Embedded;
 import jakarta.persistence.Entity;
+import jakarta.persistence.EntityListeners;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.JoinTable;
 import jakarta.persistence.ManyToMany;
 import jakarta.persistence.OneToMany;
 import jakarta.persistence.Table;
+import jakarta.persistence.TableGenerator;
+import jakarta.persistence.Version;
 import jakarta.validation.constraints.Min;
 import jakarta.validation.constraints.NotBlank;
 import lombok.Data;
@@ -23,13 +36,20 @@ import lombok.NonNull;
 
 @Data
 @Entity
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "books")
+@EntityListeners(EntityLoadListener.class)
 @NoArgsConstructor
-@Table(name = "books")
+@Table(name = "books", indexes = {
+        @Index(name = "books_genre_weighted_score", columnList = "genre, weighted_score")
+})
 public class Book {
 
     @Id
     @Column(name = "id")
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.TABLE, generator = "book_ids")
+    @TableGenerator(name = "book_ids", table = IdGenerators.TABLE, pkColumnName = IdGenerators.SEGMENT_COLUMN,
+        valueColumnName = IdGenerators.VALUE_COLUMN, pkColumnValue = IdGenerators.BOOKS, allocationSize = IdGenerators.ALLOCATION_SIZE)
     private Long id;
 
     @NonNull
@@ -60,15 +80,36 @@ public class Book {
     @Column(name = "publication_year", nullable = false)
     private int year;
 
-    @Column(name = "rating", nullable = false)
+    @Column(name = "rating", nullable = false, updatable = false)
     private float rating;    
 
-    @Column(name = "scores_number", nullable = false)
+    @Column(name = "scores_number", nullable = false, updatable = false)
     private int scoresNumber;      
 
     @JsonIgnore
-    @Column(name = "scores_sum", nullable = false)
+    @Column(name = "scores_sum", nullable = false, updatable = false)
     private int scoresSum;
+
+    @JsonIgnore
+    @ColumnDefault("0")
+    @Column(name = "weighted_score", nullable = false, updatable = false)
+    private float weightedScore;
+
+    @JsonIgnore
+    @Embedded
+    private ScoreHistogram histogram = new ScoreHistogram();
+
+    @JsonIgnore
+    @Version
+    @ColumnDefault("0")
+    @Column(name = "version", nullable = false)
+    private long version;
+
+    @JsonIgnore
+    @UpdateTimestamp
+    @ColumnDefault("current_timestamp(6)")
+    @Column(name = "last_modified", nullable = false)
+    private Instant lastModified;
     
     @JsonIgnore
     @OneToMany(mappedBy = "book", cascade = CascadeType.ALL)
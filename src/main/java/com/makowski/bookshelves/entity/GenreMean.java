@@ -0,0 +1,24 @@
+package com.makowski.bookshelves.entity;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Entity
+@NoArgsConstructor
+@AllArgsConstructor
+@Table(name = "genre_means")
+public class GenreMean {
+
+    @Id
+    @Column(name = "genre")
+    private String genre;
+
+    @Column(name = "mean", nullable = false)
+    private double mean;
+}
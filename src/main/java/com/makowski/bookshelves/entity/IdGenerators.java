@@ -0,0 +1,17 @@
+package com.makowski.bookshelves.entity;
+
+public final class IdGenerators {
+
+    public static final String TABLE = "id_generator";
+    public static final String SEGMENT_COLUMN = "entity";
+    public static final String VALUE_COLUMN = "next_val";
+    public static final int ALLOCATION_SIZE = 50;
+
+    public static final String BOOKS = "books";
+    public static final String USERS = "users";
+    public static final String SHELVES = "shelves";
+    public static final String RATINGS = "rating";
+
+    private IdGenerators() {
+    }
+}
@@ -1,16 +1,26 @@
 package com.makowski.bookshelves.entity;
 
+import java.time.Instant;
 import java.time.LocalDate;
 
+import org.hibernate.annotations.ColumnDefault;
+import org.hibernate.annotations.UpdateTimestamp;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.makowski.bookshelves.metrics.EntityLoadListener;
+
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
+import jakarta.persistence.EntityListeners;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.ManyToOne;
 import jakarta.persistence.Table;
+import jakarta.persistence.TableGenerator;
 import jakarta.persistence.UniqueConstraint;
+import jakarta.persistence.Version;
 import jakarta.validation.constraints.Max;
 import jakarta.validation.constraints.Min;
 import lombok.Data;
@@ -18,6 +28,7 @@ import lombok.NoArgsConstructor;
 
 @Data
 @Entity
+@EntityListeners(EntityLoadListener.class)
 @NoArgsConstructor
 @Table(name = "rating", uniqueConstraints = {
         @UniqueConstraint(columnNames = {"ownerr", "book"})
@@ -25,7 +36,9 @@ import lombok.NoArgsConstructor;
 public class Rating {
     
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.TABLE, generator = "rating_ids")
+    @TableGenerator(name = "rating_ids", table = IdGenerators.TABLE, pkColumnName = IdGenerators.SEGMENT_COLUMN,
+        valueColumnName = IdGenerators.VALUE_COLUMN, pkColumnValue = IdGenerators.RATINGS, allocationSize = IdGenerators.ALLOCATION_SIZE)
     @Column(name = "id")
     private Long id;
 
@@ -40,6 +53,18 @@ public class Rating {
     @Column(name = "date")
     private LocalDate date; 
 
+    @JsonIgnore
+    @Version
+    @ColumnDefault("0")
+    @Column(name = "version", nullable = false)
+    private long version;
+
+    @JsonIgnore
+    @UpdateTimestamp
+    @ColumnDefault("current_timestamp(6)")
+    @Column(name = "last_modified", nullable = false)
+    private Instant lastModified;
+
     @ManyToOne(optional = false)
     @JoinColumn(name = "ownerr", referencedColumnName = "id")
     private User user;
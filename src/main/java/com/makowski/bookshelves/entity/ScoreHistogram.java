@@ -0,0 +1,65 @@
+package com.makowski.bookshelves.entity;
+
+import org.hibernate.annotations.ColumnDefault;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Embeddable;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Embeddable
+@NoArgsConstructor
+public class ScoreHistogram {
+
+    public static final int SCORES = 10;
+
+    @ColumnDefault("0")
+    @Column(name = "score_1", nullable = false, insertable = false, updatable = false)
+    private int score1;
+
+    @ColumnDefault("0")
+    @Column(name = "score_2", nullable = false, insertable = false, updatable = false)
+    private int score2;
+
+    @ColumnDefault("0")
+    @Column(name = "score_3", nullable = false, insertable = false, updatable = false)
+    private int score3;
+
+    @ColumnDefault("0")
+    @Column(name = "score_4", nullable = false, insertable = false, updatable = false)
+    private int score4;
+
+    @ColumnDefault("0")
+    @Column(name = "score_5", nullable = false, insertable = false, updatable = false)
+    private int score5;
+
+    @ColumnDefault("0")
+    @Column(name = "score_6", nullable = false, insertable = false, updatable = false)
+    private int score6;
+
+    @ColumnDefault("0")
+    @Column(name = "score_7", nullable = false, insertable = false, updatable = false)
+    private int score7;
+
+    @ColumnDefault("0")
+    @Column(name = "score_8", nullable = false, insertable = false, updatable = false)
+    private int score8;
+
+    @ColumnDefault("0")
+    @Column(name = "score_9", nullable = false, insertable = false, updatable = false)
+    private int score9;
+
+    @ColumnDefault("0")
+    @Column(name = "score_10", nullable = false, insertable = false, updatable = false)
+    private int score10;
+
+    public int[] toArray() {
+        return new int[] { score1, score2, score3, score4, score5, score6, score7, score8, score9, score10 };
+    }
+
+    public static String column(int score) {
+        if (score < 1 || score > SCORES) throw new IllegalArgumentException("score must be between 1 and " + SCORES);
+        return "score_" + score;
+    }
+}
@@ -1,11 +1,17 @@
 package com.makowski.bookshelves.entity;
 
+import java.time.Instant;
 import java.util.List;
 
+import org.hibernate.annotations.ColumnDefault;
+import org.hibernate.annotations.UpdateTimestamp;
+
 import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.makowski.bookshelves.metrics.EntityLoadListener;
 
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
+import jakarta.persistence.EntityListeners;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
@@ -14,6 +20,8 @@ import jakarta.persistence.JoinTable;
 import jakarta.persistence.ManyToMany;
 import jakarta.persistence.ManyToOne;
 import jakarta.persistence.Table;
+import jakarta.persistence.TableGenerator;
+import jakarta.persistence.Version;
 import jakarta.validation.constraints.NotBlank;
 import lombok.Data;
 import lombok.NoArgsConstructor;
@@ -21,13 +29,16 @@ import lombok.NonNull;
 
 @Data
 @Entity
+@EntityListeners(EntityLoadListener.class)
 @NoArgsConstructor
 @Table(name = "shelves")
 public class Shelf {
  
     @Id
     @Column(name = "id")
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.TABLE, generator = "shelf_ids")
+    @TableGenerator(name = "shelf_ids", table = IdGenerators.TABLE, pkColumnName = IdGenerators.SEGMENT_COLUMN,
+        valueColumnName = IdGenerators.VALUE_COLUMN, pkColumnValue = IdGenerators.SHELVES, allocationSize = IdGenerators.ALLOCATION_SIZE)
     private Long id;
 
     @NonNull
@@ -39,6 +50,18 @@ public class Shelf {
     @Column(name = "permanent", nullable = false)
     private boolean permanent;
 
+    @JsonIgnore
+    @Version
+    @ColumnDefault("0")
+    @Column(name = "version", nullable = false)
+    private long version;
+
+    @JsonIgnore
+    @UpdateTimestamp
+    @ColumnDefault("current_timestamp(6)")
+    @Column(name = "last_modified", nullable = false)
+    private Instant lastModified;
+
     @ManyToOne
     @JoinColumn(name = "owner_id", referencedColumnName = "id")
     private User owner;
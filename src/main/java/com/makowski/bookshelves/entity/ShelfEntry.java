@@ -0,0 +1,23 @@
+package com.makowski.bookshelves.entity;
+
+import com.makowski.bookshelves.metrics.EntityLoadListener;
+
+import jakarta.persistence.EmbeddedId;
+import jakarta.persistence.Entity;
+import jakarta.persistence.EntityListeners;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Entity
+@EntityListeners(EntityLoadListener.class)
+@NoArgsConstructor
+@AllArgsConstructor
+@Table(name = "books_on_shelves")
+public class ShelfEntry {
+
+    @EmbeddedId
+    private ShelfEntryId id;
+}
@@ -0,0 +1,22 @@
+package com.makowski.bookshelves.entity;
+
+import java.io.Serializable;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Embeddable;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Embeddable
+@NoArgsConstructor
+@AllArgsConstructor
+public class ShelfEntryId implements Serializable {
+
+    @Column(name = "shelf_id", nullable = false)
+    private Long shelfId;
+
+    @Column(name = "book_id", nullable = false)
+    private Long bookId;
+}
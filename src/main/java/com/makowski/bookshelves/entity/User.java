@@ -1,18 +1,26 @@
 package com.makowski.bookshelves.entity;
 
+import java.time.Instant;
 import java.util.List;
 
+import org.hibernate.annotations.ColumnDefault;
+import org.hibernate.annotations.UpdateTimestamp;
+
 import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonProperty;
+import com.makowski.bookshelves.metrics.EntityLoadListener;
 
 import jakarta.persistence.CascadeType;
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
+import jakarta.persistence.EntityListeners;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
 import jakarta.persistence.OneToMany;
 import jakarta.persistence.Table;
+import jakarta.persistence.TableGenerator;
+import jakarta.persistence.Version;
 import jakarta.validation.constraints.NotBlank;
 import lombok.Data;
 import lombok.NoArgsConstructor;
@@ -20,13 +28,16 @@ import lombok.NonNull;
 
 @Data
 @Entity
+@EntityListeners(EntityLoadListener.class)
 @NoArgsConstructor
 @Table(name = "users")
 public class User {
     
     @Id
     @Column(name = "id")
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.TABLE, generator = "user_ids")
+    @TableGenerator(name = "user_ids", table = IdGenerators.TABLE, pkColumnName = IdGenerators.SEGMENT_COLUMN,
+        valueColumnName = IdGenerators.VALUE_COLUMN, pkColumnValue = IdGenerators.USERS, allocationSize = IdGenerators.ALLOCATION_SIZE)
     private Long id;
  
     @NonNull           
@@ -58,4 +69,16 @@ public class User {
 
     @Column(name = "now_reading")
     private Long nowReading;
+
+    @JsonIgnore
+    @Version
+    @ColumnDefault("0")
+    @Column(name = "version", nullable = false)
+    private long version;
+
+    @JsonIgnore
+    @UpdateTimestamp
+    @ColumnDefault("current_timestamp(6)")
+    @Column(name = "last_modified", nullable = false)
+    private Instant lastModified;
 }
\ No newline at end of file
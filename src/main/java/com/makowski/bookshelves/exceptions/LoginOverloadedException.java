@@ -0,0 +1,9 @@
+package com.makowski.bookshelves.exceptions;
+
+import org.springframework.security.authentication.AuthenticationServiceException;
+
+public class LoginOverloadedException extends AuthenticationServiceException {
+    public LoginOverloadedException() {
+        super("Too many login attempts at the moment, please try again later");
+    }    
+}
@@ -0,0 +1,267 @@
+package com.makowski.bookshelves.generator;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.makowski.bookshelves.entity.IdGenerators;
+import com.makowski.bookshelves.repository.IdAllocator;
+import com.makowski.bookshelves.service.ScoreHistogramRebuilder;
+
+import lombok.extern.slf4j.Slf4j;
+
+@Slf4j
+@Component
+@Profile("generate-data")
+public class DataGenerator {
+
+    private static final String PASSWORD = "$2a$10$ZFhQWwueKvNbAqCOW6NxdO9Qv6XQy..9gEUcHZSC30Z/YuwKBC92K";
+    private static final String[] TITLE_WORDS = {
+        "Night", "Garden", "River", "Shadow", "Winter", "Silver", "Storm", "Secret", "House", "Fire",
+        "Ocean", "Summer", "Stone", "Crown", "Empire", "Glass", "Wolf", "Forest", "Letter", "Island",
+        "Mountain", "City", "Dream", "Heart", "Road", "Sister", "Daughter", "King", "War", "Bridge",
+        "Moon", "Salt", "Iron", "Paper", "Orchard", "Harbor", "Bone", "Light", "Feather", "Clock"
+    };
+    private static final String[] FIRST_NAMES = {
+        "Anna", "John", "Maria", "Peter", "Laura", "James", "Olga", "David", "Emma", "Tom",
+        "Sofia", "Adam", "Julia", "Mark", "Clara", "Lucas", "Helen", "Jan", "Nora", "Victor"
+    };
+    private static final String[] LAST_NAMES = {
+        "Smith", "Kowalski", "Novak", "Brown", "Garcia", "Muller", "Rossi", "Dubois", "Nowak", "Jensen",
+        "Silva", "Walsh", "Fischer", "Moreau", "Larsen", "Keller", "Costa", "Berg", "Wilson", "Ito"
+    };
+    private static final String[] PUBLISHERS = {
+        "Penguin Press", "Doubleday", "Viking Press", "HarperCollins", "Vintage", "Knopf", "Bloomsbury", "Tor Books"
+    };
+    private static final String[] GENRES = {
+        "fiction", "crime", "thriller", "fantasy", "romance", "science fiction", "horror", "biography",
+        "history", "poetry", "young adult", "non-fiction"
+    };
+    private static final String[] REVIEWS = {
+        "Couldn't put it down.", "Slow start, great ending.", "Not for me.", "A new favourite!",
+        "Overrated.", "Beautifully written.", "The characters felt flat.", "Read it twice."
+    };
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final IdAllocator idAllocator;
+    private final ScoreHistogramRebuilder scoreHistogramRebuilder;
+    private final int books;
+    private final int users;
+    private final int maxRatingsPerUser;
+    private final double bookSkew;
+    private final double raterSkew;
+    private final int batchSize;
+    private final long seed;
+
+    public DataGenerator(JdbcTemplate jdbcTemplate, TransactionTemplate transactionTemplate, IdAllocator idAllocator,
+            ScoreHistogramRebuilder scoreHistogramRebuilder,
+            @Value("${bookshelves.generator.books:1000000}") int books,
+            @Value("${bookshelves.generator.users:200000}") int users,
+            @Value("${bookshelves.generator.max-ratings-per-user:2000}") int maxRatingsPerUser,
+            @Value("${bookshelves.generator.book-skew:1.07}") double bookSkew,
+            @Value("${bookshelves.generator.rater-skew:1.3}") double raterSkew,
+            @Value("${bookshelves.generator.batch-size:5000}") int batchSize,
+            @Value("${bookshelves.generator.seed:42}") long seed) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.idAllocator = idAllocator;
+        this.scoreHistogramRebuilder = scoreHistogramRebuilder;
+        this.books = books;
+        this.users = users;
+        this.maxRatingsPerUser = Math.max(1, Math.min(maxRatingsPerUser, books / 2));
+        this.bookSkew = bookSkew;
+        this.raterSkew = raterSkew;
+        this.batchSize = batchSize;
+        this.seed = seed;
+    }
+
+    public void generate() {
+        Long existingBooks = jdbcTemplate.queryForObject("select count(*) from books", Long.class);
+        if (existingBooks != null && existingBooks >= books) {
+            log.info("Skipping data generation, database already holds {} books", existingBooks);
+            return;
+        }
+        long started = System.currentTimeMillis();
+        Random random = new Random(seed);
+        int[] popularity = permutation(books, random);
+
+        int[] scoresNumber = new int[books];
+        int[] scoresSum = new int[books];
+        long ratings = forEachRating(popularity, (user, book, score) -> {
+            if (score == 0) return;
+            scoresNumber[book]++;
+            scoresSum[book] += score;
+        });
+
+        long[] bookIds = insertBooks(random, scoresNumber, scoresSum);
+        log.info("Inserted {} books", bookIds.length);
+        long[] userIds = insertUsers(random);
+        log.info("Inserted {} users", userIds.length);
+        long[] shelfIds = insertShelves(userIds);
+        log.info("Inserted {} shelves", shelfIds.length);
+        insertRatings(popularity, ratings, bookIds, userIds, shelfIds);
+        log.info("Inserted {} ratings", ratings);
+        scoreHistogramRebuilder.rebuild();
+        insertWantedBooks(random, popularity, bookIds, shelfIds);
+        log.info("Data generation finished in {} s", (System.currentTimeMillis() - started) / 1000);
+    }
+
+    private long forEachRating(int[] popularity, RatingConsumer consumer) {
+        Random random = new Random(seed + 1);
+        ZipfDistribution bookDistribution = new ZipfDistribution(books, bookSkew);
+        ZipfDistribution raterDistribution = new ZipfDistribution(maxRatingsPerUser, raterSkew);
+        long ratings = 0;
+        for (int user = 0; user < users; user++) {
+            int count = raterDistribution.sample(random);
+            Set<Integer> rated = new HashSet<>();
+            while (rated.size() < count) {
+                int book = popularity[bookDistribution.sample(random) - 1];
+                if (!rated.add(book)) continue;
+                consumer.accept(user, book, score(random));
+                ratings++;
+            }
+        }
+        return ratings;
+    }
+
+    private long[] insertBooks(Random random, int[] scoresNumber, int[] scoresSum) {
+        long[] ids = reserve(IdGenerators.BOOKS, books);
+        String sql = "insert into books (id, title, author, publisher, genre, pages, publication_year, rating, scores_number, scores_sum) "
+            + "values (?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+        ZipfDistribution authorDistribution = new ZipfDistribution(Math.max(1, books / 8), 1.0);
+        List<Object[]> rows = new ArrayList<>();
+        for (int book = 0; book < books; book++) {
+            float rating = scoresNumber[book] == 0 ? 0 : Math.round(scoresSum[book] * 10f / scoresNumber[book]) / 10f;
+            rows.add(new Object[] { ids[book], title(random), author(authorDistribution.sample(random) - 1),
+                PUBLISHERS[random.nextInt(PUBLISHERS.length)], GENRES[random.nextInt(GENRES.length)],
+                80 + random.nextInt(900), publicationYear(random), rating, scoresNumber[book], scoresSum[book] });
+            flush(sql, rows, false);
+        }
+        flush(sql, rows, true);
+        return ids;
+    }
+
+    private long[] insertUsers(Random random) {
+        long[] ids = reserve(IdGenerators.USERS, users);
+        String sql = "insert into users (id, username, password, email, private) values (?, ?, ?, ?, ?)";
+        List<Object[]> rows = new ArrayList<>();
+        for (int user = 0; user < users; user++) {
+            rows.add(new Object[] { ids[user], "reader" + user, PASSWORD, "reader" + user + "@bookshelves.test", random.nextInt(10) == 0 });
+            flush(sql, rows, false);
+        }
+        flush(sql, rows, true);
+        return ids;
+    }
+
+    private long[] insertShelves(long[] userIds) {
+        long[] ids = reserve(IdGenerators.SHELVES, userIds.length * 2);
+        String sql = "insert into shelves (id, name, permanent, owner_id) values (?, ?, true, ?)";
+        List<Object[]> rows = new ArrayList<>();
+        for (int user = 0; user < userIds.length; user++) {
+            rows.add(new Object[] { ids[user * 2], "Want read", userIds[user] });
+            rows.add(new Object[] { ids[user * 2 + 1], "Have read", userIds[user] });
+            flush(sql, rows, false);
+        }
+        flush(sql, rows, true);
+        return ids;
+    }
+
+    private void insertRatings(int[] popularity, long ratings, long[] bookIds, long[] userIds, long[] shelfIds) {
+        Random details = new Random(seed + 2);
+        long[] nextId = { idAllocator.reserve(IdGenerators.RATINGS, Math.toIntExact(ratings)) };
+        LocalDate today = LocalDate.now();
+        String ratingSql = "insert into rating (id, score, review, date, ownerr, book) values (?, ?, ?, ?, ?, ?)";
+        String shelfSql = "insert into books_on_shelves (shelf_id, book_id) values (?, ?)";
+        List<Object[]> ratingRows = new ArrayList<>();
+        List<Object[]> shelfRows = new ArrayList<>();
+        forEachRating(popularity, (user, book, score) -> {
+            String review = score == 0 || details.nextInt(5) == 0 ? REVIEWS[details.nextInt(REVIEWS.length)] : "";
+            ratingRows.add(new Object[] { nextId[0]++, score, review, today.minusDays(details.nextInt(5 * 365)), userIds[user], bookIds[book] });
+            shelfRows.add(new Object[] { shelfIds[user * 2 + 1], bookIds[book] });
+            flush(ratingSql, ratingRows, false);
+            flush(shelfSql, shelfRows, false);
+        });
+        flush(ratingSql, ratingRows, true);
+        flush(shelfSql, shelfRows, true);
+    }
+
+    private void insertWantedBooks(Random random, int[] popularity, long[] bookIds, long[] shelfIds) {
+        ZipfDistribution bookDistribution = new ZipfDistribution(books, bookSkew);
+        String sql = "insert into books_on_shelves (shelf_id, book_id) values (?, ?)";
+        List<Object[]> rows = new ArrayList<>();
+        for (int user = 0; user < users; user++) {
+            Set<Integer> wanted = new HashSet<>();
+            int count = random.nextInt(Math.min(10, books) + 1);
+            while (wanted.size() < count) wanted.add(popularity[bookDistribution.sample(random) - 1]);
+            for (int book : wanted) {
+                rows.add(new Object[] { shelfIds[user * 2], bookIds[book] });
+                flush(sql, rows, false);
+            }
+        }
+        flush(sql, rows, true);
+    }
+
+    private void flush(String sql, List<Object[]> rows, boolean force) {
+        if (rows.isEmpty() || (!force && rows.size() < batchSize)) return;
+        transactionTemplate.executeWithoutResult(status -> jdbcTemplate.batchUpdate(sql, rows));
+        rows.clear();
+    }
+
+    private long[] reserve(String segment, int count) {
+        long first = idAllocator.reserve(segment, count);
+        long[] ids = new long[count];
+        for (int i = 0; i < count; i++) ids[i] = first + i;
+        return ids;
+    }
+
+    private static int[] permutation(int size, Random random) {
+        int[] permutation = new int[size];
+        for (int i = 0; i < size; i++) permutation[i] = i;
+        for (int i = size - 1; i > 0; i--) {
+            int j = random.nextInt(i + 1);
+            int swap = permutation[i];
+            permutation[i] = permutation[j];
+            permutation[j] = swap;
+        }
+        return permutation;
+    }
+
+    private static int score(Random random) {
+        if (random.nextInt(20) == 0) return 0;
+        return (int) Math.max(1, Math.min(10, Math.round(7 + random.nextGaussian() * 1.8)));
+    }
+
+    private static String title(Random random) {
+        String first = TITLE_WORDS[random.nextInt(TITLE_WORDS.length)];
+        String second = TITLE_WORDS[random.nextInt(TITLE_WORDS.length)];
+        switch (random.nextInt(3)) {
+            case 0: return "The " + first + " of the " + second;
+            case 1: return first + " and " + second;
+            default: return "The " + first + " " + second;
+        }
+    }
+
+    private static String author(int index) {
+        int names = FIRST_NAMES.length * LAST_NAMES.length;
+        String name = FIRST_NAMES[index % FIRST_NAMES.length] + " " + LAST_NAMES[index / FIRST_NAMES.length % LAST_NAMES.length];
+        return index < names ? name : name + " " + (index / names + 1);
+    }
+
+    private static int publicationYear(Random random) {
+        return 2025 - (int) Math.min(125, Math.abs(random.nextGaussian()) * 25);
+    }
+
+    private interface RatingConsumer {
+        void accept(int user, int book, int score);
+    }
+}
@@ -0,0 +1,78 @@
+package com.makowski.bookshelves.index;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentNavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.stream.Collectors;
+
+import org.springframework.stereotype.Component;
+
+import com.makowski.bookshelves.entity.Book;
+
+@Component
+public class BookSearchIndex {
+
+    private final ConcurrentNavigableMap<String, NavigableSet<Long>> postings = new ConcurrentSkipListMap<>();
+    private final Map<Long, Set<String>> tokensByBook = new ConcurrentHashMap<>();
+
+    public synchronized void rebuild(Iterable<Book> books) {
+        clear();
+        for (Book book : books) index(book);
+    }
+
+    public synchronized void clear() {
+        postings.clear();
+        tokensByBook.clear();
+    }
+
+    public void index(Book book) {
+        index(book.getId(), book.getTitle(), book.getAuthor());
+    }
+
+    public synchronized void index(Long bookId, String title, String author) {
+        remove(bookId);
+        Set<String> tokens = tokenize(title + " " + author);
+        for (String token : tokens) {
+            postings.computeIfAbsent(token, key -> new ConcurrentSkipListSet<>()).add(bookId);
+        }
+        tokensByBook.put(bookId, tokens);
+    }
+
+    public synchronized void remove(Long bookId) {
+        Set<String> tokens = tokensByBook.remove(bookId);
+        if (tokens == null) return;
+        for (String token : tokens) {
+            postings.computeIfPresent(token, (key, ids) -> {
+                ids.remove(bookId);
+                return ids.isEmpty() ? null : ids;
+            });
+        }
+    }
+
+    public List<Long> search(String phrase, long after, int limit) {
+        List<Collection<NavigableSet<Long>>> terms = tokenize(phrase).stream().map(this::withPrefix).toList();
+        return Postings.intersect(terms, after, limit, id -> id);
+    }
+
+    public int size() {
+        return tokensByBook.size();
+    }
+
+    private Collection<NavigableSet<Long>> withPrefix(String prefix) {
+        return postings.subMap(prefix, true, prefix + Character.MAX_VALUE, true).values();
+    }
+
+    static Set<String> tokenize(String text) {
+        return Arrays.stream(text.toUpperCase().split("[^\\p{L}\\p{N}]+"))
+            .filter(token -> !token.isEmpty())
+            .collect(Collectors.toCollection(LinkedHashSet::new));
+    }
+}
@@ -0,0 +1,136 @@
+package com.makowski.bookshelves.index;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+import java.util.function.Function;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.makowski.bookshelves.dto.BookDto;
+
+@Component
+public class GenreLeaderboard {
+
+    public static final Comparator<BookDto> RANKING = Comparator.comparing(BookDto::getWeightedScore).reversed()
+        .thenComparing(BookDto::getId);
+
+    private final int size;
+    private final Map<String, Ranking> rankings = new HashMap<>();
+    private final Map<Long, String> genres = new HashMap<>();
+    private final Map<String, Long> changes = new HashMap<>();
+    private long removals;
+
+    public GenreLeaderboard(@Value("${bookshelves.leaderboard.size:10}") int size) {
+        if (size < 1) throw new IllegalArgumentException("leaderboard size must be positive");
+        this.size = size;
+    }
+
+    public int getSize() {
+        return size;
+    }
+
+    public synchronized void rebuild(Map<String, ? extends Collection<BookDto>> booksByGenre) {
+        clear();
+        booksByGenre.forEach(this::load);
+    }
+
+    public List<BookDto> top(String genre, Function<String, List<BookDto>> loader) {
+        long seen;
+        synchronized (this) {
+            Ranking ranking = rankings.get(genre);
+            if (ranking != null) return new ArrayList<>(ranking.books);
+            seen = changesOf(genre);
+        }
+        List<BookDto> books = loader.apply(genre);
+        synchronized (this) {
+            Ranking ranking = rankings.get(genre);
+            if (ranking != null) return new ArrayList<>(ranking.books);
+            if (books.isEmpty() || changesOf(genre) != seen) return new ArrayList<>(books);
+            return new ArrayList<>(load(genre, books).books);
+        }
+    }
+
+    public synchronized void update(String genre, BookDto book) {
+        changes.merge(genre, 1L, Long::sum);
+        boolean wasTracked = genre.equals(genres.get(book.getId()));
+        if (!wasTracked) untrack(book.getId());
+        Ranking ranking = rankings.get(genre);
+        if (ranking == null) return;
+        if (wasTracked) ranking.books.removeIf(entry -> entry.getId().equals(book.getId()));
+        genres.remove(book.getId());
+
+        if (ranking.complete) {
+            add(genre, ranking, book);
+            if (ranking.books.size() > size) {
+                genres.remove(ranking.books.pollLast().getId());
+                ranking.complete = false;
+            }
+        } else if (!ranking.books.isEmpty() && RANKING.compare(book, ranking.books.last()) < 0) {
+            add(genre, ranking, book);
+            if (ranking.books.size() > size) genres.remove(ranking.books.pollLast().getId());
+        } else if (wasTracked) {
+            invalidate(genre);
+        }
+    }
+
+    public synchronized void remove(Long bookId) {
+        if (!untrack(bookId)) removals++;
+    }
+
+    public synchronized void clear() {
+        rankings.clear();
+        genres.clear();
+        removals++;
+    }
+
+    private boolean untrack(Long bookId) {
+        String genre = genres.remove(bookId);
+        if (genre == null) return false;
+        changes.merge(genre, 1L, Long::sum);
+        Ranking ranking = rankings.get(genre);
+        ranking.books.removeIf(entry -> entry.getId().equals(bookId));
+        if (!ranking.complete) invalidate(genre);
+        return true;
+    }
+
+    private long changesOf(String genre) {
+        return changes.getOrDefault(genre, 0L) + removals;
+    }
+
+    private Ranking load(String genre, Collection<BookDto> books) {
+        Ranking ranking = new Ranking(books);
+        rankings.put(genre, ranking);
+        for (BookDto book : ranking.books) genres.put(book.getId(), genre);
+        return ranking;
+    }
+
+    private void add(String genre, Ranking ranking, BookDto book) {
+        ranking.books.add(book);
+        genres.put(book.getId(), genre);
+    }
+
+    private void invalidate(String genre) {
+        Ranking ranking = rankings.remove(genre);
+        for (BookDto book : ranking.books) genres.remove(book.getId());
+    }
+
+    private class Ranking {
+
+        private final TreeSet<BookDto> books = new TreeSet<>(RANKING);
+        private boolean complete;
+
+        private Ranking(Collection<BookDto> loaded) {
+            for (BookDto book : loaded) {
+                books.add(book);
+                if (books.size() > size) books.pollLast();
+            }
+            complete = loaded.size() < size;
+        }
+    }
+}
@@ -0,0 +1,41 @@
+package com.makowski.bookshelves.index;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.NavigableSet;
+import java.util.function.Function;
+
+final class Postings {
+
+    private Postings() {
+    }
+
+    static <T> List<T> intersect(List<Collection<NavigableSet<Long>>> terms, long after, int limit, Function<Long, T> match) {
+        List<T> result = new ArrayList<>();
+        if (terms.isEmpty()) return result;
+        Long candidate = first(terms.get(0), after, false);
+        while (candidate != null && result.size() < limit) {
+            Long next = candidate;
+            for (Collection<NavigableSet<Long>> term : terms) {
+                next = first(term, candidate, true);
+                if (!candidate.equals(next)) break;
+            }
+            if (candidate.equals(next)) {
+                T matched = match.apply(candidate);
+                if (matched != null) result.add(matched);
+                candidate = first(terms.get(0), candidate, false);
+            } else candidate = next;
+        }
+        return result;
+    }
+
+    private static Long first(Collection<NavigableSet<Long>> union, long from, boolean inclusive) {
+        Long first = null;
+        for (NavigableSet<Long> ids : union) {
+            Long id = inclusive ? ids.ceiling(from) : ids.higher(from);
+            if (id != null && (first == null || id < first)) first = id;
+        }
+        return first;
+    }
+}
\ No newline at end of file
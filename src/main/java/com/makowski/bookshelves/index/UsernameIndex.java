@@ -0,0 +1,89 @@
+package com.makowski.bookshelves.index;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+
+import org.springframework.stereotype.Component;
+
+import com.makowski.bookshelves.dto.UserDto;
+import com.makowski.bookshelves.entity.User;
+
+@Component
+public class UsernameIndex {
+
+    private static final int GRAM = 3;
+    private static final char START = '\u0002';
+    private static final char END = '\u0003';
+
+    private final Map<String, NavigableSet<Long>> trigrams = new ConcurrentHashMap<>();
+    private final Map<Long, String> usernames = new ConcurrentHashMap<>();
+
+    public synchronized void rebuild(Iterable<User> users) {
+        trigrams.clear();
+        usernames.clear();
+        for (User user : users) index(user);
+    }
+
+    public synchronized void index(User user) {
+        remove(user.getId());
+        usernames.put(user.getId(), user.getUsername());
+        for (String trigram : trigramsOf(START + normalize(user.getUsername()) + END)) {
+            trigrams.computeIfAbsent(trigram, key -> new ConcurrentSkipListSet<>()).add(user.getId());
+        }
+    }
+
+    public synchronized void remove(Long userId) {
+        String username = usernames.remove(userId);
+        if (username == null) return;
+        for (String trigram : trigramsOf(START + normalize(username) + END)) {
+            trigrams.computeIfPresent(trigram, (key, ids) -> {
+                ids.remove(userId);
+                return ids.isEmpty() ? null : ids;
+            });
+        }
+    }
+
+    public List<UserDto> search(String phrase, long after, int limit) {
+        String normalized = normalize(phrase);
+        List<Collection<NavigableSet<Long>>> terms = normalized.length() >= GRAM ? containingAllTrigrams(normalized) : containingShortPhrase(normalized);
+        return Postings.intersect(terms, after, limit, id -> {
+            String username = usernames.get(id);
+            return username != null && normalize(username).contains(normalized) ? new UserDto(id, username) : null;
+        });
+    }
+
+    private List<Collection<NavigableSet<Long>>> containingAllTrigrams(String phrase) {
+        List<Collection<NavigableSet<Long>>> terms = new ArrayList<>();
+        for (String trigram : trigramsOf(phrase)) {
+            NavigableSet<Long> ids = trigrams.get(trigram);
+            if (ids == null) return List.of();
+            terms.add(List.of(ids));
+        }
+        return terms;
+    }
+
+    private List<Collection<NavigableSet<Long>>> containingShortPhrase(String phrase) {
+        List<NavigableSet<Long>> matches = new ArrayList<>();
+        trigrams.forEach((trigram, ids) -> {
+            if (trigram.contains(phrase)) matches.add(ids);
+        });
+        return List.of(matches);
+    }
+
+    private static Set<String> trigramsOf(String text) {
+        Set<String> grams = new LinkedHashSet<>();
+        for (int i = 0; i + GRAM <= text.length(); i++) grams.add(text.substring(i, i + GRAM));
+        return grams;
+    }
+
+    private static String normalize(String text) {
+        return text.toUpperCase();
+    }
+}
@@ -0,0 +1,97 @@
+package com.makowski.bookshelves.metrics;
+
+import java.lang.reflect.Method;
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.stereotype.Component;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.AsyncHandlerInterceptor;
+
+import com.makowski.bookshelves.controller.BookController;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+@Component
+public class EndpointMetricsInterceptor implements AsyncHandlerInterceptor {
+
+    public static final String LATENCY = "bookshelves.endpoint.latency";
+    public static final String STATEMENTS = "bookshelves.endpoint.statements";
+    public static final String ENTITY_LOADS = "bookshelves.endpoint.entity.loads";
+    private static final String STARTED = EndpointMetricsInterceptor.class.getName() + ".started";
+    private static final String CONCURRENT_COUNTS = EndpointMetricsInterceptor.class.getName() + ".concurrentCounts";
+    private static final String CONTROLLER_PACKAGE = BookController.class.getPackageName();
+
+    private final MeterRegistry meterRegistry;
+    private final RequestStatistics requestStatistics;
+    private final Map<Method, EndpointMeters> meters = new ConcurrentHashMap<>();
+
+    public EndpointMetricsInterceptor(MeterRegistry meterRegistry, RequestStatistics requestStatistics) {
+        this.meterRegistry = meterRegistry;
+        this.requestStatistics = requestStatistics;
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        if (!isController(handler)) return true;
+        if (request.getAttribute(STARTED) == null) request.setAttribute(STARTED, System.nanoTime());
+        requestStatistics.begin();
+        return true;
+    }
+
+    @Override
+    public void afterConcurrentHandlingStarted(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        if (request.getAttribute(STARTED) == null) return;
+        request.setAttribute(CONCURRENT_COUNTS, requestStatistics.end());
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex) {
+        Long started = (Long) request.getAttribute(STARTED);
+        if (started == null) return;
+        RequestStatistics.Counts counts = requestStatistics.end();
+        RequestStatistics.Counts initial = (RequestStatistics.Counts) request.getAttribute(CONCURRENT_COUNTS);
+        if (initial != null) counts = counts.plus(initial);
+        EndpointMeters endpoint = meters.computeIfAbsent(((HandlerMethod) handler).getMethod(), this::register);
+        endpoint.latency().record(System.nanoTime() - started, TimeUnit.NANOSECONDS);
+        endpoint.statements().record(counts.getStatements());
+        endpoint.entityLoads().record(counts.getEntityLoads());
+    }
+
+    public Collection<EndpointMeters> getMeters() {
+        return meters.values();
+    }
+
+    private EndpointMeters register(Method method) {
+        String controller = method.getDeclaringClass().getSimpleName();
+        String name = method.getName();
+        return new EndpointMeters(controller + "." + name,
+            Timer.builder(LATENCY)
+                .description("Time spent handling a controller method, including response serialization")
+                .tags("controller", controller, "method", name)
+                .publishPercentiles(0.5, 0.99, 0.999)
+                .publishPercentileHistogram()
+                .register(meterRegistry),
+            DistributionSummary.builder(STATEMENTS)
+                .description("SQL statements prepared while handling a controller method")
+                .tags("controller", controller, "method", name)
+                .register(meterRegistry),
+            DistributionSummary.builder(ENTITY_LOADS)
+                .description("Entities loaded while handling a controller method")
+                .tags("controller", controller, "method", name)
+                .register(meterRegistry));
+    }
+
+    private static boolean isController(Object handler) {
+        return handler instanceof HandlerMethod method && method.getBeanType().getPackageName().equals(CONTROLLER_PACKAGE);
+    }
+
+    public record EndpointMeters(String endpoint, Timer latency, DistributionSummary statements, DistributionSummary entityLoads) {
+    }
+}
@@ -0,0 +1,15 @@
+package com.makowski.bookshelves.metrics;
+
+import jakarta.persistence.PostLoad;
+import lombok.AllArgsConstructor;
+
+@AllArgsConstructor
+public class EntityLoadListener {
+
+    private RequestStatistics requestStatistics;
+
+    @PostLoad
+    public void loaded(Object entity) {
+        requestStatistics.entityLoaded();
+    }
+}
@@ -0,0 +1,50 @@
+package com.makowski.bookshelves.metrics;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.stereotype.Component;
+
+import io.micrometer.core.instrument.distribution.HistogramSnapshot;
+import io.micrometer.core.instrument.distribution.ValueAtPercentile;
+import lombok.AllArgsConstructor;
+
+@Component
+@Endpoint(id = "latency")
+@AllArgsConstructor
+public class LatencyEndpoint {
+
+    private EndpointMetricsInterceptor endpointMetricsInterceptor;
+
+    @ReadOperation
+    public List<EndpointLatency> latency() {
+        return endpointMetricsInterceptor.getMeters().stream()
+            .map(LatencyEndpoint::summarize)
+            .sorted(Comparator.comparing(EndpointLatency::endpoint))
+            .toList();
+    }
+
+    private static EndpointLatency summarize(EndpointMetricsInterceptor.EndpointMeters meters) {
+        HistogramSnapshot snapshot = meters.latency().takeSnapshot();
+        long count = snapshot.count();
+        return new EndpointLatency(meters.endpoint(), count,
+            snapshot.mean(TimeUnit.MILLISECONDS),
+            percentile(snapshot, 0.5), percentile(snapshot, 0.99), percentile(snapshot, 0.999),
+            snapshot.max(TimeUnit.MILLISECONDS),
+            count == 0 ? 0 : meters.statements().totalAmount() / count,
+            count == 0 ? 0 : meters.entityLoads().totalAmount() / count);
+    }
+
+    private static double percentile(HistogramSnapshot snapshot, double percentile) {
+        for (ValueAtPercentile value : snapshot.percentileValues())
+            if (value.percentile() == percentile) return value.value(TimeUnit.MILLISECONDS);
+        return Double.NaN;
+    }
+
+    public record EndpointLatency(String endpoint, long count, double meanMs, double p50Ms, double p99Ms, double p999Ms,
+            double maxMs, double statementsPerRequest, double entityLoadsPerRequest) {
+    }
+}
@@ -0,0 +1,55 @@
+package com.makowski.bookshelves.metrics;
+
+import org.springframework.stereotype.Component;
+
+@Component
+public class RequestStatistics {
+
+    private final ThreadLocal<Counts> current = new ThreadLocal<>();
+
+    public void begin() {
+        Counts counts = current.get();
+        if (counts == null) current.set(new Counts());
+            else counts.depth++;
+    }
+
+    public Counts end() {
+        Counts counts = current.get();
+        if (counts == null) return new Counts();
+        if (counts.depth == 0) current.remove();
+            else counts.depth--;
+        return counts;
+    }
+
+    public void statementPrepared() {
+        Counts counts = current.get();
+        if (counts != null) counts.statements++;
+    }
+
+    public void entityLoaded() {
+        Counts counts = current.get();
+        if (counts != null) counts.entityLoads++;
+    }
+
+    public static class Counts {
+
+        private int statements;
+        private int entityLoads;
+        private int depth;
+
+        public int getStatements() {
+            return statements;
+        }
+
+        public int getEntityLoads() {
+            return entityLoads;
+        }
+
+        public Counts plus(Counts other) {
+            Counts sum = new Counts();
+            sum.statements = statements + other.statements;
+            sum.entityLoads = entityLoads + other.entityLoads;
+            return sum;
+        }
+    }
+}
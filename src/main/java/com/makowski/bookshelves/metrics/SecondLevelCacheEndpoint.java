@@ -0,0 +1,45 @@
+package com.makowski.bookshelves.metrics;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.CacheRegionStatistics;
+import org.hibernate.stat.Statistics;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.stereotype.Component;
+
+import jakarta.persistence.EntityManagerFactory;
+import lombok.AllArgsConstructor;
+
+@Component
+@Endpoint(id = "l2cache")
+@AllArgsConstructor
+public class SecondLevelCacheEndpoint {
+
+    private EntityManagerFactory entityManagerFactory;
+
+    @ReadOperation
+    public List<RegionStatistics> regions() {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        if (!statistics.isStatisticsEnabled()) return List.of();
+        return Arrays.stream(statistics.getSecondLevelCacheRegionNames())
+            .sorted()
+            .map(region -> summarize(region, statistics.getCacheRegionStatistics(region)))
+            .filter(Objects::nonNull)
+            .toList();
+    }
+
+    private static RegionStatistics summarize(String region, CacheRegionStatistics statistics) {
+        if (statistics == null) return null;
+        long hits = statistics.getHitCount();
+        long misses = statistics.getMissCount();
+        return new RegionStatistics(region, hits, misses, statistics.getPutCount(),
+            statistics.getElementCountInMemory(), hits + misses == 0 ? 0 : (double) hits / (hits + misses));
+    }
+
+    public record RegionStatistics(String region, long hits, long misses, long puts, long size, double hitRatio) {
+    }
+}
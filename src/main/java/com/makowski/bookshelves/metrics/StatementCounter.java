@@ -0,0 +1,19 @@
+package com.makowski.bookshelves.metrics;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.springframework.stereotype.Component;
+
+import lombok.AllArgsConstructor;
+
+@Component
+@AllArgsConstructor
+public class StatementCounter implements StatementInspector {
+
+    private RequestStatistics requestStatistics;
+
+    @Override
+    public String inspect(String sql) {
+        requestStatistics.statementPrepared();
+        return sql;
+    }
+}
@@ -0,0 +1,51 @@
+package com.makowski.bookshelves.repository;
+
+import java.util.Collection;
+
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.makowski.bookshelves.entity.Book;
+
+import jakarta.persistence.Cache;
+import jakarta.persistence.EntityManagerFactory;
+import lombok.AllArgsConstructor;
+
+@Repository
+@AllArgsConstructor
+public class BookCache {
+
+    public static final String AUTHOR_QUERY_REGION = "books-by-author";
+    public static final String GENRE_QUERY_REGION = "books-by-genre";
+
+    private EntityManagerFactory entityManagerFactory;
+
+    public void evictScores(Collection<Long> bookIds) {
+        evict(bookIds);
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) return;
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                evict(bookIds);
+            }
+        });
+    }
+
+    public void evictQueries() {
+        org.hibernate.Cache cache = entityManagerFactory.getCache().unwrap(org.hibernate.Cache.class);
+        cache.evictQueryRegion(AUTHOR_QUERY_REGION);
+        cache.evictQueryRegion(GENRE_QUERY_REGION);
+    }
+
+    public void evictAll() {
+        entityManagerFactory.getCache().evict(Book.class);
+        evictQueries();
+    }
+
+    private void evict(Collection<Long> bookIds) {
+        Cache cache = entityManagerFactory.getCache();
+        for (Long bookId : bookIds) cache.evict(Book.class, bookId);
+        cache.unwrap(org.hibernate.Cache.class).evictQueryRegion(GENRE_QUERY_REGION);
+    }
+}
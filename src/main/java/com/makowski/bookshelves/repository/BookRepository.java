@@ -1,15 +1,51 @@
 package com.makowski.bookshelves.repository;
 
 import java.util.List;
+import java.util.stream.Stream;
 
-import org.springframework.data.repository.CrudRepository;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 
+import com.makowski.bookshelves.dto.BookExportDto;
+import com.makowski.bookshelves.dto.ScoresDto;
 import com.makowski.bookshelves.entity.Book;
 
-public interface BookRepository extends CrudRepository<Book, Long> {
+import jakarta.persistence.QueryHint;
 
-    List<Book> findByAuthorOrderByYearDesc(String author);
+public interface BookRepository extends JpaRepository<Book, Long>, BookRepositoryCustom {
 
-    List<Book> findTop10ByGenreOrderByRatingDesc(String genre);
+    @QueryHints({
+        @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"),
+        @QueryHint(name = HibernateHints.HINT_CACHE_REGION, value = BookCache.AUTHOR_QUERY_REGION)
+    })
+    @Query("select b from Book b where b.author = :author and (b.year < :year or (b.year = :year and b.id < :id)) order by b.year desc, b.id desc")
+    List<Book> findByAuthorOrderByYearDesc(@Param("author") String author, @Param("year") int year, @Param("id") Long id, Pageable pageable);
 
-}
\ No newline at end of file
+    @QueryHints({
+        @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"),
+        @QueryHint(name = HibernateHints.HINT_CACHE_REGION, value = BookCache.GENRE_QUERY_REGION)
+    })
+    List<Book> findByGenreOrderByWeightedScoreDescIdAsc(String genre, Pageable pageable);
+
+    @Query("select new com.makowski.bookshelves.dto.ScoresDto(b.scoresNumber, b.scoresSum, b.rating) from Book b where b.id = :id")
+    ScoresDto findScoresById(@Param("id") Long id);
+
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+    @Query("select new com.makowski.bookshelves.dto.BookExportDto(b.id, b.title, b.author, b.publisher, b.genre, b.pages, b.year) "
+        + "from Book b order by b.id")
+    Stream<BookExportDto> streamAll();
+
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+    @Query("select new com.makowski.bookshelves.dto.BookExportDto(b.id, b.title, b.author, b.publisher, b.genre, b.pages, b.year, "
+        + "b.rating, b.scoresNumber, b.scoresSum) from Book b order by b.id")
+    Stream<BookExportDto> streamAllWithScores();
+
+    @Query("select new com.makowski.bookshelves.dto.BookExportDto(b.id, b.title, b.author, b.publisher, b.genre, b.pages, b.year, "
+        + "b.rating, b.scoresNumber, b.scoresSum) from Book b where b.id > :id order by b.id")
+    List<BookExportDto> findWithScoresAfter(@Param("id") Long id, Pageable pageable);
+
+}
@@ -0,0 +1,12 @@
+package com.makowski.bookshelves.repository;
+
+import java.util.List;
+
+import com.makowski.bookshelves.dto.ScoresChangeDto;
+
+public interface BookRepositoryCustom {
+
+    int addScores(ScoresChangeDto change);
+
+    int[] addScores(List<ScoresChangeDto> changes);
+}
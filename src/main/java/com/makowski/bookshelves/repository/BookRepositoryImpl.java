@@ -0,0 +1,55 @@
+package com.makowski.bookshelves.repository;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import com.makowski.bookshelves.dto.ScoresChangeDto;
+import com.makowski.bookshelves.entity.ScoreHistogram;
+
+import lombok.AllArgsConstructor;
+
+@AllArgsConstructor
+public class BookRepositoryImpl implements BookRepositoryCustom {
+
+    private static final String ADD_SCORES_SQL = "update books set "
+        + "rating = case when scores_number + ? = 0 then 0 else round((scores_sum + ?) * 1.0 / (scores_number + ?), 1) end, "
+        + "weighted_score = " + GenreMeans.WEIGHTED_SCORE_SQL + ", "
+        + "scores_number = scores_number + ?, "
+        + "scores_sum = scores_sum + ?, "
+        + IntStream.rangeClosed(1, ScoreHistogram.SCORES)
+            .mapToObj(score -> ScoreHistogram.column(score) + " = " + ScoreHistogram.column(score) + " + ?, ")
+            .collect(Collectors.joining())
+        + "last_modified = ? "
+        + "where id = ?";
+
+    private JdbcTemplate jdbcTemplate;
+    private GenreMeans genreMeans;
+
+    @Override
+    public int addScores(ScoresChangeDto change) {
+        return jdbcTemplate.update(ADD_SCORES_SQL, addScoresParameters(change, Timestamp.from(Instant.now())));
+    }
+
+    @Override
+    public int[] addScores(List<ScoresChangeDto> changes) {
+        Timestamp now = Timestamp.from(Instant.now());
+        return jdbcTemplate.batchUpdate(ADD_SCORES_SQL, changes.stream().map(change -> addScoresParameters(change, now)).toList());
+    }
+
+    private Object[] addScoresParameters(ScoresChangeDto change, Timestamp now) {
+        int number = change.getScoresNumber();
+        int sum = change.getScoresSum();
+        int priorWeight = genreMeans.getPriorWeight();
+        List<Object> parameters = new ArrayList<>(List.of(number, sum, number, priorWeight, sum, priorWeight, number, number, sum));
+        for (int count : change.getHistogram()) parameters.add(count);
+        parameters.add(now);
+        parameters.add(change.getBookId());
+        return parameters.toArray();
+    }
+}
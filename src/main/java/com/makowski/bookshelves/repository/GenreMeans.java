@@ -0,0 +1,75 @@
+package com.makowski.bookshelves.repository;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public class GenreMeans {
+
+    public static final String WEIGHTED_SCORE_SQL = "(? * coalesce((select g.mean from genre_means g where g.genre = books.genre), 0) "
+        + "+ scores_sum + ?) / (? + scores_number + ?)";
+    private static final String RESCORE_SQL = "update books set weighted_score = (? * ? + scores_sum) / (? + scores_number) ";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final int priorWeight;
+    private volatile Map<String, Double> means = Map.of();
+
+    public GenreMeans(JdbcTemplate jdbcTemplate, @Value("${bookshelves.ranking.prior-weight:10}") int priorWeight) {
+        if (priorWeight < 1) throw new IllegalArgumentException("prior weight must be positive");
+        this.jdbcTemplate = jdbcTemplate;
+        this.priorWeight = priorWeight;
+    }
+
+    public int getPriorWeight() {
+        return priorWeight;
+    }
+
+    public Map<String, Double> getMeans() {
+        return means;
+    }
+
+    public double mean(String genre) {
+        return means.getOrDefault(genre, 0.0);
+    }
+
+    public float weightedScore(String genre, int scoresNumber, int scoresSum) {
+        return (float) ((priorWeight * mean(genre) + scoresSum) / (priorWeight + scoresNumber));
+    }
+
+    public Map<String, Double> compute() {
+        Map<String, Double> computed = new HashMap<>();
+        jdbcTemplate.query("select genre, sum(scores_number) as scores_number, sum(scores_sum) as scores_sum from books group by genre", row -> {
+            long scoresNumber = row.getLong("scores_number");
+            computed.put(row.getString("genre"), scoresNumber == 0 ? 0 : row.getLong("scores_sum") * 1.0 / scoresNumber);
+        });
+        return computed;
+    }
+
+    public void save(Map<String, Double> saved) {
+        jdbcTemplate.update("delete from genre_means");
+        jdbcTemplate.batchUpdate("insert into genre_means (genre, mean) values (?, ?)",
+            saved.entrySet().stream().map(entry -> new Object[] { entry.getKey(), entry.getValue() }).toList());
+    }
+
+    public void use(Map<String, Double> used) {
+        means = Map.copyOf(used);
+    }
+
+    public long[] idRange(String genre) {
+        Map<String, Object> range = jdbcTemplate.queryForMap("select min(id) as first_id, max(id) as last_id from books where genre = ?", genre);
+        if (range.get("first_id") == null) return new long[0];
+        return new long[] { ((Number) range.get("first_id")).longValue(), ((Number) range.get("last_id")).longValue() };
+    }
+
+    public int rescore(String genre, double mean, long fromId, long toId) {
+        return jdbcTemplate.update(RESCORE_SQL + "where genre = ? and id between ? and ?", priorWeight, mean, priorWeight, genre, fromId, toId);
+    }
+
+    public int rescore(Long bookId, String genre) {
+        return jdbcTemplate.update(RESCORE_SQL + "where id = ?", priorWeight, mean(genre), priorWeight, bookId);
+    }
+}
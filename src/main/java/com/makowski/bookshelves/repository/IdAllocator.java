@@ -0,0 +1,41 @@
+package com.makowski.bookshelves.repository;
+
+import java.util.List;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.makowski.bookshelves.entity.IdGenerators;
+
+@Repository
+public class IdAllocator {
+
+    private static final String SELECT_SQL = "select " + IdGenerators.VALUE_COLUMN + " from " + IdGenerators.TABLE
+        + " where " + IdGenerators.SEGMENT_COLUMN + " = ? for update";
+    private static final String UPDATE_SQL = "update " + IdGenerators.TABLE + " set " + IdGenerators.VALUE_COLUMN + " = ?"
+        + " where " + IdGenerators.SEGMENT_COLUMN + " = ?";
+    private static final String INSERT_SQL = "insert into " + IdGenerators.TABLE
+        + " (" + IdGenerators.SEGMENT_COLUMN + ", " + IdGenerators.VALUE_COLUMN + ") values (?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+
+    public IdAllocator(JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    public long reserve(String segment, int count) {
+        return transactionTemplate.execute(status -> {
+            List<Long> values = jdbcTemplate.queryForList(SELECT_SQL, Long.class, segment);
+            long first = values.isEmpty() ? 1 : values.get(0);
+            if (values.isEmpty()) jdbcTemplate.update(INSERT_SQL, segment, first + count);
+                else jdbcTemplate.update(UPDATE_SQL, first + count, segment);
+            return first;
+        });
+    }
+}
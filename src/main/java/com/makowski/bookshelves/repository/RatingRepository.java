@@ -1,13 +1,24 @@
 package com.makowski.bookshelves.repository;
 
+import java.util.List;
+
 import com.makowski.bookshelves.entity.Book;
 import com.makowski.bookshelves.entity.User;
-import org.springframework.data.repository.CrudRepository;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
 import com.makowski.bookshelves.entity.Rating;
 
-public interface RatingRepository extends CrudRepository<Rating, Long> {
+public interface RatingRepository extends JpaRepository<Rating, Long> {
 
     boolean existsByUserAndBook(User user, Book book);
 
-}
\ No newline at end of file
+    @Query("select r from Rating r join fetch r.user join fetch r.book where r.book.id = :bookId and r.id > :after order by r.id")
+    List<Rating> findByBookIdAfter(@Param("bookId") Long bookId, @Param("after") Long after, Pageable pageable);
+
+    @Query("select r from Rating r join fetch r.user join fetch r.book where r.user.id = :userId and r.id > :after order by r.id")
+    List<Rating> findByUserIdAfter(@Param("userId") Long userId, @Param("after") Long after, Pageable pageable);
+
+}
@@ -0,0 +1,25 @@
+package com.makowski.bookshelves.repository;
+
+import java.util.Collection;
+import java.util.List;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import com.makowski.bookshelves.dto.BookOnShelfDto;
+import com.makowski.bookshelves.entity.ShelfEntry;
+import com.makowski.bookshelves.entity.ShelfEntryId;
+
+public interface ShelfEntryRepository extends JpaRepository<ShelfEntry, ShelfEntryId>, ShelfEntryRepositoryCustom {
+
+    @Modifying
+    @Query("delete from ShelfEntry e where e.id.shelfId = :shelfId and e.id.bookId = :bookId")
+    int remove(@Param("shelfId") Long shelfId, @Param("bookId") Long bookId);
+
+    @Query("select new com.makowski.bookshelves.dto.BookOnShelfDto(b.id, e.id.shelfId) from Book b "
+        + "left join ShelfEntry e on e.id.bookId = b.id and e.id.shelfId = :shelfId where b.id in :bookIds")
+    List<BookOnShelfDto> findBooksOnShelf(@Param("shelfId") Long shelfId, @Param("bookIds") Collection<Long> bookIds);
+
+}
@@ -0,0 +1,10 @@
+package com.makowski.bookshelves.repository;
+
+import java.util.Collection;
+
+public interface ShelfEntryRepositoryCustom {
+
+    void addAll(Long shelfId, Collection<Long> bookIds);
+
+    void removeAll(Long shelfId, Collection<Long> bookIds);
+}
@@ -0,0 +1,31 @@
+package com.makowski.bookshelves.repository;
+
+import java.util.Collection;
+import java.util.List;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import lombok.AllArgsConstructor;
+
+@AllArgsConstructor
+public class ShelfEntryRepositoryImpl implements ShelfEntryRepositoryCustom {
+
+    private static final String INSERT_SQL = "insert into books_on_shelves (shelf_id, book_id) values (?, ?)";
+    private static final String DELETE_SQL = "delete from books_on_shelves where shelf_id = ? and book_id = ?";
+
+    private JdbcTemplate jdbcTemplate;
+
+    @Override
+    public void addAll(Long shelfId, Collection<Long> bookIds) {
+        if (!bookIds.isEmpty()) jdbcTemplate.batchUpdate(INSERT_SQL, rows(shelfId, bookIds));
+    }
+
+    @Override
+    public void removeAll(Long shelfId, Collection<Long> bookIds) {
+        if (!bookIds.isEmpty()) jdbcTemplate.batchUpdate(DELETE_SQL, rows(shelfId, bookIds));
+    }
+
+    private List<Object[]> rows(Long shelfId, Collection<Long> bookIds) {
+        return bookIds.stream().map(bookId -> new Object[] { shelfId, bookId }).toList();
+    }
+}
@@ -1,9 +1,35 @@
 package com.makowski.bookshelves.repository;
 
-import org.springframework.data.repository.CrudRepository;
+import java.time.Instant;
+import java.util.List;
 
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import com.makowski.bookshelves.dto.ShelfBookDto;
+import com.makowski.bookshelves.dto.ShelfDto;
+import com.makowski.bookshelves.dto.ShelfVersionDto;
 import com.makowski.bookshelves.entity.Shelf;
 
-public interface ShelfRepository extends CrudRepository<Shelf, Long> {
+public interface ShelfRepository extends JpaRepository<Shelf, Long> {
+
+    boolean existsByOwnerIdAndNameIgnoreCase(Long ownerId, String name);
+
+    @Query("select new com.makowski.bookshelves.dto.ShelfDto(s.id, s.name) from Shelf s where s.owner.id = :ownerId order by s.id")
+    List<ShelfDto> findLibraryShelves(@Param("ownerId") Long ownerId);
+
+    @Query("select new com.makowski.bookshelves.dto.ShelfBookDto(s.id, b) from Shelf s join s.books b where s.owner.id = :ownerId order by s.id, b.id")
+    List<ShelfBookDto> findLibraryBooks(@Param("ownerId") Long ownerId);
+
+    @Query("select new com.makowski.bookshelves.dto.ShelfVersionDto(o.id, o.privateProfile, s.version, s.lastModified, o.version, o.lastModified, "
+        + "count(b), coalesce(sum(b.version), 0L), coalesce(sum(b.scoresNumber), 0L), coalesce(sum(b.scoresSum), 0L), max(b.lastModified)) from Shelf s join s.owner o left join s.books b where s.id = :id "
+        + "group by o.id, o.privateProfile, s.version, s.lastModified, o.version, o.lastModified")
+    ShelfVersionDto findVersionById(@Param("id") Long id);
+
+    @Modifying
+    @Query("update Shelf s set s.version = s.version + 1, s.lastModified = :now where s.id = :id and s.owner.id = :ownerId")
+    int touch(@Param("id") Long id, @Param("ownerId") Long ownerId, @Param("now") Instant now);
 
-}
\ No newline at end of file
+}
@@ -0,0 +1,60 @@
+package com.makowski.bookshelves.retry;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import io.micrometer.core.instrument.MeterRegistry;
+
+@Aspect
+@Component
+@Order(Ordered.LOWEST_PRECEDENCE - 1)
+public class RetryOnConflictAspect {
+
+    private final MeterRegistry meterRegistry;
+    private final int maxAttempts;
+    private final long backoff;
+    private final long maxBackoff;
+
+    public RetryOnConflictAspect(MeterRegistry meterRegistry,
+            @Value("${bookshelves.retry.max-attempts:5}") int maxAttempts,
+            @Value("${bookshelves.retry.backoff:10}") long backoff,
+            @Value("${bookshelves.retry.max-backoff:200}") long maxBackoff) {
+        this.meterRegistry = meterRegistry;
+        this.maxAttempts = maxAttempts;
+        this.backoff = backoff;
+        this.maxBackoff = maxBackoff;
+    }
+
+    @Around("@annotation(com.makowski.bookshelves.retry.RetryOnConflict)")
+    public Object retry(ProceedingJoinPoint joinPoint) throws Throwable {
+        if (TransactionSynchronizationManager.isActualTransactionActive()) return joinPoint.proceed();
+        for (int attempt = 1; ; attempt++) {
+            try {
+                return joinPoint.proceed();
+            } catch (OptimisticLockingFailureException e) {
+                if (attempt >= maxAttempts) throw e;
+                meterRegistry.counter("bookshelves.conflicts.retried", "method", joinPoint.getSignature().toShortString()).increment();
+                try {
+                    Thread.sleep(delay(attempt));
+                } catch (InterruptedException interrupted) {
+                    Thread.currentThread().interrupt();
+                    throw e;
+                }
+            }
+        }
+    }
+
+    long delay(int attempt) {
+        long ceiling = Math.min(maxBackoff, backoff << Math.min(attempt - 1, 20));
+        return ThreadLocalRandom.current().nextLong(ceiling + 1);
+    }
+}
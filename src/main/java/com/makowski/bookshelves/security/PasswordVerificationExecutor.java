@@ -0,0 +1,98 @@
+package com.makowski.bookshelves.security;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.authentication.AuthenticationServiceException;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.stereotype.Component;
+
+import com.makowski.bookshelves.exceptions.LoginOverloadedException;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+
+@Component
+public class PasswordVerificationExecutor {
+
+    private final BCryptPasswordEncoder bCryptPasswordEncoder;
+    private final ThreadPoolExecutor executor;
+    private final Timer hashTimer;
+    private final Counter rejections;
+
+    public PasswordVerificationExecutor(BCryptPasswordEncoder bCryptPasswordEncoder, MeterRegistry meterRegistry,
+            @Value("${bookshelves.login.threads:2}") int threads,
+            @Value("${bookshelves.login.queue-capacity:32}") int queueCapacity) {
+        this.bCryptPasswordEncoder = bCryptPasswordEncoder;
+        this.executor = new ThreadPoolExecutor(threads, threads, 0, TimeUnit.MILLISECONDS,
+            new ArrayBlockingQueue<>(queueCapacity), threadFactory(), new ThreadPoolExecutor.AbortPolicy());
+        this.hashTimer = Timer.builder("bookshelves.login.hash")
+            .description("Time spent verifying a password hash")
+            .register(meterRegistry);
+        this.rejections = Counter.builder("bookshelves.login.rejected")
+            .description("Logins rejected because the verification queue was full")
+            .register(meterRegistry);
+        Gauge.builder("bookshelves.login.queue.depth", executor, pool -> pool.getQueue().size())
+            .description("Password verifications waiting for a thread")
+            .register(meterRegistry);
+        Gauge.builder("bookshelves.login.active", executor, ThreadPoolExecutor::getActiveCount)
+            .description("Password verifications in progress")
+            .register(meterRegistry);
+    }
+
+    public boolean matches(String rawPassword, String encodedPassword) {
+        Future<Boolean> result;
+        try {
+            result = executor.submit(() -> verify(rawPassword, encodedPassword));
+        } catch (RejectedExecutionException e) {
+            rejections.increment();
+            throw new LoginOverloadedException();
+        }
+        try {
+            return result.get();
+        } catch (InterruptedException e) {
+            result.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new AuthenticationServiceException("Password verification was interrupted", e);
+        } catch (ExecutionException e) {
+            throw new AuthenticationServiceException("Password verification failed", e.getCause());
+        }
+    }
+
+    private boolean verify(String rawPassword, String encodedPassword) {
+        Timer.Sample sample = Timer.start();
+        try {
+            return bCryptPasswordEncoder.matches(rawPassword, encodedPassword);
+        } finally {
+            sample.stop(hashTimer);
+        }
+    }
+
+    public int queueDepth() {
+        return executor.getQueue().size();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    private static ThreadFactory threadFactory() {
+        AtomicInteger count = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, "password-verification-" + count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+}
@@ -6,4 +6,6 @@ public class SecurityConstants {
     public static final String BEARER = "Bearer "; 
     public static final String AUTHORIZATION = "Authorization"; 
     public static final String REGISTER_PATH = "/user/register"; 
+    public static final String USER_ID_CLAIM = "uid"; 
+    public static final int VERIFIED_TOKEN_CACHE_SIZE = 10000; 
 }
@@ -0,0 +1,60 @@
+package com.makowski.bookshelves.security;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Function;
+
+public class VerifiedTokenCache {
+
+    private final int capacity;
+    private final Map<String, VerifiedToken> tokens;
+
+    public VerifiedTokenCache(int capacity) {
+        this.capacity = capacity;
+        this.tokens = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, VerifiedToken> eldest) {
+                return size() > VerifiedTokenCache.this.capacity;
+            }
+        };
+    }
+
+    public VerifiedToken get(String token, Function<String, VerifiedToken> verifier) {
+        String key = hash(token);
+        long now = System.currentTimeMillis();
+        synchronized (tokens) {
+            VerifiedToken verified = tokens.get(key);
+            if (verified != null && verified.expiresAt() > now) return verified;
+            if (verified != null) tokens.remove(key);
+        }
+        VerifiedToken verified = verifier.apply(token);
+        if (verified.expiresAt() > now) {
+            synchronized (tokens) {
+                tokens.put(key, verified);
+            }
+        }
+        return verified;
+    }
+
+    public int size() {
+        synchronized (tokens) {
+            return tokens.size();
+        }
+    }
+
+    static String hash(String token) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.US_ASCII));
+            return Base64.getEncoder().encodeToString(digest);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    public record VerifiedToken(String subject, Long userId, long expiresAt) {
+    }
+}
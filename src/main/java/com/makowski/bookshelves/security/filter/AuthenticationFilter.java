@@ -3,6 +3,7 @@ package com.makowski.bookshelves.security.filter;
 import java.io.IOException;
 import java.util.Date;
 
+import org.springframework.http.HttpHeaders;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.AuthenticationException;
@@ -12,6 +13,7 @@ import com.auth0.jwt.JWT;
 import com.auth0.jwt.algorithms.Algorithm;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.makowski.bookshelves.entity.User;
+import com.makowski.bookshelves.exceptions.LoginOverloadedException;
 import com.makowski.bookshelves.security.SecurityConstants;
 import com.makowski.bookshelves.security.manager.CustomAuthenticationManager;
 
@@ -40,7 +42,12 @@ public class AuthenticationFilter extends UsernamePasswordAuthenticationFilter {
     @Override
     protected void unsuccessfulAuthentication(HttpServletRequest request, HttpServletResponse response, AuthenticationException failed)
             throws IOException, ServletException {
-        response.setStatus(HttpServletResponse.SC_UNAUTHORIZED);
+        if (failed instanceof LoginOverloadedException) {
+            response.setStatus(HttpServletResponse.SC_SERVICE_UNAVAILABLE);
+            response.setHeader(HttpHeaders.RETRY_AFTER, "1");
+        } else {
+            response.setStatus(HttpServletResponse.SC_UNAUTHORIZED);
+        }
         response.getWriter().write(failed.getMessage());
         response.getWriter().flush();
     }
@@ -50,6 +57,7 @@ public class AuthenticationFilter extends UsernamePasswordAuthenticationFilter {
             throws IOException, ServletException {
         String token = JWT.create()
             .withSubject(authentication.getName())
+            .withClaim(SecurityConstants.USER_ID_CLAIM, (Long) authentication.getDetails())
             .withExpiresAt(new Date(System.currentTimeMillis() + SecurityConstants.TOKEN_EXPIRATION))
             .sign(Algorithm.HMAC512(SecurityConstants.SECRET_KEY));
         response.addHeader(SecurityConstants.AUTHORIZATION, SecurityConstants.BEARER + token);
@@ -4,13 +4,16 @@ import java.io.IOException;
 import java.util.Arrays;
 
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
-import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.web.filter.OncePerRequestFilter;
 
 import com.auth0.jwt.JWT;
+import com.auth0.jwt.JWTVerifier;
 import com.auth0.jwt.algorithms.Algorithm;
+import com.auth0.jwt.interfaces.DecodedJWT;
 import com.makowski.bookshelves.security.SecurityConstants;
+import com.makowski.bookshelves.security.VerifiedTokenCache;
+import com.makowski.bookshelves.security.VerifiedTokenCache.VerifiedToken;
 
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
@@ -19,6 +22,18 @@ import jakarta.servlet.http.HttpServletResponse;
 
 public class JWTAuthorizationFilter extends OncePerRequestFilter {
 
+    private static final JWTVerifier VERIFIER = JWT.require(Algorithm.HMAC512(SecurityConstants.SECRET_KEY)).build();
+
+    private final VerifiedTokenCache verifiedTokenCache;
+
+    public JWTAuthorizationFilter() {
+        this(new VerifiedTokenCache(SecurityConstants.VERIFIED_TOKEN_CACHE_SIZE));
+    }
+
+    public JWTAuthorizationFilter(VerifiedTokenCache verifiedTokenCache) {
+        this.verifiedTokenCache = verifiedTokenCache;
+    }
+
     @Override
     protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
             throws ServletException, IOException {
@@ -29,12 +44,16 @@ public class JWTAuthorizationFilter extends OncePerRequestFilter {
             return;
         }
         String token = header.replace(SecurityConstants.BEARER, "");
-        String user = JWT.require(Algorithm.HMAC512(SecurityConstants.SECRET_KEY))
-                .build()
-                .verify(token)
-                .getSubject();
-        Authentication authentication = new UsernamePasswordAuthenticationToken(user, null, Arrays.asList());
+        VerifiedToken verified = verifiedTokenCache.get(token, JWTAuthorizationFilter::verify);
+        UsernamePasswordAuthenticationToken authentication = new UsernamePasswordAuthenticationToken(verified.subject(), null, Arrays.asList());
+        authentication.setDetails(verified.userId());
         SecurityContextHolder.getContext().setAuthentication(authentication);
         filterChain.doFilter(request, response);
     }
+
+    private static VerifiedToken verify(String token) {
+        DecodedJWT jwt = VERIFIER.verify(token);
+        long expiresAt = jwt.getExpiresAt() == null ? 0 : jwt.getExpiresAt().getTime();
+        return new VerifiedToken(jwt.getSubject(), jwt.getClaim(SecurityConstants.USER_ID_CLAIM).asLong(), expiresAt);
+    }
 }
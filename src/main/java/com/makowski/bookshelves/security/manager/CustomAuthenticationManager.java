@@ -6,10 +6,10 @@ import org.springframework.security.authentication.BadCredentialsException;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.AuthenticationException;
-import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.stereotype.Component;
 
 import com.makowski.bookshelves.entity.User;
+import com.makowski.bookshelves.security.PasswordVerificationExecutor;
 import com.makowski.bookshelves.service.UserService;
 
 import lombok.AllArgsConstructor;
@@ -19,14 +19,16 @@ import lombok.AllArgsConstructor;
 public class CustomAuthenticationManager implements AuthenticationManager {
 
     private UserService userService;
-    private BCryptPasswordEncoder bCryptPasswordEncoder;
+    private PasswordVerificationExecutor passwordVerificationExecutor;
 
     @Override
     public Authentication authenticate(Authentication authentication) throws AuthenticationException {
         User user = userService.findByUsername(authentication.getName());        
-        if (!bCryptPasswordEncoder.matches(authentication.getCredentials().toString(), user.getPassword())) {
+        if (!passwordVerificationExecutor.matches(authentication.getCredentials().toString(), user.getPassword())) {
             throw new BadCredentialsException("Incorrect password.");
         }
-        return new UsernamePasswordAuthenticationToken(authentication.getName(), user.getPassword());   
+        UsernamePasswordAuthenticationToken authenticated = new UsernamePasswordAuthenticationToken(authentication.getName(), user.getPassword());
+        authenticated.setDetails(user.getId());
+        return authenticated;
     }
 }
\ No newline at end of file
@@ -0,0 +1,54 @@
+package com.makowski.bookshelves.service;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Iterator;
+import java.util.stream.Stream;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.makowski.bookshelves.dto.BookExportDto;
+import com.makowski.bookshelves.dto.ScoresDto;
+import com.makowski.bookshelves.repository.BookRepository;
+
+@Service
+public class BookExportService {
+
+    private final BookRepository bookRepository;
+    private final RatingAggregateBuffer ratingAggregateBuffer;
+    private final ObjectMapper objectMapper;
+    private final long timeout;
+
+    public BookExportService(BookRepository bookRepository, RatingAggregateBuffer ratingAggregateBuffer, ObjectMapper objectMapper,
+            @Value("${bookshelves.export.timeout:600000}") long timeout) {
+        this.bookRepository = bookRepository;
+        this.ratingAggregateBuffer = ratingAggregateBuffer;
+        this.objectMapper = objectMapper;
+        this.timeout = timeout;
+    }
+
+    public long getTimeout() {
+        return timeout;
+    }
+
+    @Transactional(readOnly = true)
+    public void exportBooks(OutputStream out, boolean withRatings) throws IOException {
+        try (Stream<BookExportDto> books = withRatings ? bookRepository.streamAllWithScores() : bookRepository.streamAll()) {
+            Iterator<BookExportDto> iterator = books.iterator();
+            while (iterator.hasNext()) {
+                BookExportDto book = iterator.next();
+                if (withRatings) {
+                    ScoresDto scores = ratingAggregateBuffer.withPending(book.getId(), new ScoresDto(book.getScoresNumber(), book.getScoresSum(), book.getRating()));
+                    book.setRating(scores.getRating());
+                    book.setScoresNumber(scores.getScoresNumber());
+                }
+                out.write(objectMapper.writeValueAsBytes(book));
+                out.write('\n');
+            }
+        }
+        out.flush();
+    }
+}
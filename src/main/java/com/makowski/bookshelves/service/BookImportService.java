@@ -0,0 +1,212 @@
+package com.makowski.bookshelves.service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.InvalidMediaTypeException;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.makowski.bookshelves.dto.ImportResultDto;
+import com.makowski.bookshelves.entity.Book;
+import com.makowski.bookshelves.entity.IdGenerators;
+import com.makowski.bookshelves.exceptions.InvalidRequestException;
+import com.makowski.bookshelves.repository.BookCache;
+import com.makowski.bookshelves.repository.GenreMeans;
+import com.makowski.bookshelves.repository.IdAllocator;
+
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+
+@Service
+public class BookImportService {
+
+    public static final String CSV = "text/csv";
+    public static final String NDJSON = "application/x-ndjson";
+    private static final List<String> CSV_COLUMNS = List.of("title", "author", "publisher", "genre", "pages", "year");
+    private static final int MAX_RECORD_LENGTH = 64 * 1024;
+    private static final int MAX_ERRORS = 100;
+    private static final String INSERT_SQL = "insert into books (id, title, author, publisher, genre, pages, publication_year, rating, scores_number, scores_sum, weighted_score) "
+        + "values (?, ?, ?, ?, ?, ?, ?, 0, 0, 0, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final IdAllocator idAllocator;
+    private final ObjectMapper objectMapper;
+    private final Validator validator;
+    private final BookService bookService;
+    private final BookCache bookCache;
+    private final GenreMeans genreMeans;
+    private final int batchSize;
+
+    public BookImportService(JdbcTemplate jdbcTemplate, TransactionTemplate transactionTemplate, IdAllocator idAllocator,
+            ObjectMapper objectMapper, Validator validator, BookService bookService, BookCache bookCache,
+            GenreMeans genreMeans, @Value("${bookshelves.import.batch-size:1000}") int batchSize) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.idAllocator = idAllocator;
+        this.objectMapper = objectMapper;
+        this.validator = validator;
+        this.bookService = bookService;
+        this.bookCache = bookCache;
+        this.genreMeans = genreMeans;
+        this.batchSize = batchSize;
+    }
+
+    public ImportResultDto importBooks(InputStream body, String contentType) {
+        MediaType mediaType = mediaType(contentType);
+        Charset charset = mediaType.getCharset() != null ? mediaType.getCharset() : StandardCharsets.UTF_8;
+        Import result = new Import();
+        try (InputStreamReader input = new InputStreamReader(body, charset)) {
+            BoundedLineReader reader = new BoundedLineReader(input, MAX_RECORD_LENGTH);
+            if (MediaType.parseMediaType(CSV).includes(mediaType)) readCsv(new CsvReader(reader, MAX_RECORD_LENGTH), result);
+                else readNdjson(reader, result);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        write(result);
+        return new ImportResultDto(result.accepted, result.rejected, result.errors);
+    }
+
+    private MediaType mediaType(String contentType) {
+        MediaType mediaType;
+        try {
+            mediaType = MediaType.parseMediaType(contentType);
+        } catch (InvalidMediaTypeException e) {
+            mediaType = MediaType.ALL;
+        }
+        if (MediaType.parseMediaType(CSV).includes(mediaType) || MediaType.parseMediaType(NDJSON).includes(mediaType)) return mediaType;
+        throw new InvalidRequestException("books can only be imported from " + CSV + " or " + NDJSON);
+    }
+
+    private void readCsv(CsvReader reader, Import result) throws IOException {
+        List<String> header;
+        try {
+            header = reader.next();
+        } catch (IllegalArgumentException e) {
+            throw new InvalidRequestException(e.getMessage());
+        }
+        if (header == null) return;
+        List<String> names = header.stream().map(name -> name.trim().toLowerCase(Locale.ROOT)).toList();
+        int[] columns = new int[CSV_COLUMNS.size()];
+        for (int i = 0; i < columns.length; i++) {
+            columns[i] = names.indexOf(CSV_COLUMNS.get(i));
+            if (columns[i] < 0) throw new InvalidRequestException("CSV header must contain columns: " + String.join(", ", CSV_COLUMNS));
+        }
+        while (true) {
+            try {
+                List<String> fields = reader.next();
+                if (fields == null) return;
+                if (fields.size() == 1 && fields.get(0).isBlank()) continue;
+                Book book = new Book();
+                book.setTitle(field(fields, columns, 0));
+                book.setAuthor(field(fields, columns, 1));
+                book.setPublisher(field(fields, columns, 2));
+                book.setGenre(field(fields, columns, 3));
+                book.setPages(number(fields, columns, 4));
+                book.setYear(number(fields, columns, 5));
+                accept(book, reader.getLine(), result);
+            } catch (IllegalArgumentException e) {
+                result.reject(reader.getLine(), e.getMessage());
+            }
+        }
+    }
+
+    private String field(List<String> fields, int[] columns, int column) {
+        if (columns[column] >= fields.size()) throw new IllegalArgumentException("missing " + CSV_COLUMNS.get(column) + " value");
+        return fields.get(columns[column]);
+    }
+
+    private int number(List<String> fields, int[] columns, int column) {
+        try {
+            return Integer.parseInt(field(fields, columns, column).trim());
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException(CSV_COLUMNS.get(column) + " must be a whole number");
+        }
+    }
+
+    private void readNdjson(BoundedLineReader reader, Import result) throws IOException {
+        long number = 0;
+        while (true) {
+            String line;
+            number++;
+            try {
+                line = reader.readLine();
+            } catch (IllegalArgumentException e) {
+                result.reject(number, e.getMessage());
+                continue;
+            }
+            if (line == null) return;
+            if (line.isBlank()) continue;
+            try {
+                accept(objectMapper.readValue(line, Book.class), number, result);
+            } catch (JsonProcessingException e) {
+                result.reject(number, e.getOriginalMessage());
+            }
+        }
+    }
+
+    private void accept(Book book, long line, Import result) {
+        Set<ConstraintViolation<Book>> violations = validator.validate(book);
+        if (!violations.isEmpty()) {
+            result.reject(line, violations.iterator().next().getMessage());
+            return;
+        }
+        result.batch.add(book);
+        if (result.batch.size() >= batchSize) write(result);
+    }
+
+    private void write(Import result) {
+        List<Book> batch = result.batch;
+        if (batch.isEmpty()) return;
+        long firstId = idAllocator.reserve(IdGenerators.BOOKS, batch.size());
+        for (int i = 0; i < batch.size(); i++) {
+            Book book = batch.get(i);
+            book.setId(firstId + i);
+            book.setRating(0);
+            book.setScoresNumber(0);
+            book.setScoresSum(0);
+            book.setWeightedScore(genreMeans.weightedScore(book.getGenre(), 0, 0));
+        }
+        transactionTemplate.executeWithoutResult(status -> jdbcTemplate.batchUpdate(INSERT_SQL, batch, batch.size(), (statement, book) -> {
+            statement.setLong(1, book.getId());
+            statement.setString(2, book.getTitle());
+            statement.setString(3, book.getAuthor());
+            statement.setString(4, book.getPublisher());
+            statement.setString(5, book.getGenre());
+            statement.setInt(6, book.getPages());
+            statement.setInt(7, book.getYear());
+            statement.setFloat(8, book.getWeightedScore());
+        }));
+        bookCache.evictQueries();
+        bookService.indexBooks(batch);
+        result.accepted += batch.size();
+        batch.clear();
+    }
+
+    private static class Import {
+
+        private final List<Book> batch = new ArrayList<>();
+        private final List<String> errors = new ArrayList<>();
+        private long accepted;
+        private long rejected;
+
+        private void reject(long line, String reason) {
+            rejected++;
+            if (errors.size() < MAX_ERRORS) errors.add("line " + line + ": " + reason);
+        }
+    }
+}
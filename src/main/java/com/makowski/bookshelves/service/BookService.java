@@ -1,16 +1,38 @@
 package com.makowski.bookshelves.service;
 
 import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
 
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 import com.makowski.bookshelves.dto.BookDto;
+import com.makowski.bookshelves.dto.BookExportDto;
+import com.makowski.bookshelves.dto.PageDto;
+import com.makowski.bookshelves.dto.ScoreHistogramDto;
+import com.makowski.bookshelves.dto.ScoresChangeDto;
+import com.makowski.bookshelves.dto.ScoresDto;
+import com.makowski.bookshelves.dto.VersionDto;
 import com.makowski.bookshelves.entity.Book;
 import com.makowski.bookshelves.entity.Rating;
 import com.makowski.bookshelves.exceptions.EntityNotFoundException;
 import com.makowski.bookshelves.exceptions.InvalidRequestException;
+import com.makowski.bookshelves.index.BookSearchIndex;
+import com.makowski.bookshelves.index.GenreLeaderboard;
+import com.makowski.bookshelves.repository.BookCache;
 import com.makowski.bookshelves.repository.BookRepository;
+import com.makowski.bookshelves.repository.GenreMeans;
+import com.makowski.bookshelves.repository.RatingRepository;
+import com.makowski.bookshelves.retry.RetryOnConflict;
 
 import lombok.AllArgsConstructor;
 
@@ -18,13 +40,53 @@ import lombok.AllArgsConstructor;
 @AllArgsConstructor
 public class BookService {
 
+    static final int INDEX_PAGE_SIZE = 1000;
+
     private BookRepository bookRepository;
+    private BookSearchIndex bookSearchIndex;
+    private GenreLeaderboard genreLeaderboard;
+    private RatingAggregateBuffer ratingAggregateBuffer;
+    private RatingRepository ratingRepository;
+    private BookCache bookCache;
+    private GenreMeans genreMeans;
+    private WeightedScoreRefresher weightedScoreRefresher;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void buildIndexes() {
+        weightedScoreRefresher.refresh();
+        bookSearchIndex.clear();
+        Map<String, TreeSet<BookDto>> leaders = new HashMap<>();
+        List<BookExportDto> page = bookRepository.findWithScoresAfter(0L, PageRequest.of(0, INDEX_PAGE_SIZE));
+        while (!page.isEmpty()) {
+            for (BookExportDto book : page) {
+                bookSearchIndex.index(book.getId(), book.getTitle(), book.getAuthor());
+                TreeSet<BookDto> genreLeaders = leaders.computeIfAbsent(book.getGenre(), genre -> new TreeSet<>(GenreLeaderboard.RANKING));
+                genreLeaders.add(toBookDto(book));
+                if (genreLeaders.size() > genreLeaderboard.getSize()) genreLeaders.pollLast();
+            }
+            if (page.size() < INDEX_PAGE_SIZE) break;
+            page = bookRepository.findWithScoresAfter(page.get(page.size() - 1).getId(), PageRequest.of(0, INDEX_PAGE_SIZE));
+        }
+        genreLeaderboard.rebuild(leaders);
+    }
 
     public Book getBook(Long id) {
         return bookRepository.findById(id)
             .orElseThrow(() -> new EntityNotFoundException(id, Book.class));
     }
 
+    public Book showBook(Long id) {
+        return ratingAggregateBuffer.read(() -> {
+            Book book = getBook(id);
+            setScores(book, ratingAggregateBuffer.withPending(id, scoresOf(book)));
+            return book;
+        });
+    }
+
+    public VersionDto getBookVersion(Book book) {
+        return VersionDto.of("b" + book.getVersion() + "-r" + book.getScoresNumber() + "." + book.getScoresSum(), book.getLastModified());
+    }
+
     public Boolean existsById(Long id) {
         return bookRepository.existsById(id);
     }
@@ -33,71 +95,172 @@ public class BookService {
         book.setRating(0);             
         book.setScoresNumber(0);
         book.setScoresSum(0);
-        return saveBook(book); 
+        book.setWeightedScore(genreMeans.weightedScore(book.getGenre(), 0, 0));
+        Book savedBook = saveBook(book);
+        index(savedBook);
+        return savedBook;
     } 
 
+    public void indexBooks(List<Book> books) {
+        for (Book book : books) index(book);
+    }
+
     public Book saveBook(Book book) {
         return bookRepository.save(book);
     }
 
+    @Transactional
+    public Book changeScores(Book book, int oldScore, int newScore) {
+        ScoresChangeDto change = ScoresChangeDto.of(book.getId(), oldScore, newScore);
+        if (ratingAggregateBuffer.isEnabled()) ratingAggregateBuffer.add(change);
+            else {
+                if (bookRepository.addScores(change) == 0) throw new EntityNotFoundException(book.getId(), Book.class);
+                bookCache.evictScores(List.of(book.getId()));
+            }
+        ScoresDto scores = ratingAggregateBuffer.read(() -> {
+            ScoresDto persisted = bookRepository.findScoresById(book.getId());
+            if (persisted == null) throw new EntityNotFoundException(book.getId(), Book.class);
+            return ratingAggregateBuffer.withPending(book.getId(), persisted);
+        });
+        setScores(book, scores);
+        String genre = book.getGenre();
+        BookDto bookDto = toBookDto(book, scoresOf(book));
+        afterCommit(() -> genreLeaderboard.update(genre, bookDto));
+        return book;
+    }
+
+    public ScoreHistogramDto getScoreHistogram(Long id) {
+        return ratingAggregateBuffer.read(() ->
+            new ScoreHistogramDto(id, ratingAggregateBuffer.withPending(id, getBook(id).getHistogram().toArray())));
+    }
+
     public void deleteBook(Long id) {
-        if (existsById(id)) bookRepository.deleteById(id);
-            else throw new EntityNotFoundException(id, Book.class);
+        if (!existsById(id)) throw new EntityNotFoundException(id, Book.class);
+        bookRepository.deleteById(id);
+        afterCommit(() -> {
+            bookSearchIndex.remove(id);
+            genreLeaderboard.remove(id);
+        });
     }
 
+    @RetryOnConflict
+    @Transactional
     public Book updateBook(Long id, Book editedBook) {
         Book book = getBook(id);
+        String genre = editedBook.getGenre();
+        if (!book.getGenre().equals(genre)) afterCommit(() -> genreMeans.rescore(id, genre));
         book.setTitle(editedBook.getTitle());
         book.setAuthor(editedBook.getAuthor());
         book.setGenre(editedBook.getGenre());
         book.setPublisher(editedBook.getPublisher());
         book.setPages(editedBook.getPages());
         book.setYear(editedBook.getYear());
-        return saveBook(book);                   
+        Book savedBook = saveBook(book);
+        index(savedBook);
+        return savedBook;
+    }
+
+    private void index(Book book) {
+        String genre = book.getGenre();
+        BookDto bookDto = getBookDto(book);
+        afterCommit(() -> {
+            bookSearchIndex.index(book);
+            genreLeaderboard.update(genre, bookDto);
+        });
+    }
+
+    private void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
     }
 
     public BookDto getBookDto(Book book) {
-        return new BookDto(book.getId(), book.getTitle(), book.getAuthor(), book.getYear(), book.getRating(), book.getScoresNumber());
+        return toBookDto(book, ratingAggregateBuffer.withPending(book.getId(), scoresOf(book)));
     }
 
-    public List<BookDto> findBooks(String phrase) {
+    private BookDto toBookDto(Book book, ScoresDto scores) {
+        return new BookDto(book.getId(), book.getTitle(), book.getAuthor(), book.getYear(), scores.getRating(), scores.getScoresNumber(),
+            genreMeans.weightedScore(book.getGenre(), scores.getScoresNumber(), scores.getScoresSum()));
+    }
+
+    private BookDto toBookDto(BookExportDto book) {
+        ScoresDto scores = ratingAggregateBuffer.withPending(book.getId(), new ScoresDto(book.getScoresNumber(), book.getScoresSum(), book.getRating()));
+        return new BookDto(book.getId(), book.getTitle(), book.getAuthor(), book.getYear(), scores.getRating(), scores.getScoresNumber(),
+            genreMeans.weightedScore(book.getGenre(), scores.getScoresNumber(), scores.getScoresSum()));
+    }
+
+    private ScoresDto scoresOf(Book book) {
+        return new ScoresDto(book.getScoresNumber(), book.getScoresSum(), book.getRating());
+    }
+
+    private void setScores(Book book, ScoresDto scores) {
+        book.setScoresNumber(scores.getScoresNumber());
+        book.setScoresSum(scores.getScoresSum());
+        book.setRating(scores.getRating());
+    }
+
+    public PageDto<BookDto> findBooks(String phrase, String cursor, Integer limit) {
         if (phrase.isBlank()) throw new InvalidRequestException("search phrase was not provided");
+        int pageSize = Paging.limit(limit);
+        long after = cursor == null ? 0 : Paging.keys(cursor, 1)[0];
+        List<Long> pageIds = bookSearchIndex.search(phrase, after, pageSize + 1);
+        if (pageIds.isEmpty()) throw new EntityNotFoundException();
+        boolean hasMore = pageIds.size() > pageSize;
+        if (hasMore) pageIds = pageIds.subList(0, pageSize);
         List<BookDto> books = new ArrayList<>();
-        for (Book book : bookRepository.findAll()) {
-            String name = book.getTitle() + " " + book.getAuthor();
-            if (name.toUpperCase().contains(phrase.toUpperCase())) {
-                books.add(getBookDto(book));
-            }
-        }
-        if (books.isEmpty()) throw new EntityNotFoundException();
-            else return books;
+        for (Book book : bookRepository.findAllById(pageIds)) 
+            books.add(getBookDto(book));
+        books.sort(Comparator.comparing(BookDto::getId));
+        return new PageDto<>(books, hasMore ? Paging.cursor(pageIds.get(pageSize - 1)) : null);
     }    
     
-    public List<BookDto> getAuthorsBooks(String author) {
+    public PageDto<BookDto> getAuthorsBooks(String author, String cursor, Integer limit) {
         if (author.isBlank()) throw new InvalidRequestException("search phrase was not provided");
-        List<BookDto> books = new ArrayList<>();
-        for (Book book : bookRepository.findByAuthorOrderByYearDesc(author)) 
-            books.add(getBookDto(book));
+        int pageSize = Paging.limit(limit);
+        int year = Integer.MAX_VALUE;
+        long id = Long.MAX_VALUE;
+        if (cursor != null) {
+            long[] keys = Paging.keys(cursor, 2);
+            year = (int) keys[0];
+            id = keys[1];
+        }
+        List<Book> books = bookRepository.findByAuthorOrderByYearDesc(author, year, id, Paging.lookAhead(pageSize));
         if (books.isEmpty()) throw new EntityNotFoundException();     
-            else return books;
+        return Paging.page(books, pageSize, this::getBookDto, book -> Paging.cursor(book.getYear(), book.getId()));
     }
 
-    public List<Rating> getBookRatings(Long id) {
-        List<Rating> ratings = getBook(id).getRatings();
+    public PageDto<Rating> getBookRatings(Long id, String cursor, Integer limit) {
+        int pageSize = Paging.limit(limit);
+        if (!existsById(id)) throw new EntityNotFoundException(id, Book.class);
+        long after = cursor == null ? 0 : Paging.keys(cursor, 1)[0];
+        List<Rating> ratings = ratingRepository.findByBookIdAfter(id, after, Paging.lookAhead(pageSize));
         if (ratings.isEmpty()) throw new EntityNotFoundException();
         for (Rating rating : ratings) {
             if (rating.getUser().isPrivateProfile()) rating.setUser(null);
         }
-        return ratings;        
+        return Paging.page(ratings, pageSize, rating -> rating, rating -> Paging.cursor(rating.getId()));
     }
 
-    public List<BookDto> top10FromGenre(String genre) {
+    public List<BookDto> topFromGenre(String genre) {
         if (genre.isBlank()) throw new InvalidRequestException("search phrase was not provided");
+        List<BookDto> books = genreLeaderboard.top(genre, this::loadTopFromGenre);
+        if (books.isEmpty()) throw new EntityNotFoundException();     
+            else return books;
+    }
+
+    private List<BookDto> loadTopFromGenre(String genre) {
         List<BookDto> books = new ArrayList<>();
-        for (Book book : bookRepository.findTop10ByGenreOrderByRatingDesc(genre)) {
+        for (Book book : bookRepository.findByGenreOrderByWeightedScoreDescIdAsc(genre, PageRequest.of(0, genreLeaderboard.getSize()))) {
             books.add(getBookDto(book));
         }
-        if (books.isEmpty()) throw new EntityNotFoundException();     
-            else return books;
+        return books;
     }
 }
\ No newline at end of file
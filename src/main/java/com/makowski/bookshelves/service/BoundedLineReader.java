@@ -0,0 +1,62 @@
+package com.makowski.bookshelves.service;
+
+import java.io.IOException;
+import java.io.Reader;
+
+class BoundedLineReader {
+
+    private final Reader reader;
+    private final int maxLineLength;
+    private final char[] buffer = new char[8192];
+    private int position;
+    private int limit;
+    private boolean skipLineFeed;
+
+    BoundedLineReader(Reader reader, int maxLineLength) {
+        this.reader = reader;
+        this.maxLineLength = maxLineLength;
+    }
+
+    String readLine() throws IOException {
+        StringBuilder line = new StringBuilder();
+        boolean read = false;
+        int c;
+        while ((c = read()) != -1) {
+            read = true;
+            if (c == '\n' || c == '\r') return line.toString();
+            if (line.length() == maxLineLength) {
+                skipLine();
+                throw new IllegalArgumentException("line is longer than " + maxLineLength + " characters");
+            }
+            line.append((char) c);
+        }
+        return read ? line.toString() : null;
+    }
+
+    private void skipLine() throws IOException {
+        int c;
+        while ((c = read()) != -1) {
+            if (c == '\n' || c == '\r') return;
+        }
+    }
+
+    private int read() throws IOException {
+        while (true) {
+            if (position == limit) {
+                limit = reader.read(buffer, 0, buffer.length);
+                position = 0;
+                if (limit <= 0) {
+                    limit = 0;
+                    return -1;
+                }
+            }
+            char c = buffer[position++];
+            if (skipLineFeed) {
+                skipLineFeed = false;
+                if (c == '\n') continue;
+            }
+            if (c == '\r') skipLineFeed = true;
+            return c;
+        }
+    }
+}
@@ -0,0 +1,72 @@
+package com.makowski.bookshelves.service;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+class CsvReader {
+
+    private final BoundedLineReader reader;
+    private final int maxRecordLength;
+    private long line;
+
+    CsvReader(BoundedLineReader reader, int maxRecordLength) {
+        this.reader = reader;
+        this.maxRecordLength = maxRecordLength;
+    }
+
+    long getLine() {
+        return line;
+    }
+
+    List<String> next() throws IOException {
+        String text = readLine();
+        if (text == null) return null;
+        long firstLine = line;
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        int length = 0;
+        boolean quoted = false;
+        boolean tooLong = false;
+        while (true) {
+            length += text.length();
+            if (length > maxRecordLength) {
+                tooLong = true;
+                field.setLength(0);
+                fields.clear();
+            }
+            for (int i = 0; i < text.length(); i++) {
+                char c = text.charAt(i);
+                if (quoted && c == '"' && i + 1 < text.length() && text.charAt(i + 1) == '"') {
+                    i++;
+                    if (!tooLong) field.append(c);
+                }
+                else if (c == '"') quoted = !quoted;
+                else if (tooLong) continue;
+                else if (c == ',' && !quoted) {
+                    fields.add(field.toString());
+                    field.setLength(0);
+                }
+                else field.append(c);
+            }
+            if (!quoted) break;
+            text = readLine();
+            if (text == null) throw new IllegalArgumentException("CSV record starting at line " + firstLine + " has an unterminated quote");
+            if (!tooLong) field.append('\n');
+        }
+        if (tooLong) throw new IllegalArgumentException("CSV record starting at line " + firstLine + " is longer than " + maxRecordLength + " characters");
+        fields.add(field.toString());
+        return fields;
+    }
+
+    private String readLine() throws IOException {
+        try {
+            String text = reader.readLine();
+            if (text != null) line++;
+            return text;
+        } catch (IllegalArgumentException e) {
+            line++;
+            throw new IllegalArgumentException("CSV line " + line + " is longer than " + maxRecordLength + " characters");
+        }
+    }
+}
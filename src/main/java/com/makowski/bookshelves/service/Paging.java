@@ -0,0 +1,57 @@
+package com.makowski.bookshelves.service;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.List;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+
+import com.makowski.bookshelves.dto.PageDto;
+import com.makowski.bookshelves.exceptions.InvalidRequestException;
+
+public final class Paging {
+
+    public static final int DEFAULT_LIMIT = 20;
+    public static final int MAX_LIMIT = 100;
+
+    private Paging() {
+    }
+
+    public static int limit(Integer limit) {
+        if (limit == null) return DEFAULT_LIMIT;
+        if (limit < 1 || limit > MAX_LIMIT) throw new InvalidRequestException("limit must be between 1 and " + MAX_LIMIT);
+        return limit;
+    }
+
+    public static Pageable lookAhead(int limit) {
+        return PageRequest.of(0, limit + 1);
+    }
+
+    public static String cursor(long... keys) {
+        String raw = Arrays.stream(keys).mapToObj(Long::toString).collect(Collectors.joining(":"));
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static long[] keys(String cursor, int count) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            long[] keys = Arrays.stream(raw.split(":")).mapToLong(Long::parseLong).toArray();
+            if (keys.length != count) throw new IllegalArgumentException();
+            return keys;
+        } catch (IllegalArgumentException e) {
+            throw new InvalidRequestException("cursor is not valid");
+        }
+    }
+
+    public static <T, R> PageDto<R> page(List<T> rows, int limit, Function<T, R> mapper, Function<T, String> cursorOf) {
+        boolean hasMore = rows.size() > limit;
+        List<T> pageRows = hasMore ? rows.subList(0, limit) : rows;
+        List<R> items = pageRows.stream().map(mapper).collect(Collectors.toList());
+        String nextCursor = hasMore ? cursorOf.apply(pageRows.get(limit - 1)) : null;
+        return new PageDto<>(items, nextCursor);
+    }
+}
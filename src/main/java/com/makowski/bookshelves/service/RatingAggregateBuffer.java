@@ -0,0 +1,164 @@
+package com.makowski.bookshelves.service;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Supplier;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.makowski.bookshelves.dto.ScoresChangeDto;
+import com.makowski.bookshelves.dto.ScoresDto;
+import com.makowski.bookshelves.repository.BookCache;
+import com.makowski.bookshelves.repository.BookRepository;
+
+import jakarta.annotation.PreDestroy;
+
+@Component
+public class RatingAggregateBuffer {
+
+    private final BookRepository bookRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final BookCache bookCache;
+    private final boolean enabled;
+    private final Map<Long, Delta> pending = new ConcurrentHashMap<>();
+    private final ReadWriteLock flushLock = new ReentrantReadWriteLock();
+
+    public RatingAggregateBuffer(BookRepository bookRepository, TransactionTemplate transactionTemplate, BookCache bookCache,
+            @Value("${bookshelves.rating.write-behind.enabled:false}") boolean enabled) {
+        this.bookRepository = bookRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.bookCache = bookCache;
+        this.enabled = enabled;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void add(ScoresChangeDto change) {
+        Map<Long, Delta> uncommitted = uncommitted(true);
+        Delta delta = new Delta(change.getScoresNumber(), change.getScoresSum(), change.getHistogram());
+        if (uncommitted == null) pending.merge(change.getBookId(), delta, Delta::plus);
+            else uncommitted.merge(change.getBookId(), delta, Delta::plus);
+    }
+
+    public <T> T read(Supplier<T> reader) {
+        if (!enabled) return reader.get();
+        flushLock.readLock().lock();
+        try {
+            return reader.get();
+        } finally {
+            flushLock.readLock().unlock();
+        }
+    }
+
+    public ScoresDto withPending(Long bookId, ScoresDto persisted) {
+        Delta delta = pendingDelta(bookId);
+        if (delta == null) return persisted;
+        int number = persisted.getScoresNumber() + delta.number();
+        int sum = persisted.getScoresSum() + delta.sum();
+        return new ScoresDto(number, sum, rating(number, sum));
+    }
+
+    public int[] withPending(Long bookId, int[] histogram) {
+        Delta delta = pendingDelta(bookId);
+        if (delta == null) return histogram;
+        int[] counts = histogram.clone();
+        for (int i = 0; i < counts.length; i++) counts[i] += delta.histogram()[i];
+        return counts;
+    }
+
+    public int size() {
+        return pending.size();
+    }
+
+    @Scheduled(fixedDelayString = "${bookshelves.rating.write-behind.interval:1000}")
+    public synchronized void flush() {
+        if (pending.isEmpty()) return;
+        flushLock.writeLock().lock();
+        try {
+            Map<Long, Delta> flushed = new HashMap<>();
+            for (Long bookId : new ArrayList<>(pending.keySet())) {
+                Delta delta = pending.remove(bookId);
+                if (delta != null) flushed.put(bookId, delta);
+            }
+            List<ScoresChangeDto> changes = new ArrayList<>();
+            flushed.forEach((bookId, delta) -> {
+                if (!delta.isEmpty()) changes.add(new ScoresChangeDto(bookId, delta.number(), delta.sum(), delta.histogram()));
+            });
+            try {
+                transactionTemplate.executeWithoutResult(status -> bookRepository.addScores(changes));
+            } catch (RuntimeException e) {
+                flushed.forEach((bookId, delta) -> pending.merge(bookId, delta, Delta::plus));
+                throw e;
+            }
+            bookCache.evictScores(new ArrayList<>(flushed.keySet()));
+        } finally {
+            flushLock.writeLock().unlock();
+        }
+    }
+
+    private Delta pendingDelta(Long bookId) {
+        Map<Long, Delta> uncommitted = uncommitted(false);
+        return Delta.plus(pending.get(bookId), uncommitted == null ? null : uncommitted.get(bookId));
+    }
+
+    @SuppressWarnings("unchecked")
+    private Map<Long, Delta> uncommitted(boolean create) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) return null;
+        Map<Long, Delta> uncommitted = (Map<Long, Delta>) TransactionSynchronizationManager.getResource(this);
+        if (uncommitted != null || !create) return uncommitted;
+        Map<Long, Delta> deltas = new HashMap<>();
+        TransactionSynchronizationManager.bindResource(this, deltas);
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                deltas.forEach((bookId, delta) -> pending.merge(bookId, delta, Delta::plus));
+            }
+
+            @Override
+            public void afterCompletion(int status) {
+                TransactionSynchronizationManager.unbindResource(RatingAggregateBuffer.this);
+            }
+        });
+        return deltas;
+    }
+
+    @PreDestroy
+    public void flushOnShutdown() {
+        flush();
+    }
+
+    static float rating(int number, int sum) {
+        if (number == 0) return 0;
+        return BigDecimal.valueOf(sum).divide(BigDecimal.valueOf(number), 1, RoundingMode.HALF_UP).floatValue();
+    }
+
+    private record Delta(int number, int sum, int[] histogram) {
+
+        private static Delta plus(Delta first, Delta second) {
+            if (first == null) return second;
+            if (second == null) return first;
+            int[] histogram = first.histogram.clone();
+            for (int i = 0; i < histogram.length; i++) histogram[i] += second.histogram[i];
+            return new Delta(first.number + second.number, first.sum + second.sum, histogram);
+        }
+
+        private boolean isEmpty() {
+            return number == 0 && sum == 0 && Arrays.stream(histogram).allMatch(count -> count == 0);
+        }
+    }
+}
@@ -3,7 +3,9 @@ package com.makowski.bookshelves.service;
 import java.time.LocalDate;
 
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import com.makowski.bookshelves.dto.VersionDto;
 import com.makowski.bookshelves.entity.Book;
 import com.makowski.bookshelves.entity.Rating;
 import com.makowski.bookshelves.entity.User;
@@ -11,6 +13,7 @@ import com.makowski.bookshelves.exceptions.AccessDeniedException;
 import com.makowski.bookshelves.exceptions.EntityNotFoundException;
 import com.makowski.bookshelves.exceptions.InvalidRequestException;
 import com.makowski.bookshelves.repository.RatingRepository;
+import com.makowski.bookshelves.retry.RetryOnConflict;
 
 import lombok.AllArgsConstructor;
 
@@ -34,6 +37,14 @@ public class RatingService {
         return rating;
     }
 
+    public VersionDto getRatingVersion(Rating rating) {
+        User user = rating.getUser();
+        Book book = rating.getBook();
+        return VersionDto.of("r" + rating.getVersion() + "-u" + (user == null ? "-" : user.getVersion()) + "-b" + book.getVersion() + "-r" + book.getScoresNumber() + "." + book.getScoresSum(),
+            rating.getLastModified(), user == null ? null : user.getLastModified(), book.getLastModified());
+    }
+
+    @Transactional
     public Rating createRating(Rating rating, Long bookId) {
         User user = userService.getLoggedUser();
         Book book = bookService.getBook(bookId);
@@ -49,6 +60,8 @@ public class RatingService {
         return ratingRepository.save(rating);
     }
 
+    @RetryOnConflict
+    @Transactional
     public Rating updateRating(Long ratingId, Rating newRating) {
         Rating rating = getRating(ratingId);
         if (isItWrongUser(ratingId)) throw new AccessDeniedException();
@@ -62,6 +75,8 @@ public class RatingService {
         return ratingRepository.save(rating);
     }   
 
+    @RetryOnConflict
+    @Transactional
     public void deleteRating(Long ratingId) {
         if (!ratingRepository.existsById(ratingId)) throw new EntityNotFoundException(ratingId, Rating.class);
         if (isItWrongUser(ratingId)) throw new AccessDeniedException();
@@ -71,22 +86,11 @@ public class RatingService {
     }
 
     public void changeRating(Book book, int oldScore, int newScore) {
-        if (oldScore == 0) {
-            book.setScoresNumber(book.getScoresNumber() + 1);
-            book.setScoresSum(book.getScoresSum() + newScore);
-        } else if (newScore == 0) {
-            book.setScoresNumber(book.getScoresNumber() - 1);
-            book.setScoresSum(book.getScoresSum() - oldScore);
-        } else {
-            book.setScoresSum(book.getScoresSum() + (newScore - oldScore));
-        }
-        if (book.getScoresNumber() == 0) book.setRating(0);      
-            else book.setRating((float)Math.round(((float)book.getScoresSum() / book.getScoresNumber())* 10) / 10);
-        bookService.saveBook(book);
+        bookService.changeScores(book, oldScore, newScore);
     }
 
     public boolean isItWrongUser(Long ratingId) {
-        return getRating(ratingId).getUser() != userService.getLoggedUser();
+        return !getRating(ratingId).getUser().getId().equals(userService.getLoggedUserId());
     }
 
     public boolean isItWrongRating(Rating rating) {
@@ -0,0 +1,62 @@
+package com.makowski.bookshelves.service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.makowski.bookshelves.entity.ScoreHistogram;
+import com.makowski.bookshelves.repository.BookCache;
+
+import lombok.extern.slf4j.Slf4j;
+
+@Slf4j
+@Component
+public class ScoreHistogramRebuilder {
+
+    static final String REBUILD_SQL = rebuildSql();
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final BookCache bookCache;
+    private final int chunkSize;
+
+    public ScoreHistogramRebuilder(JdbcTemplate jdbcTemplate, TransactionTemplate transactionTemplate, BookCache bookCache,
+            @Value("${bookshelves.histogram.chunk-size:1000}") int chunkSize) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.bookCache = bookCache;
+        this.chunkSize = chunkSize;
+    }
+
+    @Scheduled(cron = "${bookshelves.histogram.rebuild-cron:0 30 3 * * *}")
+    public synchronized void rebuild() {
+        Map<String, Object> range = jdbcTemplate.queryForMap("select min(id) as first_id, max(id) as last_id from books");
+        if (range.get("first_id") == null) return;
+        long started = System.currentTimeMillis();
+        long first = ((Number) range.get("first_id")).longValue();
+        long last = ((Number) range.get("last_id")).longValue();
+        long books = 0;
+        for (long start = first; start <= last; start += chunkSize) {
+            long from = start;
+            long to = Math.min(last, start + chunkSize - 1);
+            Integer updated = transactionTemplate.execute(status -> jdbcTemplate.update(REBUILD_SQL, from, to));
+            if (updated != null) books += updated;
+        }
+        bookCache.evictAll();
+        log.info("Rebuilt score histograms of {} books in {} ms", books, System.currentTimeMillis() - started);
+    }
+
+    private static String rebuildSql() {
+        List<String> columns = new ArrayList<>();
+        for (int score = 1; score <= ScoreHistogram.SCORES; score++) {
+            columns.add(ScoreHistogram.column(score) + " = (select count(*) from rating r where r.book = books.id and r.score = " + score + ")");
+        }
+        return "update books set " + String.join(", ", columns) + " where id between ? and ?";
+    }
+}
@@ -1,19 +1,39 @@
 package com.makowski.bookshelves.service;
 
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 import org.springframework.context.annotation.Lazy;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import com.makowski.bookshelves.dto.BookOnShelfDto;
+import com.makowski.bookshelves.dto.ShelfBookDto;
+import com.makowski.bookshelves.dto.ShelfBookResultDto;
+import com.makowski.bookshelves.dto.ShelfBookResultDto.Result;
+import com.makowski.bookshelves.dto.ShelfBooksDto;
+import com.makowski.bookshelves.dto.ShelfDto;
+import com.makowski.bookshelves.dto.ShelfVersionDto;
+import com.makowski.bookshelves.dto.VersionDto;
 import com.makowski.bookshelves.entity.Book;
 import com.makowski.bookshelves.entity.Shelf;
+import com.makowski.bookshelves.entity.ShelfEntryId;
 import com.makowski.bookshelves.entity.User;
 import com.makowski.bookshelves.exceptions.AccessDeniedException;
 import com.makowski.bookshelves.exceptions.EntityNotFoundException;
 import com.makowski.bookshelves.exceptions.ForbiddenNameException;
 import com.makowski.bookshelves.exceptions.InvalidRequestException;
 import com.makowski.bookshelves.exceptions.PermanentShelfException;
+import com.makowski.bookshelves.repository.ShelfEntryRepository;
 import com.makowski.bookshelves.repository.ShelfRepository;
+import com.makowski.bookshelves.retry.RetryOnConflict;
 
 import lombok.AllArgsConstructor;
 
@@ -22,6 +42,7 @@ import lombok.AllArgsConstructor;
 public class ShelfService {                             
                                                         
     private ShelfRepository shelfRepository;
+    private ShelfEntryRepository shelfEntryRepository;
     private BookService bookService;
     private UserService userService;   
 
@@ -36,7 +57,22 @@ public class ShelfService {
             if (isItWrongUser(id)) throw new AccessDeniedException();
         return shelf;
     }
+
+    public VersionDto getShelfVersion(Long id) {
+        ShelfVersionDto version = shelfRepository.findVersionById(id);
+        if (version == null) throw new EntityNotFoundException(id, Shelf.class);
+        if (version.isPrivateProfile() && !version.getOwnerId().equals(userService.getLoggedUserId())) throw new AccessDeniedException();
+        return version.toVersionDto();
+    }
     
+    public List<ShelfDto> getLibrary(Long ownerId) {
+        List<ShelfDto> shelves = shelfRepository.findLibraryShelves(ownerId);
+        Map<Long, ShelfDto> shelvesById = shelves.stream().collect(Collectors.toMap(ShelfDto::getId, Function.identity()));
+        for (ShelfBookDto shelfBook : shelfRepository.findLibraryBooks(ownerId))
+            shelvesById.get(shelfBook.getShelfId()).getBooks().add(bookService.getBookDto(shelfBook.getBook()));
+        return shelves;
+    }
+
     public Shelf createOwnShelf(String name) {
         if (name.isBlank()) throw new InvalidRequestException("shelf name was not provided");
         if (isItProperName(name)) return createShelf(name, false, userService.getLoggedUser());
@@ -55,17 +91,15 @@ public class ShelfService {
         return shelfRepository.save(shelf);
     }
 
+    @Transactional
     public Shelf addToShelf(Long bookId, Long shelfId) {
         Shelf shelf = getShelf(shelfId);    
         if (isItWrongUser(shelfId)) throw new AccessDeniedException();
-        List<Book> books = shelf.getBooks();
-        Book book = bookService.getBook(bookId);
-        if (books.contains(book)) throw new InvalidRequestException("this book is already on this shelf");
-        books.add(book);
-        shelf.setBooks(books);
-        saveShelf(shelf);
+        if (!bookService.existsById(bookId)) throw new EntityNotFoundException(bookId, Book.class);
+        if (shelfEntryRepository.existsById(new ShelfEntryId(shelfId, bookId))) throw new InvalidRequestException("this book is already on this shelf");
+        shelfEntryRepository.addAll(shelfId, List.of(bookId));
+        touch(shelfId);
         return shelf;
-
     }
 
     public void deleteShelf(Long shelfId) {
@@ -75,6 +109,8 @@ public class ShelfService {
         shelfRepository.deleteById(shelfId);
     }    
 
+    @RetryOnConflict
+    @Transactional
     public Shelf renameShelf(Long shelfId, String newName) {
         if (newName.isBlank()) throw new InvalidRequestException("shelf name was not provided");
         if (isItWrongUser(shelfId)) throw new AccessDeniedException();
@@ -85,25 +121,66 @@ public class ShelfService {
         return saveShelf(shelf);
     }
 
+    @Transactional
     public Shelf deleteBookFromShelf(Long bookId, Long shelfId) {
         if (isItWrongUser(shelfId)) throw new AccessDeniedException();
         Shelf shelf = getShelf(shelfId);
-        List<Book> books = shelf.getBooks();
-        Book book= bookService.getBook(bookId);
-        if (!books.contains(book)) throw new EntityNotFoundException(bookId, shelfId);
-        books.remove(book);
-        shelf.setBooks(books);
-        return saveShelf(shelf);
+        if (shelfEntryRepository.remove(shelfId, bookId) == 0) throw new EntityNotFoundException(bookId, shelfId);
+        touch(shelfId);
+        return shelf;
     }     
 
-    public boolean isItProperName(String name) {
-        for (Shelf shelf : userService.getLoggedUser().getShelves()) {
-            if (shelf.getName().equalsIgnoreCase(name)) return false;
+    @Transactional
+    public List<ShelfBookResultDto> updateShelfBooks(Long shelfId, ShelfBooksDto shelfBooks) {
+        Set<Long> toAdd = distinct(shelfBooks.getAdd());
+        Set<Long> toRemove = distinct(shelfBooks.getRemove());
+        if (toAdd.isEmpty() && toRemove.isEmpty()) throw new InvalidRequestException("no book ids were provided");
+        if (toAdd.stream().anyMatch(toRemove::contains)) throw new InvalidRequestException("a book cannot be added and removed in the same request");
+        if (!touch(shelfId)) {
+            getShelf(shelfId);
+            throw new AccessDeniedException();
         }
-        return true;
+
+        Set<Long> bookIds = new LinkedHashSet<>(toAdd);
+        bookIds.addAll(toRemove);
+        Map<Long, Boolean> onShelf = shelfEntryRepository.findBooksOnShelf(shelfId, bookIds).stream()
+            .collect(Collectors.toMap(BookOnShelfDto::getBookId, BookOnShelfDto::isOnShelf));
+
+        List<ShelfBookResultDto> results = new ArrayList<>();
+        List<Long> added = new ArrayList<>();
+        List<Long> removed = new ArrayList<>();
+        for (Long bookId : toAdd) {
+            Result result = !onShelf.containsKey(bookId) ? Result.BOOK_NOT_FOUND
+                : onShelf.get(bookId) ? Result.ALREADY_ON_SHELF : Result.ADDED;
+            if (result == Result.ADDED) added.add(bookId);
+            results.add(new ShelfBookResultDto(bookId, result));
+        }
+        for (Long bookId : toRemove) {
+            Result result = !onShelf.containsKey(bookId) ? Result.BOOK_NOT_FOUND
+                : onShelf.get(bookId) ? Result.REMOVED : Result.NOT_ON_SHELF;
+            if (result == Result.REMOVED) removed.add(bookId);
+            results.add(new ShelfBookResultDto(bookId, result));
+        }
+        shelfEntryRepository.addAll(shelfId, added);
+        shelfEntryRepository.removeAll(shelfId, removed);
+        return results;
+    }
+
+    private boolean touch(Long shelfId) {
+        return shelfRepository.touch(shelfId, userService.getLoggedUserId(), Instant.now()) != 0;
+    }
+
+    private Set<Long> distinct(Collection<Long> bookIds) {
+        Set<Long> distinct = new LinkedHashSet<>();
+        if (bookIds != null) bookIds.stream().filter(id -> id != null).forEach(distinct::add);
+        return distinct;
+    }
+
+    public boolean isItProperName(String name) {
+        return !shelfRepository.existsByOwnerIdAndNameIgnoreCase(userService.getLoggedUserId(), name);
     } 
     
     public boolean isItWrongUser(Long shelfId) {
-        return !(getShelf(shelfId).getOwner().equals(userService.getLoggedUser()));
+        return !getShelf(shelfId).getOwner().getId().equals(userService.getLoggedUserId());
     }
 }
\ No newline at end of file
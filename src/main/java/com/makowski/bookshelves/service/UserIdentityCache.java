@@ -0,0 +1,69 @@
+package com.makowski.bookshelves.service;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Supplier;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+@Component
+public class UserIdentityCache {
+
+    private final int capacity;
+    private final Map<Long, Identity> identities;
+    private long evictions;
+
+    public UserIdentityCache(@Value("${bookshelves.user-cache.size:1000}") int capacity) {
+        this.capacity = capacity;
+        this.identities = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, Identity> eldest) {
+                return size() > UserIdentityCache.this.capacity;
+            }
+        };
+    }
+
+    public Identity get(Long userId, Supplier<Identity> loader) {
+        long generation;
+        synchronized (identities) {
+            Identity identity = identities.get(userId);
+            if (identity != null) return identity;
+            generation = evictions;
+        }
+        Identity identity = loader.get();
+        synchronized (identities) {
+            if (generation == evictions) identities.put(userId, identity);
+        }
+        return identity;
+    }
+
+    public void evict(Long userId) {
+        remove(userId);
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) return;
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                remove(userId);
+            }
+        });
+    }
+
+    public int size() {
+        synchronized (identities) {
+            return identities.size();
+        }
+    }
+
+    private void remove(Long userId) {
+        synchronized (identities) {
+            identities.remove(userId);
+            evictions++;
+        }
+    }
+
+    public record Identity(Long id, String username, boolean privateProfile) {
+    }
+}
@@ -1,24 +1,31 @@
 package com.makowski.bookshelves.service;
 
-import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
 
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import com.makowski.bookshelves.dto.PageDto;
 import com.makowski.bookshelves.dto.PasswordDto;
+import com.makowski.bookshelves.dto.ShelfDto;
 import com.makowski.bookshelves.dto.UserDto;
 import com.makowski.bookshelves.entity.Rating;
-import com.makowski.bookshelves.entity.Shelf;
 import com.makowski.bookshelves.entity.User;
 import com.makowski.bookshelves.exceptions.AccessDeniedException;
 import com.makowski.bookshelves.exceptions.EntityNotFoundException;
 import com.makowski.bookshelves.exceptions.ForbiddenNameException;
 import com.makowski.bookshelves.exceptions.InvalidRequestException;
 import com.makowski.bookshelves.exceptions.PasswordNotEqualsException;
+import com.makowski.bookshelves.index.UsernameIndex;
+import com.makowski.bookshelves.repository.RatingRepository;
 import com.makowski.bookshelves.repository.UserRepository;
+import com.makowski.bookshelves.retry.RetryOnConflict;
 
 import lombok.AllArgsConstructor;
 
@@ -30,6 +37,14 @@ public class UserService {
     private ShelfService shelfService;     
     private UserRepository userRepository;
     private BCryptPasswordEncoder bCryptPasswordEncoder;
+    private UsernameIndex usernameIndex;
+    private RatingRepository ratingRepository;
+    private UserIdentityCache userIdentityCache;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void buildUsernameIndex() {
+        usernameIndex.rebuild(userRepository.findAll());
+    }
 
     public User createUser(User user) {
         if(userRepository.existsByUsernameIgnoreCase(user.getUsername())) throw new ForbiddenNameException();
@@ -37,6 +52,7 @@ public class UserService {
         String encode = bCryptPasswordEncoder.encode(user.getPassword());
         user.setPassword(encode);      
         saveUser(user);
+        usernameIndex.index(user);
         shelfService.createShelf("Want read", true, user);
         shelfService.createShelf("Have read", true, user);
         return user;
@@ -58,6 +74,8 @@ public class UserService {
             else throw new EntityNotFoundException(username);
     }
 
+    @RetryOnConflict
+    @Transactional
     public void changePassword(PasswordDto password) {      
         User user = getLoggedUser();
         if (!bCryptPasswordEncoder.matches(password.getOldPassword(), user.getPassword())) throw new AccessDeniedException();
@@ -67,7 +85,22 @@ public class UserService {
     }
 
     public User getLoggedUser() {
-        return findByUsername(SecurityContextHolder.getContext().getAuthentication().getName());
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication.getDetails() instanceof Long userId) return getUser(userId);
+        return findByUsername(authentication.getName());
+    }
+
+    public Long getLoggedUserId() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication.getDetails() instanceof Long userId) return getIdentity(userId).id();
+        return findByUsername(authentication.getName()).getId();
+    }
+
+    public UserIdentityCache.Identity getIdentity(Long id) {
+        return userIdentityCache.get(id, () -> {
+            User user = getUser(id);
+            return new UserIdentityCache.Identity(user.getId(), user.getUsername(), user.isPrivateProfile());
+        });
     }
 
     public UserDto getUserDto(Long id) {
@@ -77,37 +110,48 @@ public class UserService {
 
     public void deleteUser(Long id) {      
         if (!userRepository.existsById(id)) throw new EntityNotFoundException(id, User.class);
-        if (!getLoggedUser().getId().equals(id)) throw new AccessDeniedException();
+        if (!getLoggedUserId().equals(id)) throw new AccessDeniedException();
         userRepository.deleteById(id);
+        usernameIndex.remove(id);
+        userIdentityCache.evict(id);
     }
 
+    @RetryOnConflict
+    @Transactional
     public User changePrivacyStatus() {
         User user = getLoggedUser();
         user.setPrivateProfile(!user.isPrivateProfile());
-        return saveUser(user);
+        User savedUser = saveUser(user);
+        userIdentityCache.evict(user.getId());
+        return savedUser;
     }
 
-    public List<Shelf> getUsersLibrary(Long id) {
-        User user = getUser(id);
-        if (user.isPrivateProfile())
-            if (getLoggedUser() != user) throw new AccessDeniedException();
-        return user.getShelves();
+    public List<ShelfDto> getUsersLibrary(Long id) {
+        if (getIdentity(id).privateProfile())
+            if (!id.equals(getLoggedUserId())) throw new AccessDeniedException();
+        return shelfService.getLibrary(id);
     }
      
-    public List<Rating> showUsersRatings(Long id) {
-        User user = getUser(id);
-        if (user.isPrivateProfile())
-            if (getLoggedUser() != user) throw new AccessDeniedException();
-        if (user.getRatings() == null || user.getRatings().isEmpty()) throw new EntityNotFoundException();
-        return user.getRatings();
+    public PageDto<Rating> showUsersRatings(Long id, String cursor, Integer limit) {
+        int pageSize = Paging.limit(limit);
+        if (getIdentity(id).privateProfile())
+            if (!id.equals(getLoggedUserId())) throw new AccessDeniedException();
+        long after = cursor == null ? 0 : Paging.keys(cursor, 1)[0];
+        List<Rating> ratings = ratingRepository.findByUserIdAfter(id, after, Paging.lookAhead(pageSize));
+        if (ratings.isEmpty()) throw new EntityNotFoundException();
+        return Paging.page(ratings, pageSize, rating -> rating, rating -> Paging.cursor(rating.getId()));
     }
 
+    @RetryOnConflict
+    @Transactional
     public User deleteNowReadingStatus() {
         User user = getLoggedUser();
         user.setNowReading(null);          
         return saveUser(user);
     }
 
+    @RetryOnConflict
+    @Transactional
     public User setAsNowReading(Long bookId) {
         if (!bookService.existsById(bookId)) throw new EntityNotFoundException();
         User user = getLoggedUser();
@@ -115,15 +159,12 @@ public class UserService {
         return saveUser(user);
     }
 
-    public List<UserDto> findUser(String phrase) {   
+    public PageDto<UserDto> findUser(String phrase, String cursor, Integer limit) {   
         if (phrase.isBlank()) throw new InvalidRequestException("search phrase was not provided");
-        List<UserDto> users = new ArrayList<>();    
-        for (User user : userRepository.findAll()) {
-            if (user.getUsername().toUpperCase().contains(phrase.toUpperCase())) {
-                users.add(getUserDto(user.getId()));
-            }
-        }
+        int pageSize = Paging.limit(limit);
+        long after = cursor == null ? 0 : Paging.keys(cursor, 1)[0];
+        List<UserDto> users = usernameIndex.search(phrase, after, pageSize + 1);
         if (users.isEmpty()) throw new EntityNotFoundException();
-            else return users;
+        return Paging.page(users, pageSize, user -> user, user -> Paging.cursor(user.getId()));
     }
 }
\ No newline at end of file
@@ -0,0 +1,117 @@
+package com.makowski.bookshelves.service;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.makowski.bookshelves.index.GenreLeaderboard;
+import com.makowski.bookshelves.repository.BookCache;
+import com.makowski.bookshelves.repository.GenreMeans;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+
+@Slf4j
+@Component
+public class WeightedScoreRefresher {
+
+    private final GenreMeans genreMeans;
+    private final TransactionTemplate transactionTemplate;
+    private final BookCache bookCache;
+    private final GenreLeaderboard genreLeaderboard;
+    private final double drift;
+    private final int chunkSize;
+    private final ExecutorService executor;
+
+    public WeightedScoreRefresher(GenreMeans genreMeans, TransactionTemplate transactionTemplate, BookCache bookCache,
+            GenreLeaderboard genreLeaderboard,
+            @Value("${bookshelves.ranking.drift:0.05}") double drift,
+            @Value("${bookshelves.ranking.threads:4}") int threads,
+            @Value("${bookshelves.ranking.chunk-size:1000}") int chunkSize) {
+        this.genreMeans = genreMeans;
+        this.transactionTemplate = transactionTemplate;
+        this.bookCache = bookCache;
+        this.genreLeaderboard = genreLeaderboard;
+        this.drift = drift;
+        this.chunkSize = chunkSize;
+        this.executor = Executors.newFixedThreadPool(threads, threadFactory());
+    }
+
+    @Scheduled(fixedDelayString = "${bookshelves.ranking.refresh-interval:600000}",
+        initialDelayString = "${bookshelves.ranking.refresh-interval:600000}")
+    public synchronized List<String> refresh() {
+        Map<String, Double> previous = genreMeans.getMeans();
+        Map<String, Double> computed = genreMeans.compute();
+        Map<String, Double> means = new HashMap<>();
+        List<String> drifted = new ArrayList<>();
+        computed.forEach((genre, mean) -> {
+            Double used = previous.get(genre);
+            if (used == null || Math.abs(mean - used) > drift) {
+                drifted.add(genre);
+                means.put(genre, mean);
+            } else means.put(genre, used);
+        });
+        if (drifted.isEmpty() && means.size() == previous.size()) return drifted;
+
+        long started = System.currentTimeMillis();
+        transactionTemplate.executeWithoutResult(status -> genreMeans.save(means));
+        genreMeans.use(means);
+        List<Callable<Integer>> rescores = new ArrayList<>();
+        for (String genre : drifted)
+            rescores.add(() -> rescore(genre, means.get(genre)));
+        int books = 0;
+        try {
+            for (Future<Integer> rescore : executor.invokeAll(rescores)) books += rescore.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Weighted score refresh was interrupted", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Weighted score refresh failed", e.getCause());
+        } finally {
+            bookCache.evictAll();
+            genreLeaderboard.clear();
+        }
+        log.info("Rescored {} books in {} drifted genres in {} ms", books, drifted.size(), System.currentTimeMillis() - started);
+        return drifted;
+    }
+
+    private int rescore(String genre, double mean) {
+        long[] range = genreMeans.idRange(genre);
+        if (range.length == 0) return 0;
+        int books = 0;
+        for (long start = range[0]; start <= range[1]; start += chunkSize) {
+            long from = start;
+            long to = Math.min(range[1], start + chunkSize - 1);
+            Integer updated = transactionTemplate.execute(status -> genreMeans.rescore(genre, mean, from, to));
+            if (updated != null) books += updated;
+        }
+        return books;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    private static ThreadFactory threadFactory() {
+        AtomicInteger count = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, "weighted-score-refresh-" + count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+}
@@ -1,99 +1,117 @@
-INSERT INTO books (title, author, publisher, genre, pages, publication_year, rating, scores_number, scores_sum) VALUES
-('The Last Devil to Die', 'Richard Osman', 'Viking Press', 'crime', 422, 2023, 7.3, 3, 22),
-('Rich People Problems', 'Kevin Kwan', 'Doubleday', 'fiction', 398, 2017, 0.0, 0, 0),
-('Little Fires Everywhere', 'Celeste Ng', 'Penguin Press', 'fiction', 338, 2017, 0.0, 0, 0),
-('Bel Canto', 'Ann Patchett', 'Perennial', 'thriller', 318, 2001, 0.0, 0, 0),
-('Holly', 'Stephen King', 'Scribner', 'crime', 449, 2023, 8.0, 3, 24),
-('You Could Make This Place Beautiful', 'Maggie Smith', 'One Signal Publishers', 'biography', 320, 2023, 0.0, 0, 0),
-('Ours', 'Phillip B. Williams', 'Viking', 'thriller', 592, 2024, 0.0, 0, 0),
-('A Good Girls Guide to Murder', 'Holly Jackson', 'Electric Monkey', 'crime', 433, 2019, 9.3, 3, 28),
-('The Silent Patient', 'Alex Michaelides', 'Celadon Books', 'crime', 336, 2018, 5.7, 3, 17),
-('The Man Who Died Twice', 'Richard Osman', 'Viking Press', 'crime', 464, 2021, 8.7, 3, 26),
-('My Absolute Darling', 'Gabriel Tallent', 'Riverhead Books', 'fiction', 417, 2017, 0.0, 0, 0),
-('Everything I Never Told You', 'Celeste Ng', 'Penguin Press', 'fiction', 297, 2014, 0.0, 0, 0),
-('The Lightning Circle', 'Vikki VanSickle', 'Tundra Books', 'poetry', 224, 2024, 0.0, 0, 0),
-('Career of Evil', 'Robert Galbraith', 'Mulholland Books', 'crime', 609, 2018, 7.0, 3, 21),
-('The Barefoot Contessa Cookbook', 'Ina Garten', 'Clarkson Potter', 'culinary', 256, 1999, 0.0, 0, 0),
-('Thinking, Fast and Slow', 'Daniel Kahneman', 'Farrar, Straus and Giroux', 'psychology', 499, 2011, 0.0, 0, 0),
-('Divergent', 'Veronica Roth', 'Tegen Books', 'fantasy', 487, 2011, 0.0, 0, 0),
-('When the Sky Fell on Splendor', 'Emily Henry', 'Razorbill', 'romance', 384, 2019, 0.0, 0, 0),
-('The Alchemist', 'Paulo Coelho', 'HarperTorch', 'fantasy', 163, 1988, 0.0, 0, 0),
-('One Big Open Sky', 'Lesa Cline-Ransome', 'Holiday House', 'historical fiction', 304, 2024, 0.0, 0, 0),
-('The Perfect Marriage', 'Jeneva Rose', 'Bloodhound Books', 'crime', 342, 2020, 9.3, 3, 28),
-('Louder Than Hunger', 'John Schu', 'Candlewick Press', 'poetry', 528, 2024, 0.0, 0, 0),
-('The 100 Most Pointless Things in the World', 'Richard Osman', 'Coronet', 'comedy', 304, 2012, 0.0, 0, 0),
-('One of Us Is Dead', 'Jeneva Rose', 'Blackstone Publishing', 'crime', 272, 2022, 6.7, 3, 20),
-('The Gifts of Imperfection', 'Brené Brown', 'Hazelden', 'psychology', 137, 2010, 0.0, 0, 0),
-('Leslie F*cking Jones', 'Leslie Jones', 'Grand Central Publisching', 'biography', 288, 2023, 0.0, 0, 0),
-('Mexican Gothic', 'Silvia Moreno-Garcia', 'Del Rey', 'horror', 320, 2020, 0.0, 0, 0),
-('The Borrowed Hills', 'Scott Preston', 'John Murray', 'historical fiction', 272, 2024, 0.0, 0, 0),
-('The Fates Divide', 'Veronica Roth', 'Tegen Books', 'fantasy', 443, 2018, 0.0, 0, 0),
-('Mr. Mercedes', 'Stephen King', 'Scribner', 'crime', 436, 2014, 5.7, 3, 17),
-('The Daughter of Doctor Moreau', 'Silvia Moreno-Garcia', 'Del Rey', 'horror', 306, 2022, 0.0, 0, 0),
-('Shes Not Sorry', 'Mary Kubica', 'Park Row', 'crime', 336, 2024, 8.3, 3, 25),
-('Funny Story', 'Emily Henry', 'Berkley', 'romance', 400, 2024, 0.0, 0, 0),
-('The Girl Who Loved Tom Gordon', 'Stephen King', 'Scribner', 'Horror', 224, 1999, 0.0, 0, 0),
-('The Mermaids Singing', 'Val McDermid', 'HarperCollins', 'crime', 364, 1995, 6.0, 3, 18),
-('Quo Vadis', 'Henryk Sienkiewicz', 'Hippocrene Books', 'historical fiction', 589, 1896, 0.0, 0, 0),
-('A Million Junes', 'Emily Henry', 'Razorbill', 'romance', 400, 2017, 0.0, 0, 0),
-('Chosen Ones', 'Veronica Roth', 'Tegen Books', 'fantasy', 432, 2020, 0.0, 0, 0),
-('Joyland', 'Stephen King', 'Hard Case Crime', 'crime', 223, 2013, 7.3, 3, 22),
-('The Love That Split the World', 'Emily Henry', 'Razorbill', 'romance', 396, 2016, 0.0, 0, 0),
-('So Thirsty', 'Rachel Harrison', 'Berkley', 'horror', 304, 2024, 0.0, 0, 0),
-('And Then There Were None', 'Agatha Christie', 'St. Martins Griffin', 'crime', 264, 1939, 7.7, 3, 23);
+INSERT INTO books (id, title, author, publisher, genre, pages, publication_year, rating, scores_number, scores_sum) VALUES
+(1, 'The Last Devil to Die', 'Richard Osman', 'Viking Press', 'crime', 422, 2023, 7.3, 3, 22),
+(2, 'Rich People Problems', 'Kevin Kwan', 'Doubleday', 'fiction', 398, 2017, 0.0, 0, 0),
+(3, 'Little Fires Everywhere', 'Celeste Ng', 'Penguin Press', 'fiction', 338, 2017, 0.0, 0, 0),
+(4, 'Bel Canto', 'Ann Patchett', 'Perennial', 'thriller', 318, 2001, 0.0, 0, 0),
+(5, 'Holly', 'Stephen King', 'Scribner', 'crime', 449, 2023, 8.0, 3, 24),
+(6, 'You Could Make This Place Beautiful', 'Maggie Smith', 'One Signal Publishers', 'biography', 320, 2023, 0.0, 0, 0),
+(7, 'Ours', 'Phillip B. Williams', 'Viking', 'thriller', 592, 2024, 0.0, 0, 0),
+(8, 'A Good Girls Guide to Murder', 'Holly Jackson', 'Electric Monkey', 'crime', 433, 2019, 9.3, 3, 28),
+(9, 'The Silent Patient', 'Alex Michaelides', 'Celadon Books', 'crime', 336, 2018, 5.7, 3, 17),
+(10, 'The Man Who Died Twice', 'Richard Osman', 'Viking Press', 'crime', 464, 2021, 8.7, 3, 26),
+(11, 'My Absolute Darling', 'Gabriel Tallent', 'Riverhead Books', 'fiction', 417, 2017, 0.0, 0, 0),
+(12, 'Everything I Never Told You', 'Celeste Ng', 'Penguin Press', 'fiction', 297, 2014, 0.0, 0, 0),
+(13, 'The Lightning Circle', 'Vikki VanSickle', 'Tundra Books', 'poetry', 224, 2024, 0.0, 0, 0),
+(14, 'Career of Evil', 'Robert Galbraith', 'Mulholland Books', 'crime', 609, 2018, 7.0, 3, 21),
+(15, 'The Barefoot Contessa Cookbook', 'Ina Garten', 'Clarkson Potter', 'culinary', 256, 1999, 0.0, 0, 0),
+(16, 'Thinking, Fast and Slow', 'Daniel Kahneman', 'Farrar, Straus and Giroux', 'psychology', 499, 2011, 0.0, 0, 0),
+(17, 'Divergent', 'Veronica Roth', 'Tegen Books', 'fantasy', 487, 2011, 0.0, 0, 0),
+(18, 'When the Sky Fell on Splendor', 'Emily Henry', 'Razorbill', 'romance', 384, 2019, 0.0, 0, 0),
+(19, 'The Alchemist', 'Paulo Coelho', 'HarperTorch', 'fantasy', 163, 1988, 0.0, 0, 0),
+(20, 'One Big Open Sky', 'Lesa Cline-Ransome', 'Holiday House', 'historical fiction', 304, 2024, 0.0, 0, 0),
+(21, 'The Perfect Marriage', 'Jeneva Rose', 'Bloodhound Books', 'crime', 342, 2020, 9.3, 3, 28),
+(22, 'Louder Than Hunger', 'John Schu', 'Candlewick Press', 'poetry', 528, 2024, 0.0, 0, 0),
+(23, 'The 100 Most Pointless Things in the World', 'Richard Osman', 'Coronet', 'comedy', 304, 2012, 0.0, 0, 0),
+(24, 'One of Us Is Dead', 'Jeneva Rose', 'Blackstone Publishing', 'crime', 272, 2022, 6.7, 3, 20),
+(25, 'The Gifts of Imperfection', 'Brené Brown', 'Hazelden', 'psychology', 137, 2010, 0.0, 0, 0),
+(26, 'Leslie F*cking Jones', 'Leslie Jones', 'Grand Central Publisching', 'biography', 288, 2023, 0.0, 0, 0),
+(27, 'Mexican Gothic', 'Silvia Moreno-Garcia', 'Del Rey', 'horror', 320, 2020, 0.0, 0, 0),
+(28, 'The Borrowed Hills', 'Scott Preston', 'John Murray', 'historical fiction', 272, 2024, 0.0, 0, 0),
+(29, 'The Fates Divide', 'Veronica Roth', 'Tegen Books', 'fantasy', 443, 2018, 0.0, 0, 0),
+(30, 'Mr. Mercedes', 'Stephen King', 'Scribner', 'crime', 436, 2014, 5.7, 3, 17),
+(31, 'The Daughter of Doctor Moreau', 'Silvia Moreno-Garcia', 'Del Rey', 'horror', 306, 2022, 0.0, 0, 0),
+(32, 'Shes Not Sorry', 'Mary Kubica', 'Park Row', 'crime', 336, 2024, 8.3, 3, 25),
+(33, 'Funny Story', 'Emily Henry', 'Berkley', 'romance', 400, 2024, 0.0, 0, 0),
+(34, 'The Girl Who Loved Tom Gordon', 'Stephen King', 'Scribner', 'Horror', 224, 1999, 0.0, 0, 0),
+(35, 'The Mermaids Singing', 'Val McDermid', 'HarperCollins', 'crime', 364, 1995, 6.0, 3, 18),
+(36, 'Quo Vadis', 'Henryk Sienkiewicz', 'Hippocrene Books', 'historical fiction', 589, 1896, 0.0, 0, 0),
+(37, 'A Million Junes', 'Emily Henry', 'Razorbill', 'romance', 400, 2017, 0.0, 0, 0),
+(38, 'Chosen Ones', 'Veronica Roth', 'Tegen Books', 'fantasy', 432, 2020, 0.0, 0, 0),
+(39, 'Joyland', 'Stephen King', 'Hard Case Crime', 'crime', 223, 2013, 7.3, 3, 22),
+(40, 'The Love That Split the World', 'Emily Henry', 'Razorbill', 'romance', 396, 2016, 0.0, 0, 0),
+(41, 'So Thirsty', 'Rachel Harrison', 'Berkley', 'horror', 304, 2024, 0.0, 0, 0),
+(42, 'And Then There Were None', 'Agatha Christie', 'St. Martins Griffin', 'crime', 264, 1939, 7.7, 3, 23);
 
-INSERT INTO users (username, password, email, private) VALUES
-('John', '$2a$10$ZFhQWwueKvNbAqCOW6NxdO9Qv6XQy..9gEUcHZSC30Z/YuwKBC92K', 'john@email.com', false),
-('Max_mustermann', '$2a$10$ZFhQWwueKvNbAqCOW6NxdO9Qv6XQy..9gEUcHZSC30Z/YuwKBC92K', 'm-mustermann@email.com', true),
-('Juliette', '$2a$10$ZFhQWwueKvNbAqCOW6NxdO9Qv6XQy..9gEUcHZSC30Z/YuwKBC92K', 'j.schmid@email.com', false);
+INSERT INTO users (id, username, password, email, private) VALUES
+(1, 'John', '$2a$10$ZFhQWwueKvNbAqCOW6NxdO9Qv6XQy..9gEUcHZSC30Z/YuwKBC92K', 'john@email.com', false),
+(2, 'Max_mustermann', '$2a$10$ZFhQWwueKvNbAqCOW6NxdO9Qv6XQy..9gEUcHZSC30Z/YuwKBC92K', 'm-mustermann@email.com', true),
+(3, 'Juliette', '$2a$10$ZFhQWwueKvNbAqCOW6NxdO9Qv6XQy..9gEUcHZSC30Z/YuwKBC92K', 'j.schmid@email.com', false);
 
-INSERT INTO shelves (name, permanent, owner_id) VALUES
-('Want read', true, 1),
-('Have read', true, 1),
-('Want read', true, 2),
-('Have read', true, 2),
-('Want read', true, 3),
-('Have read', true, 3);
+INSERT INTO shelves (id, name, permanent, owner_id) VALUES
+(1, 'Want read', true, 1),
+(2, 'Have read', true, 1),
+(3, 'Want read', true, 2),
+(4, 'Have read', true, 2),
+(5, 'Want read', true, 3),
+(6, 'Have read', true, 3);
 
-INSERT INTO rating (score, review, ownerr, book) VALUES
-(8, 'Left me wanting more.', 2, 1),
-(10, 'Couldnt get enough!', 3, 8),
-(9, 'this book touched my heart', 1, 10),
-(9, 'Absolutely captivating from start to finish', 2, 10),
-(8, 'A satisfying literary experience. Kept me engaged throughout.', 3, 10),
-(9, 'I couldnt put it down!', 2, 39),
-(10, 'Absolutely captivating from start to finish, with richly developed characters and a plot that kept me shocked until the very end.', 1, 21),
-(10, 'Simply mesmerizing', 2, 8),
-(10, 'A definite must-read for anyone who loves a crime story.', 2, 5),
-(6, 'Interesting premise and well-written prose, but the ending left me wanting more closure or resolution.', 3, 35),
-(5, 'Solid effort with moments of brilliance, but it didnt quite reach the level of excitement or immersion I was hoping for', 2, 24),
-(5, 'Liked the characters and the storyline, but wished for a bit more depth and complexity.', 2, 35),
-(7, 'Enjoyable read overall, but some parts felt a bit slow-paced and could have been trimmed down', 1, 35),
-(3, 'The characters were one-dimensional and failed to evoke any emotional connection, making it difficult to invest in their journeys.', 3, 9),
-(4, 'The plot felt predictable, lacking any surprises or twists that could have made it more engaging.', 1, 30),
-(5, 'The writing style seemed unpolished, with awkward phrasing and repetitive descriptions that detracted from the overall reading experience.', 3, 30);
+INSERT INTO rating (id, score, review, ownerr, book) VALUES
+(1, 8, 'Left me wanting more.', 2, 1),
+(2, 10, 'Couldnt get enough!', 3, 8),
+(3, 9, 'this book touched my heart', 1, 10),
+(4, 9, 'Absolutely captivating from start to finish', 2, 10),
+(5, 8, 'A satisfying literary experience. Kept me engaged throughout.', 3, 10),
+(6, 9, 'I couldnt put it down!', 2, 39),
+(7, 10, 'Absolutely captivating from start to finish, with richly developed characters and a plot that kept me shocked until the very end.', 1, 21),
+(8, 10, 'Simply mesmerizing', 2, 8),
+(9, 10, 'A definite must-read for anyone who loves a crime story.', 2, 5),
+(10, 6, 'Interesting premise and well-written prose, but the ending left me wanting more closure or resolution.', 3, 35),
+(11, 5, 'Solid effort with moments of brilliance, but it didnt quite reach the level of excitement or immersion I was hoping for', 2, 24),
+(12, 5, 'Liked the characters and the storyline, but wished for a bit more depth and complexity.', 2, 35),
+(13, 7, 'Enjoyable read overall, but some parts felt a bit slow-paced and could have been trimmed down', 1, 35),
+(14, 3, 'The characters were one-dimensional and failed to evoke any emotional connection, making it difficult to invest in their journeys.', 3, 9),
+(15, 4, 'The plot felt predictable, lacking any surprises or twists that could have made it more engaging.', 1, 30),
+(16, 5, 'The writing style seemed unpolished, with awkward phrasing and repetitive descriptions that detracted from the overall reading experience.', 3, 30);
 
-INSERT INTO rating (score, ownerr, book) VALUES
-(7,1, 1),
-(7,3, 1),
-(7,1, 5),
-(7,3, 5),
-(8,1, 8),
-(6,1, 9),
-(8,2, 9),
-(7,1, 14),
-(7,2, 14),
-(7,3, 14),
-(9,2, 21),
-(9,3, 21),
-(8,1, 24),
-(7,3, 24),
-(8,2, 30),
-(8,1, 32),
-(9,2, 32),
-(8,3, 32),
-(8,1, 39),
-(5,3, 39),
-(7,1, 42),
-(6,2, 42),
-(10,3, 42);
\ No newline at end of file
+INSERT INTO rating (id, score, ownerr, book) VALUES
+(17, 7,1, 1),
+(18, 7,3, 1),
+(19, 7,1, 5),
+(20, 7,3, 5),
+(21, 8,1, 8),
+(22, 6,1, 9),
+(23, 8,2, 9),
+(24, 7,1, 14),
+(25, 7,2, 14),
+(26, 7,3, 14),
+(27, 9,2, 21),
+(28, 9,3, 21),
+(29, 8,1, 24),
+(30, 7,3, 24),
+(31, 8,2, 30),
+(32, 8,1, 32),
+(33, 9,2, 32),
+(34, 8,3, 32),
+(35, 8,1, 39),
+(36, 5,3, 39),
+(37, 7,1, 42),
+(38, 6,2, 42),
+(39, 10,3, 42);
+
+UPDATE books SET
+    score_1 = (SELECT COUNT(*) FROM rating r WHERE r.book = books.id AND r.score = 1),
+    score_2 = (SELECT COUNT(*) FROM rating r WHERE r.book = books.id AND r.score = 2),
+    score_3 = (SELECT COUNT(*) FROM rating r WHERE r.book = books.id AND r.score = 3),
+    score_4 = (SELECT COUNT(*) FROM rating r WHERE r.book = books.id AND r.score = 4),
+    score_5 = (SELECT COUNT(*) FROM rating r WHERE r.book = books.id AND r.score = 5),
+    score_6 = (SELECT COUNT(*) FROM rating r WHERE r.book = books.id AND r.score = 6),
+    score_7 = (SELECT COUNT(*) FROM rating r WHERE r.book = books.id AND r.score = 7),
+    score_8 = (SELECT COUNT(*) FROM rating r WHERE r.book = books.id AND r.score = 8),
+    score_9 = (SELECT COUNT(*) FROM rating r WHERE r.book = books.id AND r.score = 9),
+    score_10 = (SELECT COUNT(*) FROM rating r WHERE r.book = books.id AND r.score = 10);
+
+DELETE FROM id_generator;
+INSERT INTO id_generator (entity, next_val) SELECT 'books', MAX(id) + 1 FROM books;
+INSERT INTO id_generator (entity, next_val) SELECT 'users', MAX(id) + 1 FROM users;
+INSERT INTO id_generator (entity, next_val) SELECT 'shelves', MAX(id) + 1 FROM shelves;
+INSERT INTO id_generator (entity, next_val) SELECT 'rating', MAX(id) + 1 FROM rating;
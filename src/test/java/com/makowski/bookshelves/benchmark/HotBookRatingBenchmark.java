@@ -0,0 +1,84 @@
+package com.makowski.bookshelves.benchmark;
+
+import com.makowski.bookshelves.dto.ScoresDto;
+import com.makowski.bookshelves.entity.Book;
+import com.makowski.bookshelves.repository.BookRepository;
+import com.makowski.bookshelves.service.BookService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Threads(8)
+@Fork(1)
+public class HotBookRatingBenchmark {
+
+    @Param({ "atomic", "read-modify-write" })
+    public String update;
+
+    private BookService bookService;
+    private BookRepository bookRepository;
+    private JdbcTemplate jdbcTemplate;
+    private TransactionTemplate transactionTemplate;
+    private Long hotBookId;
+    private int initialScoresNumber;
+    private final AtomicInteger ratings = new AtomicInteger();
+    private final AtomicInteger failures = new AtomicInteger();
+
+    @Setup(Level.Trial)
+    public void setUp(SeededApplication application) {
+        bookService = application.bean(BookService.class);
+        bookRepository = application.bean(BookRepository.class);
+        jdbcTemplate = application.bean(JdbcTemplate.class);
+        transactionTemplate = application.bean(TransactionTemplate.class);
+        hotBookId = application.firstBookId;
+        initialScoresNumber = bookRepository.findScoresById(hotBookId).getScoresNumber();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        int lostUpdates = initialScoresNumber + ratings.get() - bookRepository.findScoresById(hotBookId).getScoresNumber();
+        System.out.println(update + ": " + lostUpdates + " of " + ratings.get() + " ratings lost, " + failures.get() + " failed");
+    }
+
+    @State(Scope.Thread)
+    public static class Rater {
+
+        private Book book;
+
+        @Setup(Level.Trial)
+        public void setUp(HotBookRatingBenchmark benchmark) {
+            book = benchmark.bookService.getBook(benchmark.hotBookId);
+        }
+    }
+
+    @Benchmark
+    public void rate(Rater rater) {
+        int score = 1 + ThreadLocalRandom.current().nextInt(10);
+        try {
+            if ("atomic".equals(update)) bookService.changeScores(rater.book, 0, score);
+                else readModifyWrite(score);
+            ratings.incrementAndGet();
+        } catch (RuntimeException e) {
+            failures.incrementAndGet();
+        }
+    }
+
+    private void readModifyWrite(int score) {
+        transactionTemplate.executeWithoutResult(status -> {
+            ScoresDto scores = bookRepository.findScoresById(hotBookId);
+            int number = scores.getScoresNumber() + 1;
+            int sum = scores.getScoresSum() + score;
+            jdbcTemplate.update("update books set scores_number = ?, scores_sum = ?, rating = ? where id = ?",
+                number, sum, (float) Math.round((float) sum / number * 10) / 10, hotBookId);
+        });
+    }
+}
@@ -0,0 +1,91 @@
+package com.makowski.bookshelves.benchmark;
+
+import com.auth0.jwt.JWT;
+import com.auth0.jwt.algorithms.Algorithm;
+import com.makowski.bookshelves.security.SecurityConstants;
+import com.makowski.bookshelves.security.VerifiedTokenCache;
+import com.makowski.bookshelves.security.filter.JWTAuthorizationFilter;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JWTAuthorizationFilterBenchmark {
+
+    private final FilterChain chain = (request, response) -> { };
+    private final MockHttpServletResponse response = new MockHttpServletResponse();
+
+    private MockHttpServletRequest request;
+    private LegacyJWTAuthorizationFilter legacyFilter;
+    private JWTAuthorizationFilter sharedVerifierFilter;
+    private JWTAuthorizationFilter cachedFilter;
+
+    @Setup
+    public void setUp() {
+        String token = JWT.create()
+            .withSubject("Jimmy")
+            .withClaim(SecurityConstants.USER_ID_CLAIM, 1L)
+            .withExpiresAt(new Date(System.currentTimeMillis() + SecurityConstants.TOKEN_EXPIRATION))
+            .sign(Algorithm.HMAC512(SecurityConstants.SECRET_KEY));
+        request = new MockHttpServletRequest("GET", "/book/1");
+        request.addHeader(SecurityConstants.AUTHORIZATION, SecurityConstants.BEARER + token);
+        legacyFilter = new LegacyJWTAuthorizationFilter();
+        sharedVerifierFilter = new JWTAuthorizationFilter(new VerifiedTokenCache(0));
+        cachedFilter = new JWTAuthorizationFilter();
+    }
+
+    @TearDown
+    public void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Benchmark
+    public Object verifierPerRequest() throws Exception {
+        legacyFilter.doFilter(request, response, chain);
+        return SecurityContextHolder.getContext().getAuthentication();
+    }
+
+    @Benchmark
+    public Object sharedVerifier() throws Exception {
+        sharedVerifierFilter.doFilter(request, response, chain);
+        return SecurityContextHolder.getContext().getAuthentication();
+    }
+
+    @Benchmark
+    public Object verifiedTokenCache() throws Exception {
+        cachedFilter.doFilter(request, response, chain);
+        return SecurityContextHolder.getContext().getAuthentication();
+    }
+
+    static class LegacyJWTAuthorizationFilter extends OncePerRequestFilter {
+
+        @Override
+        protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+                throws ServletException, IOException {
+            String token = request.getHeader(SecurityConstants.AUTHORIZATION).replace(SecurityConstants.BEARER, "");
+            String user = JWT.require(Algorithm.HMAC512(SecurityConstants.SECRET_KEY))
+                    .build()
+                    .verify(token)
+                    .getSubject();
+            SecurityContextHolder.getContext().setAuthentication(new UsernamePasswordAuthenticationToken(user, null, Arrays.asList()));
+            filterChain.doFilter(request, response);
+        }
+    }
+}
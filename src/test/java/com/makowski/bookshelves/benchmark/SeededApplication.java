@@ -0,0 +1,129 @@
+package com.makowski.bookshelves.benchmark;
+
+import com.makowski.bookshelves.BookshelvesApplication;
+import com.makowski.bookshelves.entity.IdGenerators;
+import com.makowski.bookshelves.repository.IdAllocator;
+import com.makowski.bookshelves.service.BookService;
+import com.makowski.bookshelves.service.UserService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.SpringApplication;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+@State(Scope.Benchmark)
+public class SeededApplication {
+
+    public static final String[] WORDS = {
+        "night", "garden", "river", "shadow", "winter", "silver", "storm", "secret", "house", "fire",
+        "ocean", "summer", "stone", "crown", "empire", "glass", "wolf", "forest", "letter", "island",
+        "mountain", "city", "dream", "heart", "road", "sister", "daughter", "king", "war", "bridge"
+    };
+    public static final String[] GENRES = {
+        "crime", "fiction", "thriller", "fantasy", "romance", "horror", "biography", "history", "poetry", "science"
+    };
+    static final String PASSWORD = "$2a$10$ZFhQWwueKvNbAqCOW6NxdO9Qv6XQy..9gEUcHZSC30Z/YuwKBC92K";
+
+    @Param("10000")
+    public int books;
+    @Param("1000")
+    public int users;
+    @Param("20")
+    public int ratingsPerUser;
+
+    ConfigurableApplicationContext context;
+    long firstBookId;
+    long firstUserId;
+
+    @Setup(Level.Trial)
+    public void start() {
+        context = new SpringApplication(BookshelvesApplication.class).run(
+            "--server.port=0",
+            "--spring.datasource.url=jdbc:h2:mem:benchmark;DB_CLOSE_DELAY=-1",
+            "--spring.h2.console.enabled=false",
+            "--logging.level.root=WARN");
+        seed(context.getBean(JdbcTemplate.class), context.getBean(IdAllocator.class), new Random(42));
+        bean(BookService.class).buildIndexes();
+        bean(UserService.class).buildUsernameIndex();
+    }
+
+    @TearDown(Level.Trial)
+    public void stop() {
+        context.close();
+    }
+
+    public int port() {
+        return context.getEnvironment().getRequiredProperty("local.server.port", Integer.class);
+    }
+
+    public long getFirstBookId() {
+        return firstBookId;
+    }
+
+    <T> T bean(Class<T> type) {
+        return context.getBean(type);
+    }
+
+    private void seed(JdbcTemplate jdbcTemplate, IdAllocator idAllocator, Random random) {
+        firstBookId = idAllocator.reserve(IdGenerators.BOOKS, books);
+        List<Object[]> bookRows = new ArrayList<>();
+        for (int i = 0; i < books; i++) {
+            String title = capitalize(word(random)) + " of the " + capitalize(word(random));
+            bookRows.add(new Object[] { firstBookId + i, title, "Author " + random.nextInt(books / 10 + 1), "Benchmark Press",
+                GENRES[random.nextInt(GENRES.length)], 100 + random.nextInt(700), 1950 + random.nextInt(75) });
+        }
+        jdbcTemplate.batchUpdate("insert into books (id, title, author, publisher, genre, pages, publication_year, rating, scores_number, scores_sum) "
+            + "values (?, ?, ?, ?, ?, ?, ?, 0, 0, 0)", bookRows);
+
+        firstUserId = idAllocator.reserve(IdGenerators.USERS, users);
+        List<Object[]> userRows = new ArrayList<>();
+        for (int i = 0; i < users; i++) {
+            userRows.add(new Object[] { firstUserId + i, "reader" + i, PASSWORD, "reader" + i + "@bookshelves.test", i % 5 == 0 });
+        }
+        jdbcTemplate.batchUpdate("insert into users (id, username, password, email, private) values (?, ?, ?, ?, ?)", userRows);
+
+        long firstShelfId = idAllocator.reserve(IdGenerators.SHELVES, users * 2);
+        List<Object[]> shelfRows = new ArrayList<>();
+        for (int i = 0; i < users; i++) {
+            shelfRows.add(new Object[] { firstShelfId + i * 2, "Want read", firstUserId + i });
+            shelfRows.add(new Object[] { firstShelfId + i * 2 + 1, "Have read", firstUserId + i });
+        }
+        jdbcTemplate.batchUpdate("insert into shelves (id, name, permanent, owner_id) values (?, ?, true, ?)", shelfRows);
+
+        long ratingId = idAllocator.reserve(IdGenerators.RATINGS, users * Math.min(ratingsPerUser, books));
+        List<Object[]> ratingRows = new ArrayList<>();
+        List<Object[]> shelfBookRows = new ArrayList<>();
+        for (int i = 0; i < users; i++) {
+            long userId = firstUserId + i;
+            Set<Long> rated = new HashSet<>();
+            while (rated.size() < Math.min(ratingsPerUser, books)) rated.add(firstBookId + random.nextInt(books));
+            for (Long bookId : rated) {
+                ratingRows.add(new Object[] { ratingId++, 1 + random.nextInt(10), LocalDate.now().minusDays(random.nextInt(1000)), userId, bookId });
+                shelfBookRows.add(new Object[] { firstShelfId + i * 2 + 1, bookId });
+            }
+        }
+        jdbcTemplate.batchUpdate("insert into rating (id, score, review, date, ownerr, book) values (?, ?, '', ?, ?, ?)", ratingRows);
+        jdbcTemplate.batchUpdate("insert into books_on_shelves (shelf_id, book_id) values (?, ?)", shelfBookRows);
+
+        jdbcTemplate.update("update books set "
+            + "scores_number = (select count(*) from rating r where r.book = books.id and r.score > 0), "
+            + "scores_sum = (select coalesce(sum(r.score), 0) from rating r where r.book = books.id) "
+            + "where id >= ?", firstBookId);
+        jdbcTemplate.update("update books set rating = case when scores_number = 0 then 0 "
+            + "else round(scores_sum * 1.0 / scores_number, 1) end where id >= ?", firstBookId);
+    }
+
+    private static String word(Random random) {
+        return WORDS[random.nextInt(WORDS.length)];
+    }
+
+    private static String capitalize(String word) {
+        return Character.toUpperCase(word.charAt(0)) + word.substring(1);
+    }
+}
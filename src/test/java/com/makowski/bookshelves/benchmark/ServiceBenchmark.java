@@ -0,0 +1,113 @@
+package com.makowski.bookshelves.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.makowski.bookshelves.entity.Book;
+import com.makowski.bookshelves.entity.Rating;
+import com.makowski.bookshelves.entity.Shelf;
+import com.makowski.bookshelves.service.BookService;
+import com.makowski.bookshelves.service.RatingService;
+import com.makowski.bookshelves.service.ShelfService;
+import com.makowski.bookshelves.service.UserService;
+import org.hibernate.Hibernate;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ServiceBenchmark {
+
+    private BookService bookService;
+    private RatingService ratingService;
+    private ShelfService shelfService;
+    private UserService userService;
+    private TransactionTemplate transactionTemplate;
+    private ObjectMapper objectMapper;
+
+    private Book ratedBook;
+    private Long emptyShelfId;
+    private Long shelvedBookId;
+    private Shelf fullShelf;
+    private Rating rating;
+    private int invocation;
+
+    @Setup(Level.Trial)
+    public void setUp(SeededApplication application) {
+        bookService = application.bean(BookService.class);
+        ratingService = application.bean(RatingService.class);
+        shelfService = application.bean(ShelfService.class);
+        userService = application.bean(UserService.class);
+        transactionTemplate = application.bean(TransactionTemplate.class);
+        objectMapper = application.bean(ObjectMapper.class);
+        JdbcTemplate jdbcTemplate = application.bean(JdbcTemplate.class);
+
+        long userId = application.firstUserId + 1;
+        UsernamePasswordAuthenticationToken authentication = new UsernamePasswordAuthenticationToken("reader1", null, List.of());
+        authentication.setDetails(userId);
+        SecurityContextHolder.getContext().setAuthentication(authentication);
+
+        ratedBook = bookService.getBook(application.firstBookId);
+        emptyShelfId = jdbcTemplate.queryForObject("select id from shelves where owner_id = ? and name = 'Want read'", Long.class, userId);
+        Long fullShelfId = jdbcTemplate.queryForObject("select id from shelves where owner_id = ? and name = 'Have read'", Long.class, userId);
+        shelvedBookId = application.firstBookId + application.books - 1;
+        fullShelf = transactionTemplate.execute(status -> {
+            Shelf shelf = shelfService.getShelf(fullShelfId);
+            Hibernate.initialize(shelf.getBooks());
+            return shelf;
+        });
+        Long ratingId = jdbcTemplate.queryForObject("select min(id) from rating where ownerr = ?", Long.class, userId);
+        rating = ratingService.getRating(ratingId);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Benchmark
+    public Object findBooks() {
+        String phrase = SeededApplication.WORDS[invocation++ % SeededApplication.WORDS.length];
+        return bookService.findBooks(phrase, null, 20);
+    }
+
+    @Benchmark
+    public void changeRating() {
+        int score = 1 + invocation++ % 10;
+        transactionTemplate.executeWithoutResult(status -> {
+            ratingService.changeRating(ratedBook, 0, score);
+            ratingService.changeRating(ratedBook, score, 0);
+        });
+    }
+
+    @Benchmark
+    public Object addToShelf() {
+        return transactionTemplate.execute(status -> {
+            shelfService.addToShelf(shelvedBookId, emptyShelfId);
+            return shelfService.deleteBookFromShelf(shelvedBookId, emptyShelfId);
+        });
+    }
+
+    @Benchmark
+    public Object findUser() {
+        return userService.findUser("reader" + invocation++ % 100, null, 20);
+    }
+
+    @Benchmark
+    public String serializeShelf() throws Exception {
+        return objectMapper.writeValueAsString(fullShelf);
+    }
+
+    @Benchmark
+    public String serializeRating() throws Exception {
+        return objectMapper.writeValueAsString(rating);
+    }
+}
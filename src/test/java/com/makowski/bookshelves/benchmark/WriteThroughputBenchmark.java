@@ -0,0 +1,93 @@
+package com.makowski.bookshelves.benchmark;
+
+import com.makowski.bookshelves.BookshelvesApplication;
+import com.makowski.bookshelves.entity.Book;
+import com.makowski.bookshelves.entity.User;
+import com.makowski.bookshelves.repository.BookRepository;
+import com.makowski.bookshelves.repository.UserRepository;
+import com.makowski.bookshelves.service.ShelfService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.SpringApplication;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class WriteThroughputBenchmark {
+
+    private static final int BOOKS_PER_TRANSACTION = 500;
+    private static final int ROWS_PER_USER = 3;
+
+    @Param({ "default", "write-throughput" })
+    public String profile;
+
+    private ConfigurableApplicationContext context;
+    private BookRepository bookRepository;
+    private UserRepository userRepository;
+    private ShelfService shelfService;
+    private TransactionTemplate transactionTemplate;
+    private int invocation;
+
+    @Setup(Level.Trial)
+    public void start() {
+        String profiles = "default".equals(profile) ? "dev-h2" : "dev-h2," + profile;
+        context = new SpringApplication(BookshelvesApplication.class).run(
+            "--server.port=0",
+            "--spring.profiles.active=" + profiles,
+            "--spring.datasource.url=jdbc:h2:mem:write-" + profile + ";DB_CLOSE_DELAY=-1",
+            "--spring.h2.console.enabled=false",
+            "--logging.level.root=WARN");
+        bookRepository = context.getBean(BookRepository.class);
+        userRepository = context.getBean(UserRepository.class);
+        shelfService = context.getBean(ShelfService.class);
+        transactionTemplate = context.getBean(TransactionTemplate.class);
+    }
+
+    @TearDown(Level.Trial)
+    public void stop() {
+        context.close();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BOOKS_PER_TRANSACTION)
+    public void insertBooks() {
+        transactionTemplate.executeWithoutResult(status -> {
+            List<Book> books = new ArrayList<>();
+            for (int i = 0; i < BOOKS_PER_TRANSACTION; i++) {
+                Book book = new Book();
+                book.setTitle(SeededApplication.WORDS[i % SeededApplication.WORDS.length] + " " + invocation);
+                book.setAuthor("Author " + i);
+                book.setPublisher("Benchmark Press");
+                book.setGenre(SeededApplication.GENRES[i % SeededApplication.GENRES.length]);
+                book.setPages(100 + i);
+                book.setYear(2000 + i % 25);
+                books.add(book);
+            }
+            bookRepository.saveAll(books);
+        });
+        invocation++;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ROWS_PER_USER)
+    public void registerUser() {
+        int id = invocation++;
+        transactionTemplate.executeWithoutResult(status -> {
+            User user = new User();
+            user.setUsername("writer" + id);
+            user.setPassword(SeededApplication.PASSWORD);
+            user.setEmail("writer" + id + "@bookshelves.test");
+            user = userRepository.save(user);
+            shelfService.createShelf("Want read", true, user);
+            shelfService.createShelf("Have read", true, user);
+        });
+    }
+}
@@ -0,0 +1,210 @@
+package com.makowski.bookshelves.controller;
+
+import com.auth0.jwt.JWT;
+import com.auth0.jwt.algorithms.Algorithm;
+import com.makowski.bookshelves.entity.IdGenerators;
+import com.makowski.bookshelves.metrics.RequestStatistics;
+import com.makowski.bookshelves.repository.IdAllocator;
+import com.makowski.bookshelves.security.SecurityConstants;
+import com.makowski.bookshelves.service.BookService;
+import com.makowski.bookshelves.testutils.QueryCounter;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.ResultMatcher;
+
+import java.util.Date;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+class QueryBudgetTest {
+
+    private static final long USER_ID = 1L;
+
+    @Autowired
+    MockMvc mockMvc;
+    @Autowired
+    RequestStatistics requestStatistics;
+    @Autowired
+    BookService bookService;
+    @Autowired
+    JdbcTemplate jdbcTemplate;
+    @Autowired
+    IdAllocator idAllocator;
+
+    QueryCounter queryCounter;
+    String token;
+
+    @BeforeEach
+    void setUp() {
+        queryCounter = new QueryCounter(requestStatistics);
+        token = SecurityConstants.BEARER + JWT.create()
+            .withSubject("John")
+            .withClaim(SecurityConstants.USER_ID_CLAIM, USER_ID)
+            .withExpiresAt(new Date(System.currentTimeMillis() + SecurityConstants.TOKEN_EXPIRATION))
+            .sign(Algorithm.HMAC512(SecurityConstants.SECRET_KEY));
+    }
+
+    @AfterEach
+    void tearDown() {
+        jdbcTemplate.update("delete from books_on_shelves where shelf_id in (select id from shelves where name like 'budget shelf%')");
+        jdbcTemplate.update("delete from shelves where name like 'budget shelf%'");
+    }
+
+    @Test
+    void getBook_StaysWithinBudget() throws Exception {
+        queryCounter.assertStatementsAtMost(1, () -> perform("/book/1"));
+    }
+
+    @Test
+    void getBook_IssuesNoStatements_WhenBookIsInSecondLevelCache() throws Exception {
+        perform("/book/2");
+        queryCounter.assertStatementsAtMost(0, () -> perform("/book/2"));
+    }
+
+    @Test
+    void getBook_StaysInSecondLevelCache_WhenBookIsAddedToShelf() throws Exception {
+        long shelfId = insertShelf("budget shelf cache");
+        perform("/book/4");
+        mockMvc.perform(put("/book/" + shelfId + "/4").header(SecurityConstants.AUTHORIZATION, token))
+            .andExpect(status().isOk());
+
+        queryCounter.assertStatementsAtMost(0, () -> perform("/book/4"));
+    }
+
+    @Test
+    void getBooksRatings_StaysWithinBudget() throws Exception {
+        queryCounter.assertStatementsAtMost(2, () -> perform("/book/10/ratings"));
+    }
+
+    @Test
+    void getUsersRatings_StaysWithinBudget() throws Exception {
+        queryCounter.assertStatementsAtMost(2, () -> perform("/user/3/ratings"));
+    }
+
+    @Test
+    void getShelf_StaysWithinBudget() throws Exception {
+        queryCounter.assertStatementsAtMost(3, () -> perform("/shelf/1"));
+    }
+
+    @Test
+    void getShelf_AnswersNotModifiedWithOneStatement_UntilShelfChanges() throws Exception {
+        long shelfId = insertShelf("budget shelf etag");
+        String eTag = eTag("/shelf/" + shelfId);
+
+        queryCounter.assertStatementsAtMost(1, () -> performIfNoneMatch("/shelf/" + shelfId, eTag, status().isNotModified()));
+        updateShelfBooks(shelfId, "{\"add\": [1]}");
+        performIfNoneMatch("/shelf/" + shelfId, eTag, status().isOk());
+    }
+
+    @Test
+    void getBook_AnswersNotModified_UntilBookIsRated() throws Exception {
+        String eTag = eTag("/book/3");
+        Long version = jdbcTemplate.queryForObject("select version from books where id = 3", Long.class);
+
+        queryCounter.assertStatementsAtMost(0, () -> performIfNoneMatch("/book/3", eTag, status().isNotModified()));
+        bookService.changeScores(bookService.getBook(3L), 0, 8);
+        try {
+            performIfNoneMatch("/book/3", eTag, status().isOk());
+            assertEquals(version, jdbcTemplate.queryForObject("select version from books where id = 3", Long.class));
+        } finally {
+            bookService.changeScores(bookService.getBook(3L), 8, 0);
+        }
+    }
+
+    @Test
+    void findBooks_StaysWithinBudget() throws Exception {
+        queryCounter.assertStatementsAtMost(1, () -> perform("/book/search/the"));
+        queryCounter.assertStatementsAtMost(1, () -> bookService.findBooks("the", null, null));
+    }
+
+    @Test
+    void exportBooks_RunsWithExportTimeout() throws Exception {
+        MvcResult result = mockMvc.perform(get("/book/export").header(SecurityConstants.AUTHORIZATION, token))
+            .andExpect(request().asyncStarted())
+            .andReturn();
+
+        assertEquals(600000, result.getRequest().getAsyncContext().getTimeout());
+    }
+
+    @Test
+    void getTopFromGenre_StaysWithinBudget() throws Exception {
+        queryCounter.assertStatementsAtMost(1, () -> perform("/book/top/crime"));
+    }
+
+    @Test
+    void getLibrary_RunsConstantNumberOfStatements_WhateverTheShelfCount() throws Exception {
+        perform("/user/" + USER_ID + "/library");
+        int defaultLibrary = queryCounter.statements(() -> perform("/user/" + USER_ID + "/library"));
+
+        for (int i = 0; i < 5; i++) {
+            long shelfId = insertShelf("budget shelf " + i);
+            jdbcTemplate.update("insert into books_on_shelves (shelf_id, book_id) values (?, ?)", shelfId, i + 1);
+        }
+        int largerLibrary = queryCounter.statements(() -> perform("/user/" + USER_ID + "/library"));
+
+        assertEquals(defaultLibrary, largerLibrary);
+        assertTrue(largerLibrary <= 2);
+    }
+
+    @Test
+    void updateShelfBooks_RunsConstantNumberOfStatements_WhateverTheBookCount() throws Exception {
+        long shelfId = insertShelf("budget shelf bulk");
+        jdbcTemplate.update("insert into books_on_shelves (shelf_id, book_id) values (?, ?)", shelfId, 10);
+
+        updateShelfBooks(shelfId, "{\"add\": [1], \"remove\": [10]}");
+        int singleBook = queryCounter.statements(() -> updateShelfBooks(shelfId, "{\"add\": [2], \"remove\": [1]}"));
+        int manyBooks = queryCounter.statements(() -> updateShelfBooks(shelfId, "{\"add\": [3, 4, 5, 6, 7, 8, 9], \"remove\": [2]}"));
+
+        assertEquals(singleBook, manyBooks);
+        assertTrue(manyBooks <= 4);
+        assertEquals(7, jdbcTemplate.queryForObject("select count(*) from books_on_shelves where shelf_id = ?", Integer.class, shelfId));
+    }
+
+    private long insertShelf(String name) {
+        long shelfId = idAllocator.reserve(IdGenerators.SHELVES, 1);
+        jdbcTemplate.update("insert into shelves (id, name, permanent, owner_id) values (?, ?, false, ?)", shelfId, name, USER_ID);
+        return shelfId;
+    }
+
+    private void updateShelfBooks(long shelfId, String body) throws Exception {
+        mockMvc.perform(patch("/shelf/" + shelfId + "/books")
+                .header(SecurityConstants.AUTHORIZATION, token)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(body))
+            .andExpect(status().isOk());
+    }
+
+    private String eTag(String path) throws Exception {
+        String eTag = mockMvc.perform(get(path).header(SecurityConstants.AUTHORIZATION, token))
+            .andExpect(status().isOk())
+            .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        assertNotNull(eTag);
+        return eTag;
+    }
+
+    private void performIfNoneMatch(String path, String eTag, ResultMatcher expected) throws Exception {
+        mockMvc.perform(get(path).header(SecurityConstants.AUTHORIZATION, token).header(HttpHeaders.IF_NONE_MATCH, eTag))
+            .andExpect(expected);
+    }
+
+    private void perform(String path) throws Exception {
+        mockMvc.perform(get(path).header(SecurityConstants.AUTHORIZATION, token))
+            .andExpect(status().isOk());
+    }
+}
@@ -0,0 +1,46 @@
+package com.makowski.bookshelves.generator;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ZipfDistributionTest {
+
+    @Test
+    void sample_StaysWithinRange() {
+        ZipfDistribution distribution = new ZipfDistribution(50, 1.2);
+        Random random = new Random(1);
+
+        for (int i = 0; i < 10000; i++) {
+            int sample = distribution.sample(random);
+            assertTrue(sample >= 1 && sample <= 50);
+        }
+    }
+
+    @Test
+    void sample_FavoursLowRanks() {
+        ZipfDistribution distribution = new ZipfDistribution(1000, 1.0);
+        Random random = new Random(1);
+        int[] counts = new int[1001];
+
+        for (int i = 0; i < 100000; i++) counts[distribution.sample(random)]++;
+
+        assertTrue(counts[1] > counts[2]);
+        assertTrue(counts[2] > counts[10]);
+        assertTrue(counts[1] > 100000 / 10);
+    }
+
+    @Test
+    void sample_ReturnsOne_WhenThereIsOneElement() {
+        ZipfDistribution distribution = new ZipfDistribution(1, 1.0);
+
+        assertEquals(1, distribution.sample(new Random(1)));
+    }
+
+    @Test
+    void constructor_ThrowsException_WhenExponentIsNotPositive() {
+        assertThrows(IllegalArgumentException.class, () -> new ZipfDistribution(10, 0));
+    }
+}
@@ -0,0 +1,76 @@
+package com.makowski.bookshelves.index;
+
+import com.makowski.bookshelves.entity.Book;
+import com.makowski.bookshelves.testutils.TestDataFactory;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BookSearchIndexTest {
+
+    BookSearchIndex bookSearchIndex;
+
+    @BeforeEach
+    void setUp() {
+        bookSearchIndex = new BookSearchIndex();
+        bookSearchIndex.rebuild(TestDataFactory.createMoreTestBooks());
+    }
+
+    @Test
+    void search_ReturnsBooksWithMatchingTokenPrefix_WhenPhraseIsPartOfToken() {
+        assertEquals(List.of(10L, 11L, 12L), search("TITLE1"));
+    }
+
+    @Test
+    void search_ReturnsIntersectionOfTokens_WhenPhraseHasManyWords() {
+        assertEquals(List.of(3L), search("author2 title3"));
+    }
+
+    @Test
+    void search_IgnoresCharacterSize_WhenPhraseIsLowerCase() {
+        assertEquals(List.of(6L), search("Author3"));
+    }
+
+    @Test
+    void search_ReturnsEmptySet_WhenNothingMatches() {
+        assertTrue(search("Star Wars").isEmpty());
+    }
+
+    @Test
+    void search_ReturnsMatchesAfterCursorUpToLimit_WhenPageIsRequested() {
+        assertEquals(List.of(11L), bookSearchIndex.search("title1", 10L, 1));
+        assertEquals(List.of(11L, 12L), bookSearchIndex.search("title1", 10L, 5));
+        assertTrue(bookSearchIndex.search("title1", 12L, 5).isEmpty());
+    }
+
+    @Test
+    void index_ReplacesOldTokens_WhenBookIsIndexedAgain() {
+        Book book = TestDataFactory.createMoreTestBooks().get(0);
+        book.setTitle("renamed");
+
+        bookSearchIndex.index(book);
+
+        assertTrue(search("title2").isEmpty());
+        assertEquals(List.of(2L), search("renamed"));
+    }
+
+    @Test
+    void remove_RemovesBookFromResults_WhenBookIsDeleted() {
+        bookSearchIndex.remove(6L);
+
+        assertTrue(search("author3").isEmpty());
+        assertEquals(10, bookSearchIndex.size());
+    }
+
+    @Test
+    void tokenize_SplitsOnNonAlphanumericCharacters() {
+        assertEquals(List.of("A", "GOOD", "GIRL", "S", "GUIDE"), List.copyOf(BookSearchIndex.tokenize("A Good Girl's guide")));
+    }
+
+    private List<Long> search(String phrase) {
+        return bookSearchIndex.search(phrase, 0, Integer.MAX_VALUE);
+    }
+}
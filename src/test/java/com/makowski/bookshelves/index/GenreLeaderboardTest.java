@@ -0,0 +1,124 @@
+package com.makowski.bookshelves.index;
+
+import com.makowski.bookshelves.dto.BookDto;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class GenreLeaderboardTest {
+
+    GenreLeaderboard genreLeaderboard;
+    List<String> loadedGenres;
+    Function<String, List<BookDto>> loader;
+
+    @BeforeEach
+    void setUp() {
+        genreLeaderboard = new GenreLeaderboard(3);
+        genreLeaderboard.rebuild(Map.of(
+            "fantasy", List.of(book(1L, 9.0F), book(2L, 8.0F), book(3L, 7.0F), book(4L, 6.0F)),
+            "horror", List.of(book(5L, 5.0F))));
+        loadedGenres = new ArrayList<>();
+        loader = genre -> {
+            loadedGenres.add(genre);
+            return List.of(book(2L, 8.0F), book(3L, 7.0F), book(4L, 6.0F));
+        };
+    }
+
+    @Test
+    void top_ReturnsBestRatedBooksInOrder_WhenGenreIsBuilt() {
+        assertEquals(List.of(1L, 2L, 3L), ids(genreLeaderboard.top("fantasy", loader)));
+        assertTrue(loadedGenres.isEmpty());
+    }
+
+    @Test
+    void update_MovesBookUp_WhenRatingGrows() {
+        genreLeaderboard.update("fantasy", book(4L, 9.5F));
+
+        assertEquals(List.of(4L, 1L, 2L), ids(genreLeaderboard.top("fantasy", loader)));
+        assertTrue(loadedGenres.isEmpty());
+    }
+
+    @Test
+    void update_ReloadsGenre_WhenTrackedBookFallsBelowRanking() {
+        genreLeaderboard.update("fantasy", book(1L, 1.0F));
+
+        assertEquals(List.of(2L, 3L, 4L), ids(genreLeaderboard.top("fantasy", loader)));
+        assertEquals(List.of("fantasy"), loadedGenres);
+    }
+
+    @Test
+    void update_MovesBookBetweenGenres_WhenGenreChanges() {
+        genreLeaderboard.update("horror", book(1L, 9.0F));
+
+        assertEquals(List.of(1L, 5L), ids(genreLeaderboard.top("horror", loader)));
+        assertEquals(List.of(2L, 3L, 4L), ids(genreLeaderboard.top("fantasy", loader)));
+        assertEquals(List.of("fantasy"), loadedGenres);
+    }
+
+    @Test
+    void remove_KeepsRanking_WhenGenreHasFewerBooksThanSize() {
+        genreLeaderboard.remove(5L);
+
+        assertTrue(genreLeaderboard.top("horror", loader).isEmpty());
+        assertTrue(loadedGenres.isEmpty());
+    }
+
+    @Test
+    void top_DoesNotCacheGenre_WhenLoaderFindsNothing() {
+        genreLeaderboard.top("poetry", genre -> List.of());
+        genreLeaderboard.update("poetry", book(6L, 5.0F));
+
+        assertEquals(List.of(2L, 3L, 4L), ids(genreLeaderboard.top("poetry", loader)));
+    }
+
+    @Test
+    void top_LetsOtherGenresUpdate_WhileGenreIsLoading() {
+        List<BookDto> result = genreLeaderboard.top("poetry", genre -> {
+            assertDoesNotThrow(() -> CompletableFuture.runAsync(() -> genreLeaderboard.update("fantasy", book(4L, 9.5F)))
+                .get(5, TimeUnit.SECONDS));
+            return loader.apply(genre);
+        });
+
+        assertEquals(List.of(2L, 3L, 4L), ids(result));
+        assertEquals(List.of(4L, 1L, 2L), ids(genreLeaderboard.top("fantasy", loader)));
+    }
+
+    @Test
+    void top_DoesNotCacheLoadedRanking_WhenGenreChangesDuringLoad() {
+        List<BookDto> result = genreLeaderboard.top("poetry", genre -> {
+            genreLeaderboard.update("poetry", book(6L, 9.0F));
+            return loader.apply(genre);
+        });
+        genreLeaderboard.top("poetry", loader);
+
+        assertEquals(List.of(2L, 3L, 4L), ids(result));
+        assertEquals(List.of("poetry", "poetry"), loadedGenres);
+    }
+
+    @Test
+    void top_DoesNotCacheLoadedRanking_WhenBookIsRemovedDuringLoad() {
+        genreLeaderboard.top("poetry", genre -> {
+            genreLeaderboard.remove(9L);
+            return loader.apply(genre);
+        });
+        genreLeaderboard.top("poetry", loader);
+
+        assertEquals(List.of("poetry", "poetry"), loadedGenres);
+    }
+
+    private static BookDto book(Long id, float score) {
+        return new BookDto(id, "title" + id, "author", 2000, score, 1, score);
+    }
+
+    private static List<Long> ids(List<BookDto> books) {
+        return books.stream().map(BookDto::getId).toList();
+    }
+}
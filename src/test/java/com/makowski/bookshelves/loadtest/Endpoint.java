@@ -0,0 +1,33 @@
+package com.makowski.bookshelves.loadtest;
+
+enum Endpoint {
+
+    REGISTER("POST /user/register", 0),
+    AUTHENTICATE("POST /authenticate", 2),
+    GET_LIBRARY("GET /user/{userId}/library", 5),
+    FIND_USER("GET /user/search/{phrase}", 4),
+    GET_BOOK("GET /book/{id}", 25),
+    SEARCH_BOOKS("GET /book/search/{phrase}", 25),
+    AUTHORS_BOOKS("GET /book/author/{author}", 5),
+    BOOK_RATINGS("GET /book/{id}/ratings", 10),
+    TOP_FROM_GENRE("GET /book/top/{genre}", 6),
+    ADD_TO_SHELF("PUT /book/{shelfId}/{bookId}", 8),
+    CREATE_RATING("POST /rating/{bookId}", 7),
+    UPDATE_RATING("PUT /rating/{ratingId}", 3);
+
+    private final String label;
+    private final int defaultWeight;
+
+    Endpoint(String label, int defaultWeight) {
+        this.label = label;
+        this.defaultWeight = defaultWeight;
+    }
+
+    String getLabel() {
+        return label;
+    }
+
+    int getDefaultWeight() {
+        return defaultWeight;
+    }
+}
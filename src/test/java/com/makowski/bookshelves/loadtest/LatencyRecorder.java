@@ -0,0 +1,77 @@
+package com.makowski.bookshelves.loadtest;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+class LatencyRecorder {
+
+    private final Map<String, Samples> samples = new ConcurrentSkipListMap<>();
+
+    void record(Endpoint endpoint, long nanos, boolean success) {
+        samples.computeIfAbsent(endpoint.getLabel(), label -> new Samples()).add(nanos, success);
+    }
+
+    List<Summary> summarize(Duration elapsed) {
+        List<Summary> summaries = new ArrayList<>();
+        samples.forEach((label, endpointSamples) -> summaries.add(endpointSamples.summarize(label, elapsed)));
+        return summaries;
+    }
+
+    static void print(List<Summary> summaries, PrintStream out) {
+        out.printf("%-32s %9s %7s %9s %9s %9s %9s %9s%n", "endpoint", "requests", "errors", "req/s", "p50 ms", "p99 ms", "p999 ms", "max ms");
+        for (Summary summary : summaries) {
+            out.printf("%-32s %9d %7d %9.1f %9.2f %9.2f %9.2f %9.2f%n", summary.endpoint(), summary.requests(), summary.errors(),
+                summary.throughput(), summary.p50(), summary.p99(), summary.p999(), summary.max());
+        }
+    }
+
+    static void write(List<Summary> summaries, Path report) throws IOException {
+        if (report.getParent() != null) Files.createDirectories(report.getParent());
+        List<String> lines = new ArrayList<>();
+        lines.add("endpoint,requests,errors,throughput,p50_ms,p99_ms,p999_ms,max_ms");
+        for (Summary summary : summaries) {
+            lines.add(String.format(Locale.ROOT, "\"%s\",%d,%d,%.1f,%.3f,%.3f,%.3f,%.3f", summary.endpoint(), summary.requests(),
+                summary.errors(), summary.throughput(), summary.p50(), summary.p99(), summary.p999(), summary.max()));
+        }
+        Files.write(report, lines);
+    }
+
+    record Summary(String endpoint, int requests, int errors, double throughput, double p50, double p99, double p999, double max) {
+    }
+
+    private static class Samples {
+
+        private long[] nanos = new long[1024];
+        private int size;
+        private int errors;
+
+        private synchronized void add(long value, boolean success) {
+            if (size == nanos.length) nanos = Arrays.copyOf(nanos, size * 2);
+            nanos[size++] = value;
+            if (!success) errors++;
+        }
+
+        private synchronized Summary summarize(String label, Duration elapsed) {
+            long[] sorted = Arrays.copyOf(nanos, size);
+            Arrays.sort(sorted);
+            double seconds = elapsed.toNanos() / 1_000_000_000.0;
+            return new Summary(label, size, errors, size / seconds,
+                percentile(sorted, 0.50), percentile(sorted, 0.99), percentile(sorted, 0.999), percentile(sorted, 1.0));
+        }
+
+        private static double percentile(long[] sorted, double percentile) {
+            if (sorted.length == 0) return 0;
+            int index = (int) Math.ceil(percentile * sorted.length) - 1;
+            return sorted[Math.max(0, index)] / 1_000_000.0;
+        }
+    }
+}
@@ -0,0 +1,61 @@
+package com.makowski.bookshelves.loadtest;
+
+import java.net.http.HttpClient;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import com.makowski.bookshelves.benchmark.SeededApplication;
+
+public class LoadTest {
+
+    public static void main(String[] args) throws Exception {
+        LoadTestConfig config = LoadTestConfig.fromSystemProperties();
+        SeededApplication application = new SeededApplication();
+        application.books = config.books();
+        application.users = config.users();
+        application.ratingsPerUser = config.ratingsPerUser();
+        application.start();
+        try {
+            run(config, "http://localhost:" + application.port(), application.getFirstBookId());
+        } finally {
+            application.stop();
+        }
+    }
+
+    static void run(LoadTestConfig config, String baseUrl, long firstBookId) throws Exception {
+        System.out.printf("%d virtual users, %d s warmup, %d s measurement, mix %s%n", config.virtualUsers(),
+            config.warmup().toSeconds(), config.duration().toSeconds(), config.mix());
+        HttpClient client = HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_1_1)
+            .connectTimeout(Duration.ofSeconds(10))
+            .build();
+        LatencyRecorder recorder = new LatencyRecorder();
+        long recordingStarts = System.nanoTime() + config.warmup().toNanos();
+        long deadline = recordingStarts + config.duration().toNanos();
+
+        ExecutorService executor = Executors.newFixedThreadPool(config.virtualUsers());
+        List<Future<?>> virtualUsers = new ArrayList<>();
+        for (int i = 0; i < config.virtualUsers(); i++)
+            virtualUsers.add(executor.submit(new VirtualUser(i, config, client, baseUrl, firstBookId, recorder, recordingStarts, deadline)));
+        int failedUsers = 0;
+        for (Future<?> virtualUser : virtualUsers) {
+            try {
+                virtualUser.get();
+            } catch (Exception e) {
+                failedUsers++;
+                System.err.println(e.getMessage());
+            }
+        }
+        executor.shutdown();
+
+        List<LatencyRecorder.Summary> summaries = recorder.summarize(config.duration());
+        LatencyRecorder.print(summaries, System.out);
+        LatencyRecorder.write(summaries, config.report());
+        System.out.printf("report written to %s%n", config.report().toAbsolutePath());
+        if (failedUsers > 0) throw new IllegalStateException(failedUsers + " virtual users failed");
+    }
+}
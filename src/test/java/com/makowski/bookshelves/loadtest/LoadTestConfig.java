@@ -0,0 +1,40 @@
+package com.makowski.bookshelves.loadtest;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Map;
+
+record LoadTestConfig(int virtualUsers, Duration warmup, Duration duration, long seed, Map<Endpoint, Integer> mix,
+        int books, int users, int ratingsPerUser, Path report) {
+
+    static LoadTestConfig fromSystemProperties() {
+        return new LoadTestConfig(
+            Integer.getInteger("loadtest.virtual-users", 32),
+            Duration.ofSeconds(Long.getLong("loadtest.warmup", 10)),
+            Duration.ofSeconds(Long.getLong("loadtest.duration", 60)),
+            Long.getLong("loadtest.seed", 42),
+            mix(System.getProperty("loadtest.mix", "")),
+            Integer.getInteger("loadtest.books", 10000),
+            Integer.getInteger("loadtest.users", 1000),
+            Integer.getInteger("loadtest.ratings-per-user", 20),
+            Path.of(System.getProperty("loadtest.report", "target/loadtest/report.csv")));
+    }
+
+    static Map<Endpoint, Integer> mix(String definition) {
+        Map<Endpoint, Integer> mix = new EnumMap<>(Endpoint.class);
+        if (definition.isBlank()) {
+            for (Endpoint endpoint : Endpoint.values())
+                if (endpoint.getDefaultWeight() > 0) mix.put(endpoint, endpoint.getDefaultWeight());
+            return mix;
+        }
+        for (String entry : definition.split(",")) {
+            String[] parts = entry.trim().split("=");
+            if (parts.length != 2) throw new IllegalArgumentException("mix entries must look like GET_BOOK=25, got: " + entry);
+            int weight = Integer.parseInt(parts[1].trim());
+            if (weight > 0) mix.put(Endpoint.valueOf(parts[0].trim()), weight);
+        }
+        if (mix.isEmpty()) throw new IllegalArgumentException("mix must contain at least one endpoint with positive weight");
+        return mix;
+    }
+}
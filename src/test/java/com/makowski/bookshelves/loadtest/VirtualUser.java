@@ -0,0 +1,238 @@
+package com.makowski.bookshelves.loadtest;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.makowski.bookshelves.benchmark.SeededApplication;
+import com.makowski.bookshelves.generator.ZipfDistribution;
+import com.makowski.bookshelves.security.SecurityConstants;
+
+class VirtualUser implements Runnable {
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+    private static final int MAX_ATTEMPTS = 10;
+
+    private final int index;
+    private final LoadTestConfig config;
+    private final HttpClient client;
+    private final String baseUrl;
+    private final long firstBookId;
+    private final LatencyRecorder recorder;
+    private final long recordingStarts;
+    private final long deadline;
+    private final Random random;
+    private final ZipfDistribution books;
+    private final List<Endpoint> endpoints = new ArrayList<>();
+    private final int[] cumulativeWeights;
+    private final Set<Long> shelvedBooks = new HashSet<>();
+    private final Map<Long, Long> ratings = new HashMap<>();
+    private final List<Long> ratingIds = new ArrayList<>();
+
+    private Map<String, Object> credentials;
+    private String token;
+    private long userId;
+    private long shelfId;
+
+    VirtualUser(int index, LoadTestConfig config, HttpClient client, String baseUrl, long firstBookId,
+            LatencyRecorder recorder, long recordingStarts, long deadline) {
+        this.index = index;
+        this.config = config;
+        this.client = client;
+        this.baseUrl = baseUrl;
+        this.firstBookId = firstBookId;
+        this.recorder = recorder;
+        this.recordingStarts = recordingStarts;
+        this.deadline = deadline;
+        this.random = new Random(config.seed() + index);
+        this.books = new ZipfDistribution(config.books(), 1.07);
+        this.cumulativeWeights = new int[config.mix().size()];
+        int total = 0;
+        for (Map.Entry<Endpoint, Integer> entry : config.mix().entrySet()) {
+            total += entry.getValue();
+            cumulativeWeights[endpoints.size()] = total;
+            endpoints.add(entry.getKey());
+        }
+    }
+
+    @Override
+    public void run() {
+        try {
+            signUp();
+            while (System.nanoTime() < deadline) {
+                try {
+                    execute(nextEndpoint());
+                } catch (IOException e) {
+                    continue;
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("virtual user " + index + " could not sign up", e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void signUp() throws IOException, InterruptedException {
+        token = null;
+        shelvedBooks.clear();
+        ratings.clear();
+        ratingIds.clear();
+        register();
+        authenticate();
+        loadShelf();
+    }
+
+    private Endpoint nextEndpoint() {
+        int draw = random.nextInt(cumulativeWeights[cumulativeWeights.length - 1]);
+        for (int i = 0; i < cumulativeWeights.length; i++)
+            if (draw < cumulativeWeights[i]) return endpoints.get(i);
+        throw new IllegalStateException();
+    }
+
+    private void execute(Endpoint endpoint) throws IOException, InterruptedException {
+        switch (endpoint) {
+            case REGISTER -> signUp();
+            case AUTHENTICATE -> authenticate();
+            case GET_LIBRARY -> get(endpoint, "/user/" + userId + "/library");
+            case FIND_USER -> get(endpoint, "/user/search/reader" + random.nextInt(Math.max(1, config.users() / 10)));
+            case GET_BOOK -> get(endpoint, "/book/" + popularBook());
+            case SEARCH_BOOKS -> get(endpoint, "/book/search/" + SeededApplication.WORDS[random.nextInt(SeededApplication.WORDS.length)]);
+            case AUTHORS_BOOKS -> get(endpoint, "/book/author/" + encode("Author " + random.nextInt(config.books() / 10 + 1)));
+            case BOOK_RATINGS -> get(endpoint, "/book/" + popularBook() + "/ratings");
+            case TOP_FROM_GENRE -> get(endpoint, "/book/top/" + SeededApplication.GENRES[random.nextInt(SeededApplication.GENRES.length)]);
+            case ADD_TO_SHELF -> addToShelf();
+            case CREATE_RATING -> createRating();
+            case UPDATE_RATING -> updateRating();
+        }
+    }
+
+    private void register() throws IOException, InterruptedException {
+        String username = "loadtest" + index + "-" + Long.toHexString(random.nextLong());
+        Map<String, Object> user = Map.of("username", username, "password", "password123",
+            "email", username + "@loadtest.local", "privateProfile", false);
+        HttpResponse<String> response = send(Endpoint.REGISTER, request("/user/register").POST(json(user)));
+        if (response.statusCode() != 201) throw new IOException("registration failed with status " + response.statusCode());
+        JsonNode registered = MAPPER.readTree(response.body());
+        userId = registered.get("id").asLong();
+        credentials = Map.of("username", username, "password", "password123");
+    }
+
+    private void authenticate() throws IOException, InterruptedException {
+        for (int attempt = 1; attempt <= MAX_ATTEMPTS; attempt++) {
+            HttpResponse<String> response = send(Endpoint.AUTHENTICATE, request("/authenticate").POST(json(credentials)));
+            if (response.statusCode() == 200) {
+                token = response.headers().firstValue(SecurityConstants.AUTHORIZATION)
+                    .orElseThrow(() -> new IOException("authentication response has no token"));
+                return;
+            }
+            if (response.statusCode() != 503) throw new IOException("authentication failed with status " + response.statusCode());
+            Thread.sleep(1000);
+        }
+        throw new IOException("authentication kept being rejected as overloaded");
+    }
+
+    private void loadShelf() throws IOException, InterruptedException {
+        HttpResponse<String> response = get(Endpoint.GET_LIBRARY, "/user/" + userId + "/library");
+        for (JsonNode shelf : MAPPER.readTree(response.body()))
+            if ("Want read".equals(shelf.get("name").asText())) shelfId = shelf.get("id").asLong();
+    }
+
+    private void addToShelf() throws IOException, InterruptedException {
+        Long bookId = unused(shelvedBooks);
+        if (bookId == null) {
+            get(Endpoint.GET_BOOK, "/book/" + popularBook());
+            return;
+        }
+        HttpResponse<String> response = send(Endpoint.ADD_TO_SHELF,
+            request("/book/" + shelfId + "/" + bookId).PUT(HttpRequest.BodyPublishers.noBody()));
+        if (response.statusCode() == 200) shelvedBooks.add(bookId);
+    }
+
+    private void createRating() throws IOException, InterruptedException {
+        Long bookId = unused(ratings.keySet());
+        if (bookId == null) {
+            updateRating();
+            return;
+        }
+        HttpResponse<String> response = send(Endpoint.CREATE_RATING, request("/rating/" + bookId).POST(json(rating())));
+        if (response.statusCode() == 201) {
+            long ratingId = MAPPER.readTree(response.body()).get("id").asLong();
+            ratings.put(bookId, ratingId);
+            ratingIds.add(ratingId);
+        }
+    }
+
+    private void updateRating() throws IOException, InterruptedException {
+        if (ratingIds.isEmpty()) {
+            createRating();
+            return;
+        }
+        Long ratingId = ratingIds.get(random.nextInt(ratingIds.size()));
+        send(Endpoint.UPDATE_RATING, request("/rating/" + ratingId).PUT(json(rating())));
+    }
+
+    private Map<String, Object> rating() {
+        return Map.of("score", 1 + random.nextInt(10), "review", random.nextInt(5) == 0 ? "load test review" : "");
+    }
+
+    private Long unused(Set<Long> used) {
+        for (int attempt = 0; attempt < MAX_ATTEMPTS; attempt++) {
+            long bookId = popularBook();
+            if (!used.contains(bookId)) return bookId;
+        }
+        return null;
+    }
+
+    private long popularBook() {
+        return firstBookId + books.sample(random) - 1;
+    }
+
+    private HttpResponse<String> get(Endpoint endpoint, String path) throws IOException, InterruptedException {
+        return send(endpoint, request(path).GET());
+    }
+
+    private HttpRequest.Builder request(String path) {
+        HttpRequest.Builder builder = HttpRequest.newBuilder(URI.create(baseUrl + path)).header("Content-Type", "application/json");
+        if (token != null) builder.header(SecurityConstants.AUTHORIZATION, token);
+        return builder;
+    }
+
+    private HttpResponse<String> send(Endpoint endpoint, HttpRequest.Builder request) throws IOException, InterruptedException {
+        long started = System.nanoTime();
+        HttpResponse<String> response;
+        try {
+            response = client.send(request.build(), HttpResponse.BodyHandlers.ofString());
+        } catch (IOException e) {
+            if (started >= recordingStarts) recorder.record(endpoint, System.nanoTime() - started, false);
+            throw e;
+        }
+        if (started >= recordingStarts) {
+            int status = response.statusCode();
+            recorder.record(endpoint, System.nanoTime() - started, status < 400 || status == 404);
+        }
+        return response;
+    }
+
+    private static HttpRequest.BodyPublisher json(Object body) throws IOException {
+        return HttpRequest.BodyPublishers.ofString(MAPPER.writeValueAsString(body));
+    }
+
+    private static String encode(String value) {
+        return URLEncoder.encode(value, StandardCharsets.UTF_8).replace("+", "%20");
+    }
+}
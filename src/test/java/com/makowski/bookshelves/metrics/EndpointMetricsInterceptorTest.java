@@ -0,0 +1,94 @@
+package com.makowski.bookshelves.metrics;
+
+import com.makowski.bookshelves.controller.BookController;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.method.HandlerMethod;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class EndpointMetricsInterceptorTest {
+
+    SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    RequestStatistics requestStatistics = new RequestStatistics();
+    EndpointMetricsInterceptor endpointMetricsInterceptor;
+    MockHttpServletRequest request;
+    MockHttpServletResponse response;
+
+    @BeforeEach
+    void setUp() {
+        endpointMetricsInterceptor = new EndpointMetricsInterceptor(meterRegistry, requestStatistics);
+        request = new MockHttpServletRequest();
+        response = new MockHttpServletResponse();
+    }
+
+    @Test
+    void afterCompletion_RecordsLatencyStatementsAndEntityLoads_WhenHandlerIsController() throws Exception {
+        HandlerMethod handler = new HandlerMethod(new BookController(null, null, null, null, null), "getBook", Long.class, WebRequest.class);
+
+        endpointMetricsInterceptor.preHandle(request, response, handler);
+        requestStatistics.statementPrepared();
+        requestStatistics.statementPrepared();
+        requestStatistics.entityLoaded();
+        endpointMetricsInterceptor.afterCompletion(request, response, handler, null);
+
+        assertEquals(1, meterRegistry.get(EndpointMetricsInterceptor.LATENCY).tag("method", "getBook").timer().count());
+        assertEquals(2, meterRegistry.get(EndpointMetricsInterceptor.STATEMENTS).tag("controller", "BookController").summary().totalAmount());
+        assertEquals(1, meterRegistry.get(EndpointMetricsInterceptor.ENTITY_LOADS).tag("controller", "BookController").summary().totalAmount());
+        assertEquals("BookController.getBook", endpointMetricsInterceptor.getMeters().iterator().next().endpoint());
+    }
+
+    @Test
+    void afterConcurrentHandlingStarted_EndsScope_AndAddsItsCountsToAsyncDispatch() throws Exception {
+        HandlerMethod handler = new HandlerMethod(new BookController(null, null, null, null, null), "exportBooks", boolean.class, WebRequest.class);
+
+        endpointMetricsInterceptor.preHandle(request, response, handler);
+        requestStatistics.statementPrepared();
+        endpointMetricsInterceptor.afterConcurrentHandlingStarted(request, response, handler);
+        requestStatistics.statementPrepared();
+        assertEquals(0, requestStatistics.end().getStatements());
+
+        endpointMetricsInterceptor.preHandle(request, response, handler);
+        requestStatistics.statementPrepared();
+        requestStatistics.statementPrepared();
+        endpointMetricsInterceptor.afterCompletion(request, response, handler, null);
+
+        assertEquals(1, meterRegistry.get(EndpointMetricsInterceptor.LATENCY).tag("method", "exportBooks").timer().count());
+        assertEquals(3, meterRegistry.get(EndpointMetricsInterceptor.STATEMENTS).tag("method", "exportBooks").summary().totalAmount());
+    }
+
+    @Test
+    void afterCompletion_RecordsNothing_WhenHandlerIsNotController() throws Exception {
+        HandlerMethod handler = new HandlerMethod(new Object(), "toString");
+
+        endpointMetricsInterceptor.preHandle(request, response, handler);
+        endpointMetricsInterceptor.afterCompletion(request, response, handler, null);
+
+        assertTrue(meterRegistry.find(EndpointMetricsInterceptor.LATENCY).timers().isEmpty());
+    }
+
+    @Test
+    void statementPrepared_IsIgnored_OutsideRequest() {
+        requestStatistics.statementPrepared();
+
+        assertEquals(0, requestStatistics.end().getStatements());
+    }
+
+    @Test
+    void end_KeepsCountingForOuterScope_WhenRequestIsNested() throws Exception {
+        HandlerMethod handler = new HandlerMethod(new BookController(null, null, null, null, null), "getBook", Long.class, WebRequest.class);
+
+        requestStatistics.begin();
+        requestStatistics.statementPrepared();
+        endpointMetricsInterceptor.preHandle(request, response, handler);
+        requestStatistics.statementPrepared();
+        endpointMetricsInterceptor.afterCompletion(request, response, handler, null);
+        requestStatistics.statementPrepared();
+
+        assertEquals(3, requestStatistics.end().getStatements());
+    }
+}
@@ -0,0 +1,89 @@
+package com.makowski.bookshelves.retry;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.aop.aspectj.annotation.AspectJProxyFactory;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RetryOnConflictAspectTest {
+
+    SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    RetryOnConflictAspect retryOnConflictAspect = new RetryOnConflictAspect(meterRegistry, 3, 1, 4);
+    ConflictingWriter target = new ConflictingWriter();
+    ConflictingWriter writer;
+
+    @BeforeEach
+    void setUp() {
+        AspectJProxyFactory factory = new AspectJProxyFactory(target);
+        factory.setProxyTargetClass(true);
+        factory.addAspect(retryOnConflictAspect);
+        writer = factory.getProxy();
+    }
+
+    @Test
+    void retry_ReturnsResult_WhenConflictIsResolvedBeforeLastAttempt() {
+        target.conflicts = 2;
+
+        assertEquals("written", writer.write());
+        assertEquals(3, target.attempts);
+        assertEquals(2, meterRegistry.get("bookshelves.conflicts.retried").counter().count());
+    }
+
+    @Test
+    void retry_ThrowsException_WhenEveryAttemptConflicts() {
+        target.conflicts = 5;
+
+        assertThrows(ObjectOptimisticLockingFailureException.class, () -> writer.write());
+        assertEquals(3, target.attempts);
+    }
+
+    @Test
+    void retry_DoesNotRetry_WhenExceptionIsNotConflict() {
+        assertThrows(IllegalStateException.class, () -> writer.fail());
+        assertEquals(1, target.attempts);
+    }
+
+    @Test
+    void retry_DoesNotRetry_WhenTransactionIsAlreadyActive() {
+        target.conflicts = 1;
+        TransactionSynchronizationManager.setActualTransactionActive(true);
+        try {
+            assertThrows(ObjectOptimisticLockingFailureException.class, () -> writer.write());
+        } finally {
+            TransactionSynchronizationManager.setActualTransactionActive(false);
+        }
+        assertEquals(1, target.attempts);
+    }
+
+    @Test
+    void delay_StaysWithinExponentialCeiling() {
+        for (int i = 0; i < 100; i++) {
+            assertTrue(retryOnConflictAspect.delay(1) <= 1);
+            assertTrue(retryOnConflictAspect.delay(2) <= 2);
+            assertTrue(retryOnConflictAspect.delay(10) <= 4);
+        }
+    }
+
+    static class ConflictingWriter {
+
+        int conflicts;
+        int attempts;
+
+        @RetryOnConflict
+        public String write() {
+            attempts++;
+            if (attempts <= conflicts) throw new ObjectOptimisticLockingFailureException(ConflictingWriter.class, 1L);
+            return "written";
+        }
+
+        @RetryOnConflict
+        public void fail() {
+            attempts++;
+            throw new IllegalStateException();
+        }
+    }
+}
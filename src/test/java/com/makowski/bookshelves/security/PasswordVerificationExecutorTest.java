@@ -0,0 +1,68 @@
+package com.makowski.bookshelves.security;
+
+import com.makowski.bookshelves.exceptions.LoginOverloadedException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class PasswordVerificationExecutorTest {
+
+    @Mock
+    BCryptPasswordEncoder bCryptPasswordEncoder;
+
+    SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    PasswordVerificationExecutor passwordVerificationExecutor;
+
+    @AfterEach
+    void tearDown() {
+        passwordVerificationExecutor.shutdown();
+    }
+
+    @Test
+    void matches_ReturnsEncoderResultAndRecordsLatency_WhenExecutorIsFree() {
+        passwordVerificationExecutor = new PasswordVerificationExecutor(bCryptPasswordEncoder, meterRegistry, 1, 1);
+
+        when(bCryptPasswordEncoder.matches("password", "encoded")).thenReturn(true);
+
+        assertTrue(passwordVerificationExecutor.matches("password", "encoded"));
+        assertEquals(1, meterRegistry.get("bookshelves.login.hash").timer().count());
+    }
+
+    @Test
+    void matches_ThrowsException_WhenQueueIsFull() throws Exception {
+        passwordVerificationExecutor = new PasswordVerificationExecutor(bCryptPasswordEncoder, meterRegistry, 1, 1);
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+
+        when(bCryptPasswordEncoder.matches("password", "encoded")).thenAnswer(invocation -> {
+            started.countDown();
+            release.await();
+            return true;
+        });
+
+        CompletableFuture<Boolean> running = CompletableFuture.supplyAsync(() -> passwordVerificationExecutor.matches("password", "encoded"));
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+        CompletableFuture<Boolean> queued = CompletableFuture.supplyAsync(() -> passwordVerificationExecutor.matches("password", "encoded"));
+        while (passwordVerificationExecutor.queueDepth() == 0) Thread.onSpinWait();
+
+        assertThrows(LoginOverloadedException.class, () -> passwordVerificationExecutor.matches("password", "encoded"));
+        assertEquals(1.0, meterRegistry.get("bookshelves.login.rejected").counter().count());
+        assertEquals(1.0, meterRegistry.get("bookshelves.login.queue.depth").gauge().value());
+
+        release.countDown();
+        assertTrue(running.get(5, TimeUnit.SECONDS));
+        assertTrue(queued.get(5, TimeUnit.SECONDS));
+    }
+}
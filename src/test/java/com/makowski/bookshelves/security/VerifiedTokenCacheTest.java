@@ -0,0 +1,62 @@
+package com.makowski.bookshelves.security;
+
+import com.makowski.bookshelves.security.VerifiedTokenCache.VerifiedToken;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class VerifiedTokenCacheTest {
+
+    AtomicInteger verifications = new AtomicInteger();
+
+    @Test
+    void get_VerifiesTokenOnce_WhenTokenIsValid() {
+        VerifiedTokenCache cache = new VerifiedTokenCache(10);
+
+        cache.get("token", this::verifyUntilNextHour);
+        VerifiedToken result = cache.get("token", this::verifyUntilNextHour);
+
+        assertEquals("username1", result.subject());
+        assertEquals(1, verifications.get());
+    }
+
+    @Test
+    void get_VerifiesTokenAgain_WhenTokenHasExpired() {
+        VerifiedTokenCache cache = new VerifiedTokenCache(10);
+
+        cache.get("token", token -> verify(System.currentTimeMillis() - 1));
+        cache.get("token", this::verifyUntilNextHour);
+
+        assertEquals(2, verifications.get());
+    }
+
+    @Test
+    void get_EvictsLeastRecentlyUsedToken_WhenCacheIsFull() {
+        VerifiedTokenCache cache = new VerifiedTokenCache(2);
+
+        cache.get("first", this::verifyUntilNextHour);
+        cache.get("second", this::verifyUntilNextHour);
+        cache.get("first", this::verifyUntilNextHour);
+        cache.get("third", this::verifyUntilNextHour);
+        cache.get("second", this::verifyUntilNextHour);
+
+        assertEquals(2, cache.size());
+        assertEquals(4, verifications.get());
+    }
+
+    @Test
+    void hash_ReturnsDifferentKeys_WhenTokensDiffer() {
+        assertNotEquals(VerifiedTokenCache.hash("first"), VerifiedTokenCache.hash("second"));
+    }
+
+    private VerifiedToken verifyUntilNextHour(String token) {
+        return verify(System.currentTimeMillis() + 3600000);
+    }
+
+    private VerifiedToken verify(long expiresAt) {
+        verifications.incrementAndGet();
+        return new VerifiedToken("username1", 1L, expiresAt);
+    }
+}
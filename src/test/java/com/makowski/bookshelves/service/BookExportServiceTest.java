@@ -0,0 +1,65 @@
+package com.makowski.bookshelves.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.makowski.bookshelves.dto.BookExportDto;
+import com.makowski.bookshelves.dto.ScoresDto;
+import com.makowski.bookshelves.repository.BookRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class BookExportServiceTest {
+
+    @Mock
+    BookRepository bookRepository;
+    @Mock
+    RatingAggregateBuffer ratingAggregateBuffer;
+
+    BookExportService bookExportService;
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+    @BeforeEach
+    void setUp() {
+        bookExportService = new BookExportService(bookRepository, ratingAggregateBuffer, new ObjectMapper(), 600000);
+    }
+
+    @Test
+    void exportBooks_WritesOneJsonLinePerBook_WhenRatingsAreNotRequested() throws Exception {
+        AtomicBoolean closed = new AtomicBoolean();
+        when(bookRepository.streamAll()).thenReturn(Stream.of(
+            new BookExportDto(1L, "Holly", "Stephen King", "Scribner", "crime", 449, 2023),
+            new BookExportDto(2L, "Bel Canto", "Ann Patchett", "Perennial", "thriller", 318, 2001)).onClose(() -> closed.set(true)));
+
+        bookExportService.exportBooks(out, false);
+
+        String[] lines = out.toString(StandardCharsets.UTF_8).split("\n");
+        assertEquals(2, lines.length);
+        assertEquals("{\"id\":1,\"title\":\"Holly\",\"author\":\"Stephen King\",\"publisher\":\"Scribner\",\"genre\":\"crime\",\"pages\":449,\"year\":2023}", lines[0]);
+        assertTrue(closed.get());
+        verifyNoInteractions(ratingAggregateBuffer);
+    }
+
+    @Test
+    void exportBooks_IncludesPendingScores_WhenRatingsAreRequested() throws Exception {
+        when(bookRepository.streamAllWithScores()).thenReturn(Stream.of(
+            new BookExportDto(1L, "Holly", "Stephen King", "Scribner", "crime", 449, 2023, 8.0F, 3, 24)));
+        when(ratingAggregateBuffer.withPending(eq(1L), any(ScoresDto.class))).thenReturn(new ScoresDto(4, 34, 8.5F));
+
+        bookExportService.exportBooks(out, true);
+
+        String line = out.toString(StandardCharsets.UTF_8);
+        assertTrue(line.endsWith("\"rating\":8.5,\"scoresNumber\":4}\n"));
+        assertFalse(line.contains("scoresSum"));
+    }
+}
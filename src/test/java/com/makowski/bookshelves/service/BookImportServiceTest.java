@@ -0,0 +1,163 @@
+package com.makowski.bookshelves.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.makowski.bookshelves.dto.ImportResultDto;
+import com.makowski.bookshelves.entity.Book;
+import com.makowski.bookshelves.entity.IdGenerators;
+import com.makowski.bookshelves.exceptions.InvalidRequestException;
+import com.makowski.bookshelves.repository.BookCache;
+import com.makowski.bookshelves.repository.GenreMeans;
+import com.makowski.bookshelves.repository.IdAllocator;
+import jakarta.validation.Validation;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class BookImportServiceTest {
+
+    @Mock
+    JdbcTemplate jdbcTemplate;
+    @Mock
+    PlatformTransactionManager transactionManager;
+    @Mock
+    IdAllocator idAllocator;
+    @Mock
+    BookService bookService;
+    @Mock
+    BookCache bookCache;
+
+    GenreMeans genreMeans = new GenreMeans(null, 10);
+
+    BookImportService bookImportService;
+    List<Book> indexed = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        bookImportService = new BookImportService(jdbcTemplate, new TransactionTemplate(transactionManager), idAllocator,
+            new ObjectMapper(), Validation.buildDefaultValidatorFactory().getValidator(), bookService, bookCache, genreMeans, 2);
+    }
+
+    @Test
+    void importBooks_WritesBooksInBatches_WhenCsvIsValid() {
+        genreMeans.use(Map.of("crime", 7.0));
+        when(idAllocator.reserve(IdGenerators.BOOKS, 2)).thenReturn(100L);
+        when(idAllocator.reserve(IdGenerators.BOOKS, 1)).thenReturn(102L);
+        recordIndexedBooks();
+        String csv = "Year,Title,Author,Publisher,Genre,Pages\n"
+            + "1939,\"And Then There Were None\",Agatha Christie,St. Martins Griffin,crime,264\n"
+            + "2018,\"Murder, She \"\"Wrote\"\"\",Jessica Fletcher,Penguin Press,crime,300\n"
+            + "\n"
+            + "2013,Joyland,Stephen King,Hard Case Crime,crime,223\n";
+
+        ImportResultDto result = bookImportService.importBooks(body(csv), BookImportService.CSV);
+
+        assertEquals(3, result.getAccepted());
+        assertEquals(0, result.getRejected());
+        verify(jdbcTemplate, times(2)).batchUpdate(anyString(), anyCollection(), anyInt(), any());
+        verify(bookCache, times(2)).evictQueries();
+        assertEquals(List.of(100L, 101L, 102L), indexed.stream().map(Book::getId).toList());
+        assertEquals("Murder, She \"Wrote\"", indexed.get(1).getTitle());
+        assertEquals(1939, indexed.get(0).getYear());
+        assertEquals(7.0F, indexed.get(0).getWeightedScore());
+    }
+
+    @Test
+    void importBooks_ReportsRejectedRecords_WhenCsvRecordsAreInvalid() {
+        when(idAllocator.reserve(IdGenerators.BOOKS, 1)).thenReturn(1L);
+        String csv = "title,author,publisher,genre,pages,year\n"
+            + ",Agatha Christie,St. Martins Griffin,crime,264,1939\n"
+            + "Joyland,Stephen King,Hard Case Crime,crime,many,2013\n"
+            + "Holly,Stephen King\n"
+            + "Holly,Stephen King,Scribner,crime,449,2023\n";
+
+        ImportResultDto result = bookImportService.importBooks(body(csv), "text/csv; charset=UTF-8");
+
+        assertEquals(1, result.getAccepted());
+        assertEquals(3, result.getRejected());
+        assertEquals(List.of("line 2: Please enter book title", "line 3: pages must be a whole number", "line 4: missing publisher value"), result.getErrors());
+    }
+
+    @Test
+    void importBooks_WritesValidLines_WhenNdjsonContainsInvalidLines() {
+        when(idAllocator.reserve(IdGenerators.BOOKS, 2)).thenReturn(7L);
+        recordIndexedBooks();
+        String ndjson = "{\"title\": \"Holly\", \"author\": \"Stephen King\", \"publisher\": \"Scribner\", \"genre\": \"crime\", \"pages\": 449, \"year\": 2023, \"rating\": 9.9}\n"
+            + "{\"title\": \"Joyland\", \"author\": \"Stephen King\", \"publisher\": \"Hard Case Crime\", \"pages\": 223, \"year\": 2013}\n"
+            + "{\"title\": \n"
+            + "{\"title\": \"Bel Canto\", \"author\": \"Ann Patchett\", \"publisher\": \"Perennial\", \"genre\": \"thriller\", \"pages\": 318, \"year\": 2001}\n";
+
+        ImportResultDto result = bookImportService.importBooks(body(ndjson), BookImportService.NDJSON);
+
+        assertEquals(2, result.getAccepted());
+        assertEquals(2, result.getRejected());
+        assertEquals("line 2: Please enter genre", result.getErrors().get(0));
+        assertEquals(List.of("Holly", "Bel Canto"), indexed.stream().map(Book::getTitle).toList());
+        assertEquals(0, indexed.get(0).getRating());
+    }
+
+    @Test
+    void importBooks_RejectsMalformedCsvRecords_AndKeepsImporting() {
+        when(idAllocator.reserve(IdGenerators.BOOKS, 2)).thenReturn(1L);
+        when(idAllocator.reserve(IdGenerators.BOOKS, 1)).thenReturn(3L);
+        String csv = "title,author,publisher,genre,pages,year\n"
+            + "Holly,Stephen King,Scribner,crime,449,2023\n"
+            + "Joyland,Stephen King,Hard Case Crime,crime,223,2013\n"
+            + "\"" + "x".repeat(70 * 1024) + "\",Stephen King,Scribner,crime,449,2023\n"
+            + "Bel Canto,Ann Patchett,Perennial,thriller,318,2001\n"
+            + "\"Unfinished,Stephen King,Scribner,crime,449,2023\n";
+
+        ImportResultDto result = bookImportService.importBooks(body(csv), BookImportService.CSV);
+
+        assertEquals(3, result.getAccepted());
+        assertEquals(2, result.getRejected());
+        assertTrue(result.getErrors().get(0).contains("longer than"));
+        assertTrue(result.getErrors().get(1).contains("unterminated quote"));
+    }
+
+    @Test
+    void importBooks_RejectsOverlongNdjsonLines_WithoutBufferingThem() {
+        when(idAllocator.reserve(IdGenerators.BOOKS, 1)).thenReturn(1L);
+        String ndjson = "{\"title\": \"" + "x".repeat(70 * 1024) + "\"}\n"
+            + "{\"title\": \"Holly\", \"author\": \"Stephen King\", \"publisher\": \"Scribner\", \"genre\": \"crime\", \"pages\": 449, \"year\": 2023}\n";
+
+        ImportResultDto result = bookImportService.importBooks(body(ndjson), BookImportService.NDJSON);
+
+        assertEquals(1, result.getAccepted());
+        assertEquals(List.of("line 1: line is longer than 65536 characters"), result.getErrors());
+    }
+
+    @Test
+    void importBooks_ThrowsException_WhenCsvHeaderIsIncomplete() {
+        assertThrows(InvalidRequestException.class, () -> bookImportService.importBooks(body("title,author\nHolly,Stephen King\n"), BookImportService.CSV));
+        verifyNoInteractions(jdbcTemplate, idAllocator);
+    }
+
+    @Test
+    void importBooks_ThrowsException_WhenContentTypeIsNotSupported() {
+        assertThrows(InvalidRequestException.class, () -> bookImportService.importBooks(body("<books/>"), "application/xml"));
+    }
+
+    private void recordIndexedBooks() {
+        doAnswer(invocation -> indexed.addAll(invocation.getArgument(0))).when(bookService).indexBooks(anyList());
+    }
+
+    private static InputStream body(String content) {
+        return new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8));
+    }
+}
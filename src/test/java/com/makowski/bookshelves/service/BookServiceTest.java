@@ -1,22 +1,38 @@
 package com.makowski.bookshelves.service;
 
 import com.makowski.bookshelves.dto.BookDto;
+import com.makowski.bookshelves.dto.BookExportDto;
+import com.makowski.bookshelves.dto.PageDto;
+import com.makowski.bookshelves.dto.ScoreHistogramDto;
+import com.makowski.bookshelves.dto.ScoresChangeDto;
+import com.makowski.bookshelves.dto.ScoresDto;
 import com.makowski.bookshelves.entity.Book;
 import com.makowski.bookshelves.entity.Rating;
 import com.makowski.bookshelves.entity.User;
 import com.makowski.bookshelves.exceptions.EntityNotFoundException;
 import com.makowski.bookshelves.exceptions.InvalidRequestException;
+import com.makowski.bookshelves.index.BookSearchIndex;
+import com.makowski.bookshelves.index.GenreLeaderboard;
+import com.makowski.bookshelves.repository.BookCache;
 import com.makowski.bookshelves.repository.BookRepository;
+import com.makowski.bookshelves.repository.GenreMeans;
+import com.makowski.bookshelves.repository.RatingRepository;
 import com.makowski.bookshelves.testutils.TestDataFactory;
+import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -29,6 +45,25 @@ class BookServiceTest {
     BookService bookService;
     @Mock
     BookRepository bookRepository;
+    @Spy
+    BookSearchIndex bookSearchIndex = new BookSearchIndex();
+    @Spy
+    GenreLeaderboard genreLeaderboard = new GenreLeaderboard(10);
+    @Spy
+    RatingAggregateBuffer ratingAggregateBuffer = new RatingAggregateBuffer(null, null, null, false);
+    @Mock
+    RatingRepository ratingRepository;
+    @Mock
+    BookCache bookCache;
+    @Spy
+    GenreMeans genreMeans = new GenreMeans(null, 10);
+    @Mock
+    WeightedScoreRefresher weightedScoreRefresher;
+
+    @AfterEach
+    void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) TransactionSynchronizationManager.clearSynchronization();
+    }
 
     @Test
     void getBook_ReturnsBook_WhenBookExists () {
@@ -41,6 +76,36 @@ class BookServiceTest {
         assertEquals(book.getTitle(), result.getTitle());
     }
 
+    @Test
+    void showBook_ReturnsBookWithPendingScores_WhenScoresAreBuffered() {
+        Book book = TestDataFactory.createTestBook();
+        book.setScoresSum(10);
+        ratingAggregateBuffer.add(ScoresChangeDto.of(1L, 0, 2));
+
+        when(bookRepository.findById(1L)).thenReturn(Optional.of(book));
+
+        Book result = bookService.showBook(1L);
+
+        assertEquals(2, result.getScoresNumber());
+        assertEquals(12, result.getScoresSum());
+        assertEquals(6.0F, result.getRating());
+    }
+
+    @Test
+    void getBookVersion_ChangesWithPendingScores_WhenScoresAreBuffered() {
+        Book book = TestDataFactory.createTestBook();
+        book.setVersion(3);
+        when(bookRepository.findById(1L)).thenReturn(Optional.of(book));
+
+        String persisted = bookService.getBookVersion(bookService.showBook(1L)).getETag();
+        ratingAggregateBuffer.add(ScoresChangeDto.of(1L, 0, 2));
+        String pending = bookService.getBookVersion(bookService.showBook(1L)).getETag();
+
+        assertNotEquals(persisted, pending);
+        assertTrue(pending.startsWith("b3-"));
+        assertEquals(-1, bookService.getBookVersion(book).getLastModified());
+    }
+
     @Test
     void getBook_ThrowsException_WhenBookDoesNotExist() {
         when(bookRepository.findById(1L)).thenReturn(Optional.empty());
@@ -51,6 +116,7 @@ class BookServiceTest {
     @Test
     void addBook_AddsBookWithDefaultRatingValues_WhenBookIsProvided() {
         Book book = TestDataFactory.createTestBook();
+        genreMeans.use(Map.of("genre1", 7.5));
 
         when(bookRepository.save(book)).thenReturn(book);
 
@@ -60,7 +126,9 @@ class BookServiceTest {
         assertEquals(0, result.getRating());
         assertEquals(0, result.getScoresNumber());
         assertEquals(0, result.getScoresSum());
+        assertEquals(7.5F, result.getWeightedScore());
         verify(bookRepository).save(book);
+        verify(bookSearchIndex).index(book);
     }
 
     @Test
@@ -70,6 +138,7 @@ class BookServiceTest {
         bookService.deleteBook(1L);
 
         verify(bookRepository).deleteById(1L);
+        verify(bookSearchIndex).remove(1L);
     }
 
     @Test
@@ -93,6 +162,7 @@ class BookServiceTest {
 
         when(bookRepository.findById(1L)).thenReturn(Optional.of(book));
         when(bookRepository.save(book)).thenReturn(book);
+        doReturn(1).when(genreMeans).rescore(1L, "edited genre");
 
         Book result = bookService.updateBook(1L, editedBook);
 
@@ -107,6 +177,8 @@ class BookServiceTest {
         assertEquals(editedBook.getYear(), result.getYear());
 
         verify(bookRepository).save(book);
+        verify(genreMeans).rescore(1L, "edited genre");
+        assertEquals(List.of(1L), bookSearchIndex.search("edited", 0, Integer.MAX_VALUE));
     }
 
     @Test
@@ -133,32 +205,62 @@ class BookServiceTest {
     }
 
     @Test
-    void findBooks_ReturnsListOfBooksDto_WhenBooksAreFound() {
+    void findBooks_ReturnsPageOfBooksDto_WhenBooksAreFound() {
         List<Book> books = TestDataFactory.createMoreTestBooks();
+        bookSearchIndex.rebuild(books);
 
-        when(bookRepository.findAll()).thenReturn(books);
+        when(bookRepository.findAllById(List.of(10L, 11L, 12L))).thenReturn(List.of(books.get(10), books.get(9), books.get(8)));
 
-        List<BookDto> result = bookService.findBooks("title1");
+        PageDto<BookDto> result = bookService.findBooks("title1", null, null);
 
-        assertEquals(3, result.size());
+        assertEquals(3, result.getItems().size());
+        assertEquals(10L, result.getItems().get(0).getId());
+        assertNull(result.getNextCursor());
+    }
+
+    @Test
+    void findBooks_ReturnsNextCursor_WhenThereAreMoreBooks() {
+        List<Book> books = TestDataFactory.createMoreTestBooks();
+        bookSearchIndex.rebuild(books);
+
+        when(bookRepository.findAllById(List.of(10L, 11L))).thenReturn(List.of(books.get(8), books.get(9)));
+        when(bookRepository.findAllById(List.of(12L))).thenReturn(List.of(books.get(10)));
+
+        PageDto<BookDto> firstPage = bookService.findBooks("title1", null, 2);
+        PageDto<BookDto> secondPage = bookService.findBooks("title1", firstPage.getNextCursor(), 2);
+
+        assertEquals(2, firstPage.getItems().size());
+        assertNotNull(firstPage.getNextCursor());
+        assertEquals(1, secondPage.getItems().size());
+        assertEquals(12L, secondPage.getItems().get(0).getId());
+        assertNull(secondPage.getNextCursor());
     }
 
     @Test
     void findBooks_ThrowsException_WhenSearchPhraseIsBlank() {
-        assertThrows(InvalidRequestException.class, () -> bookService.findBooks("     "));
+        assertThrows(InvalidRequestException.class, () -> bookService.findBooks("     ", null, null));
     }
 
     @Test
-    void findBooks_ThrowsException_WhenBooksNotFound() {
-        List<Book> books = TestDataFactory.createMoreTestBooks();
+    void findBooks_ThrowsException_WhenLimitIsTooBig() {
+        assertThrows(InvalidRequestException.class, () -> bookService.findBooks("title1", null, 1000));
+    }
+
+    @Test
+    void findBooks_ThrowsException_WhenCursorIsNotValid() {
+        assertThrows(InvalidRequestException.class, () -> bookService.findBooks("title1", "not a cursor", null));
+    }
 
-        when(bookRepository.findAll()).thenReturn(books);
+    @Test
+    void findBooks_ThrowsException_WhenBooksNotFound() {
+        bookSearchIndex.rebuild(TestDataFactory.createMoreTestBooks());
 
-        assertThrows(EntityNotFoundException.class, () -> bookService.findBooks("Star Wars"));
+        assertThrows(EntityNotFoundException.class, () -> bookService.findBooks("Star Wars", null, null));
+        verify(bookRepository, never()).findAllById(any());
     }
 
     @Test
-    void getAuthorsBooks_ReturnsListOfAuthorsBooksDto_WhenBooksAreFound() {
+    void getAuthorsBooks_ReturnsPageOfAuthorsBooksDto_WhenBooksAreFound() {
         List<Book> allBooks = TestDataFactory.createMoreTestBooks();
         List<Book> authorsBooks = new ArrayList<>();
         authorsBooks.add(allBooks.get(1));
@@ -166,24 +268,38 @@ class BookServiceTest {
         authorsBooks.add(allBooks.get(0));
         authorsBooks.add(allBooks.get(2));
 
-        when(bookRepository.findByAuthorOrderByYearDesc("author2")).thenReturn(authorsBooks);
+        when(bookRepository.findByAuthorOrderByYearDesc(eq("author2"), eq(Integer.MAX_VALUE), eq(Long.MAX_VALUE), any())).thenReturn(authorsBooks);
+
+        PageDto<BookDto> result = bookService.getAuthorsBooks("author2", null, 3);
+
+        assertEquals(3, result.getItems().size());
+        assertEquals(2015, result.getItems().get(0).getYear());
+        assertEquals(Paging.cursor(1990, 2L), result.getNextCursor());
+    }
+
+    @Test
+    void getAuthorsBooks_ContinuesAfterCursor_WhenCursorIsProvided() {
+        List<Book> allBooks = TestDataFactory.createMoreTestBooks();
+
+        when(bookRepository.findByAuthorOrderByYearDesc(eq("author2"), eq(1990), eq(2L), any())).thenReturn(List.of(allBooks.get(2)));
 
-        List<BookDto> result = bookService.getAuthorsBooks("author2");
+        PageDto<BookDto> result = bookService.getAuthorsBooks("author2", Paging.cursor(1990, 2L), 3);
 
-        assertEquals(4, result.size());
-        assertEquals(2015, result.get(0).getYear());
+        assertEquals(1, result.getItems().size());
+        assertEquals(1989, result.getItems().get(0).getYear());
+        assertNull(result.getNextCursor());
     }
 
     @Test
     void getAuthorsBooks_ThrowsException_WhenSearchPhraseIsBlank() {
-        assertThrows(InvalidRequestException.class, () -> bookService.getAuthorsBooks(" "));
+        assertThrows(InvalidRequestException.class, () -> bookService.getAuthorsBooks(" ", null, null));
     }
 
     @Test
     void getAuthorsBooks_ThrowsException_WhenBooksNotFound() {
-        when(bookRepository.findByAuthorOrderByYearDesc("author2")).thenReturn(Collections.emptyList());
+        when(bookRepository.findByAuthorOrderByYearDesc(eq("author2"), anyInt(), anyLong(), any())).thenReturn(Collections.emptyList());
 
-        assertThrows(EntityNotFoundException.class, () -> bookService.getAuthorsBooks("author2"));
+        assertThrows(EntityNotFoundException.class, () -> bookService.getAuthorsBooks("author2", null, null));
     }
 
     @Test
@@ -202,49 +318,303 @@ class BookServiceTest {
         ratings.add(rating1);
         ratings.add(rating2);
 
+        when(bookRepository.existsById(1L)).thenReturn(true);
+        when(ratingRepository.findByBookIdAfter(eq(1L), eq(0L), any())).thenReturn(ratings);
+
+        PageDto<Rating> result = bookService.getBookRatings(1L, null, null);
+
+        assertEquals(2, result.getItems().size());
+        assertEquals(user1, result.getItems().get(0).getUser());
+        assertNull(result.getItems().get(1).getUser());
+        assertNull(result.getNextCursor());
+    }
+
+    @Test
+    void getBookRatings_ThrowsException_WhenBookDoesNotExist() {
+        when(bookRepository.existsById(1L)).thenReturn(false);
+
+        assertThrows(EntityNotFoundException.class, () -> bookService.getBookRatings(1L, null, null));
+    }
+
+    @Test
+    void getBookRatings_ThrowsException_WhenRatingsDoNotExist() {
+        when(bookRepository.existsById(1L)).thenReturn(true);
+        when(ratingRepository.findByBookIdAfter(eq(1L), eq(0L), any())).thenReturn(Collections.emptyList());
+
+        assertThrows(EntityNotFoundException.class, () -> bookService.getBookRatings(1L, null, null));
+    }
+
+    @Test
+    void topFromGenre_ReturnsListOfBooksDto_WhenBooksAreFound() {
+        List<Book> books = TestDataFactory.createMoreTestBooks();
+        books.remove(10);
+
+        when(bookRepository.findByGenreOrderByWeightedScoreDescIdAsc(eq("genre2"), any())).thenReturn(books);
+
+        List<BookDto> result = bookService.topFromGenre("genre2");
+
+        assertEquals(10, result.size());
+        assertEquals("title2", result.get(0).getTitle());
+    }
+
+    @Test
+    void topFromGenre_DoesNotQueryDatabase_WhenLeaderboardIsBuilt() {
+        stubIndexPages(TestDataFactory.createMoreTestBooks());
+        bookService.buildIndexes();
+
+        List<BookDto> result = bookService.topFromGenre("genre2");
+
+        assertEquals(10, result.size());
+        assertEquals(11L, result.get(9).getId());
+        verify(bookRepository, never()).findByGenreOrderByWeightedScoreDescIdAsc(any(), any());
+    }
+
+    @Test
+    void topFromGenre_ReturnsUpdatedRanking_WhenScoresAreChanged() {
+        List<Book> books = TestDataFactory.createMoreTestBooks();
+        Book book = books.get(10);
+        stubIndexPages(books);
+        when(bookRepository.addScores(any(ScoresChangeDto.class))).thenReturn(1);
+        when(bookRepository.findScoresById(12L)).thenReturn(new ScoresDto(71, 1000, 9.9F));
+        bookService.buildIndexes();
+
+        bookService.changeScores(book, 0, 10);
+        List<BookDto> result = bookService.topFromGenre("genre2");
+
+        assertEquals(12L, result.get(0).getId());
+        assertEquals(10, result.size());
+    }
+
+    @Test
+    void changeScores_UpdatesRankingOnlyAfterCommit_WhenTransactionIsActive() {
+        List<Book> books = TestDataFactory.createMoreTestBooks();
+        Book book = books.get(10);
+        stubIndexPages(books);
+        when(bookRepository.addScores(any(ScoresChangeDto.class))).thenReturn(1);
+        when(bookRepository.findScoresById(12L)).thenReturn(new ScoresDto(71, 1000, 9.9F));
+        bookService.buildIndexes();
+
+        TransactionSynchronizationManager.initSynchronization();
+        bookService.changeScores(book, 0, 10);
+
+        assertNotEquals(12L, bookService.topFromGenre("genre2").get(0).getId());
+        complete(true);
+        assertEquals(12L, bookService.topFromGenre("genre2").get(0).getId());
+    }
+
+    @Test
+    void updateBook_LeavesIndexesUnchanged_WhenTransactionRollsBack() {
         Book book = TestDataFactory.createTestBook();
-        book.setRatings(ratings);
+        Book editedBook = TestDataFactory.createTestBook();
+        editedBook.setTitle("edited title");
+        editedBook.setPublisher("edited publisher");
 
         when(bookRepository.findById(1L)).thenReturn(Optional.of(book));
+        when(bookRepository.save(book)).thenReturn(book);
 
-        List<Rating> result = bookService.getBookRatings(1L);
+        TransactionSynchronizationManager.initSynchronization();
+        bookService.updateBook(1L, editedBook);
+        complete(false);
 
-        assertEquals(2, result.size());
-        assertEquals(user1, result.get(0).getUser());
-        assertNull(result.get(1).getUser());
+        verify(bookSearchIndex, never()).index(any());
+        verify(genreLeaderboard, never()).update(any(), any());
     }
 
     @Test
-    void getBookRatings_ThrowsException_WhenRatingsDoNotExist() {
+    void updateBook_RescoresBookAfterCommit_WhenGenreChanges() {
         Book book = TestDataFactory.createTestBook();
+        Book editedBook = TestDataFactory.createTestBook();
+        editedBook.setGenre("edited genre");
+        editedBook.setPublisher("edited publisher");
 
         when(bookRepository.findById(1L)).thenReturn(Optional.of(book));
+        when(bookRepository.save(book)).thenReturn(book);
+        doReturn(1).when(genreMeans).rescore(1L, "edited genre");
+
+        TransactionSynchronizationManager.initSynchronization();
+        bookService.updateBook(1L, editedBook);
 
-        assertThrows(EntityNotFoundException.class, () -> bookService.getBookRatings(1L));
+        verify(genreMeans, never()).rescore(anyLong(), anyString());
+        complete(true);
+        verify(genreMeans).rescore(1L, "edited genre");
     }
 
     @Test
-    void top10FromGenre_ReturnsListOfBooksDto_WhenBooksAreFound() {
+    void updateBook_SkipsRescore_WhenTransactionRollsBack() {
+        Book book = TestDataFactory.createTestBook();
+        Book editedBook = TestDataFactory.createTestBook();
+        editedBook.setGenre("edited genre");
+        editedBook.setPublisher("edited publisher");
+
+        when(bookRepository.findById(1L)).thenReturn(Optional.of(book));
+        when(bookRepository.save(book)).thenReturn(book);
+
+        TransactionSynchronizationManager.initSynchronization();
+        bookService.updateBook(1L, editedBook);
+        complete(false);
+
+        verify(genreMeans, never()).rescore(anyLong(), anyString());
+    }
+
+    @Test
+    void topFromGenre_RanksManyGoodScoresAboveSingleTopScore_WhenGenreMeanIsKnown() {
         List<Book> books = TestDataFactory.createMoreTestBooks();
-        books.remove(10);
+        books.get(0).setScoresNumber(1);
+        books.get(0).setScoresSum(10);
+        books.get(1).setScoresNumber(200);
+        books.get(1).setScoresSum(1700);
+        genreMeans.use(Map.of("genre2", 6.0));
+        stubIndexPages(books);
+        bookService.buildIndexes();
+
+        List<BookDto> result = bookService.topFromGenre("genre2");
+
+        assertEquals(List.of(3L, 2L), result.stream().limit(2).map(BookDto::getId).toList());
+        assertEquals(8.38F, result.get(0).getWeightedScore(), 0.01F);
+        assertEquals(6.36F, result.get(1).getWeightedScore(), 0.01F);
+        verify(weightedScoreRefresher).refresh();
+    }
 
-        when(bookRepository.findTop10ByGenreOrderByRatingDesc("genre2")).thenReturn(books);
+    @Test
+    void changeScores_SetsAggregatesReadFromDatabase_WhenBookExists() {
+        Book book = TestDataFactory.createTestBook();
 
-        List<BookDto> result = bookService.top10FromGenre("genre2");
+        ArgumentCaptor<ScoresChangeDto> change = ArgumentCaptor.forClass(ScoresChangeDto.class);
 
-        assertEquals(10, result.size());
-        assertEquals("title2", result.get(0).getTitle());
+        when(bookRepository.addScores(any(ScoresChangeDto.class))).thenReturn(1);
+        when(bookRepository.findScoresById(1L)).thenReturn(new ScoresDto(2, 12, 6.0F));
+
+        Book result = bookService.changeScores(book, 0, 2);
+
+        verify(bookRepository).addScores(change.capture());
+        assertEquals(1, change.getValue().getScoresNumber());
+        assertEquals(2, change.getValue().getScoresSum());
+        assertArrayEquals(new int[] { 0, 1, 0, 0, 0, 0, 0, 0, 0, 0 }, change.getValue().getHistogram());
+        assertEquals(2, result.getScoresNumber());
+        assertEquals(12, result.getScoresSum());
+        assertEquals(6.0F, result.getRating());
+        verify(bookRepository, never()).save(any());
+        verify(bookCache).evictScores(List.of(1L));
+    }
+
+    @Test
+    void changeScores_ThrowsException_WhenBookDoesNotExist() {
+        Book book = TestDataFactory.createTestBook();
+
+        when(bookRepository.addScores(any(ScoresChangeDto.class))).thenReturn(0);
+
+        assertThrows(EntityNotFoundException.class, () -> bookService.changeScores(book, 0, 2));
+        verifyNoInteractions(bookCache);
+    }
+
+    @Test
+    void changeScores_MovesScoreBetweenHistogramCountersInOneWrite_WhenScoreWasEdited() {
+        Book book = TestDataFactory.createTestBook();
+        ArgumentCaptor<ScoresChangeDto> change = ArgumentCaptor.forClass(ScoresChangeDto.class);
+
+        when(bookRepository.addScores(any(ScoresChangeDto.class))).thenReturn(1);
+        when(bookRepository.findScoresById(1L)).thenReturn(new ScoresDto(1, 6, 6.0F));
+
+        bookService.changeScores(book, 10, 6);
+
+        verify(bookRepository, times(1)).addScores(change.capture());
+        assertEquals(0, change.getValue().getScoresNumber());
+        assertEquals(-4, change.getValue().getScoresSum());
+        assertArrayEquals(new int[] { 0, 0, 0, 0, 0, 1, 0, 0, 0, -1 }, change.getValue().getHistogram());
     }
 
     @Test
-    void top10FromGenre_ThrowsException_WhenSearchPhraseIsBlank() {
-        assertThrows(InvalidRequestException.class, () -> bookService.top10FromGenre(""));
+    void changeScores_RemovesScoreFromHistogram_WhenScoreWasDeleted() {
+        Book book = TestDataFactory.createTestBook();
+        ArgumentCaptor<ScoresChangeDto> change = ArgumentCaptor.forClass(ScoresChangeDto.class);
+
+        when(bookRepository.addScores(any(ScoresChangeDto.class))).thenReturn(1);
+        when(bookRepository.findScoresById(1L)).thenReturn(new ScoresDto(0, 0, 0));
+
+        bookService.changeScores(book, 10, 0);
+
+        verify(bookRepository).addScores(change.capture());
+        assertEquals(-1, change.getValue().getScoresNumber());
+        assertEquals(-10, change.getValue().getScoresSum());
+        assertArrayEquals(new int[] { 0, 0, 0, 0, 0, 0, 0, 0, 0, -1 }, change.getValue().getHistogram());
     }
 
     @Test
-    void top10FromGenre_ThrowsException_WhenBooksNotFound() {
-        when(bookRepository.findTop10ByGenreOrderByRatingDesc("genre2")).thenReturn(Collections.emptyList());
+    void getScoreHistogram_ReturnsCountersOfBook_WhenBookExists() {
+        Book book = TestDataFactory.createTestBook();
+        book.getHistogram().setScore1(2);
+        book.getHistogram().setScore10(5);
+
+        when(bookRepository.findById(1L)).thenReturn(Optional.of(book));
+
+        ScoreHistogramDto result = bookService.getScoreHistogram(1L);
+
+        assertEquals(1L, result.getBookId());
+        assertArrayEquals(new int[] { 2, 0, 0, 0, 0, 0, 0, 0, 0, 5 }, result.getCounts());
+    }
+
+    @Test
+    void getScoreHistogram_ReturnsCountersWithPendingScores_WhenScoresAreBuffered() {
+        Book book = TestDataFactory.createTestBook();
+        book.getHistogram().setScore10(5);
+        ratingAggregateBuffer.add(ScoresChangeDto.of(1L, 10, 7));
+
+        when(bookRepository.findById(1L)).thenReturn(Optional.of(book));
+
+        ScoreHistogramDto result = bookService.getScoreHistogram(1L);
+
+        assertArrayEquals(new int[] { 0, 0, 0, 0, 0, 0, 1, 0, 0, 4 }, result.getCounts());
+    }
+
+    @Test
+    void getScoreHistogram_ThrowsException_WhenBookDoesNotExist() {
+        when(bookRepository.findById(1L)).thenReturn(Optional.empty());
+
+        assertThrows(EntityNotFoundException.class, () -> bookService.getScoreHistogram(1L));
+    }
+
+    @Test
+    void topFromGenre_ThrowsException_WhenSearchPhraseIsBlank() {
+        assertThrows(InvalidRequestException.class, () -> bookService.topFromGenre(""));
+    }
+
+    @Test
+    void buildIndexes_ReadsNextPageAfterLastId_WhenPageIsFull() {
+        List<BookExportDto> firstPage = new ArrayList<>();
+        for (long id = 1; id <= BookService.INDEX_PAGE_SIZE; id++)
+            firstPage.add(new BookExportDto(id, "title" + id, "author", "publisher", "genre1", 100, 2000, 0F, 0, 0));
+        long lastId = BookService.INDEX_PAGE_SIZE + 1L;
+        when(bookRepository.findWithScoresAfter(eq(0L), any())).thenReturn(firstPage);
+        when(bookRepository.findWithScoresAfter(eq((long) BookService.INDEX_PAGE_SIZE), any())).thenReturn(List.of(
+            new BookExportDto(lastId, "last", "author", "publisher", "genre1", 100, 2000, 9F, 1, 9)));
+
+        bookService.buildIndexes();
+
+        assertEquals(BookService.INDEX_PAGE_SIZE + 1, bookSearchIndex.size());
+        assertEquals(List.of(lastId), bookSearchIndex.search("last", 0, Integer.MAX_VALUE));
+        assertEquals(lastId, bookService.topFromGenre("genre1").get(0).getId());
+        verify(bookRepository, never()).findAll();
+    }
+
+    @Test
+    void topFromGenre_ThrowsException_WhenBooksNotFound() {
+        when(bookRepository.findByGenreOrderByWeightedScoreDescIdAsc(eq("genre2"), any())).thenReturn(Collections.emptyList());
+
+        assertThrows(EntityNotFoundException.class, () -> bookService.topFromGenre("genre2"));
+    }
+
+    private void stubIndexPages(List<Book> books) {
+        when(bookRepository.findWithScoresAfter(eq(0L), any())).thenReturn(books.stream()
+            .map(book -> new BookExportDto(book.getId(), book.getTitle(), book.getAuthor(), book.getPublisher(), book.getGenre(),
+                book.getPages(), book.getYear(), book.getRating(), book.getScoresNumber(), book.getScoresSum()))
+            .toList());
+    }
 
-        assertThrows(EntityNotFoundException.class, () -> bookService.top10FromGenre("genre2"));
+    private void complete(boolean committed) {
+        List<TransactionSynchronization> synchronizations = TransactionSynchronizationManager.getSynchronizations();
+        if (committed) synchronizations.forEach(TransactionSynchronization::afterCommit);
+        synchronizations.forEach(synchronization -> synchronization.afterCompletion(
+            committed ? TransactionSynchronization.STATUS_COMMITTED : TransactionSynchronization.STATUS_ROLLED_BACK));
+        TransactionSynchronizationManager.clearSynchronization();
     }
 }
\ No newline at end of file
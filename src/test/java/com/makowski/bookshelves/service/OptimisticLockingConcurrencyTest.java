@@ -0,0 +1,85 @@
+package com.makowski.bookshelves.service;
+
+import com.makowski.bookshelves.entity.Book;
+import com.makowski.bookshelves.repository.BookRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(properties = "bookshelves.retry.max-attempts=50")
+class OptimisticLockingConcurrencyTest {
+
+    private static final long BOOK_ID = 5L;
+    private static final int THREADS = 4;
+    private static final int UPDATES_PER_THREAD = 20;
+
+    @Autowired
+    BookService bookService;
+    @Autowired
+    BookRepository bookRepository;
+
+    Book initialBook;
+
+    @BeforeEach
+    void setUp() {
+        initialBook = bookRepository.findById(BOOK_ID).orElseThrow();
+    }
+
+    @AfterEach
+    void tearDown() {
+        bookService.updateBook(BOOK_ID, initialBook);
+    }
+
+    @Test
+    void updateBook_AppliesEveryUpdate_WhenOneBookIsEditedConcurrently() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<Integer>> futures = new ArrayList<>();
+        for (int thread = 0; thread < THREADS; thread++) {
+            int pages = 1000 * (thread + 1);
+            Callable<Integer> task = () -> {
+                start.await();
+                int failures = 0;
+                for (int i = 0; i < UPDATES_PER_THREAD; i++) {
+                    try {
+                        bookService.updateBook(BOOK_ID, edited(pages + i));
+                    } catch (RuntimeException e) {
+                        failures++;
+                    }
+                }
+                return failures;
+            };
+            futures.add(executor.submit(task));
+        }
+        start.countDown();
+        int failures = 0;
+        for (Future<Integer> future : futures) failures += future.get();
+        executor.shutdown();
+
+        assertEquals(0, failures);
+        assertEquals(initialBook.getVersion() + THREADS * UPDATES_PER_THREAD, bookRepository.findById(BOOK_ID).orElseThrow().getVersion());
+    }
+
+    private Book edited(int pages) {
+        Book book = new Book();
+        book.setTitle(initialBook.getTitle());
+        book.setAuthor(initialBook.getAuthor());
+        book.setPublisher(initialBook.getPublisher());
+        book.setGenre(initialBook.getGenre());
+        book.setPages(pages);
+        book.setYear(initialBook.getYear());
+        return book;
+    }
+}
@@ -0,0 +1,167 @@
+package com.makowski.bookshelves.service;
+
+import com.makowski.bookshelves.dto.ScoresChangeDto;
+import com.makowski.bookshelves.dto.ScoresDto;
+import com.makowski.bookshelves.repository.BookCache;
+import com.makowski.bookshelves.repository.BookRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class RatingAggregateBufferTest {
+
+    @Mock
+    BookRepository bookRepository;
+    @Mock
+    PlatformTransactionManager transactionManager;
+    @Mock
+    BookCache bookCache;
+
+    RatingAggregateBuffer ratingAggregateBuffer;
+
+    @BeforeEach
+    void setUp() {
+        ratingAggregateBuffer = new RatingAggregateBuffer(bookRepository, new TransactionTemplate(transactionManager), bookCache, true);
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) TransactionSynchronizationManager.clearSynchronization();
+    }
+
+    @Test
+    void withPending_CombinesPersistedScoresWithDeltas_WhenBookHasPendingScores() {
+        ratingAggregateBuffer.add(ScoresChangeDto.of(1L, 0, 7));
+        ratingAggregateBuffer.add(ScoresChangeDto.of(1L, 0, 8));
+
+        ScoresDto result = ratingAggregateBuffer.withPending(1L, new ScoresDto(1, 10, 10.0F));
+
+        assertEquals(3, result.getScoresNumber());
+        assertEquals(25, result.getScoresSum());
+        assertEquals(8.3F, result.getRating());
+    }
+
+    @Test
+    void withPending_CombinesPersistedHistogramWithDeltas_WhenBookHasPendingScores() {
+        ratingAggregateBuffer.add(ScoresChangeDto.of(1L, 0, 7));
+        ratingAggregateBuffer.add(ScoresChangeDto.of(1L, 10, 8));
+
+        int[] result = ratingAggregateBuffer.withPending(1L, new int[] { 0, 0, 0, 0, 0, 0, 0, 0, 0, 2 });
+
+        assertArrayEquals(new int[] { 0, 0, 0, 0, 0, 0, 1, 1, 0, 1 }, result);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void flush_WritesHistogramMove_WhenScoresCancelOut() {
+        ratingAggregateBuffer.add(ScoresChangeDto.of(1L, 5, 6));
+        ratingAggregateBuffer.add(ScoresChangeDto.of(1L, 7, 6));
+
+        ratingAggregateBuffer.flush();
+
+        ArgumentCaptor<List<ScoresChangeDto>> changes = ArgumentCaptor.forClass(List.class);
+        verify(bookRepository).addScores(changes.capture());
+        assertEquals(1, changes.getValue().size());
+        assertEquals(0, changes.getValue().get(0).getScoresSum());
+        assertArrayEquals(new int[] { 0, 0, 0, 0, -1, 2, -1, 0, 0, 0 }, changes.getValue().get(0).getHistogram());
+    }
+
+    @Test
+    void withPending_ReturnsPersistedScores_WhenBookHasNoPendingScores() {
+        ScoresDto persisted = new ScoresDto(1, 10, 10.0F);
+
+        assertSame(persisted, ratingAggregateBuffer.withPending(1L, persisted));
+    }
+
+    @Test
+    void add_BuffersDeltaOnlyAfterCommit_WhenTransactionIsActive() {
+        TransactionSynchronizationManager.initSynchronization();
+        ratingAggregateBuffer.add(ScoresChangeDto.of(1L, 0, 7));
+
+        assertEquals(0, ratingAggregateBuffer.size());
+        assertEquals(2, ratingAggregateBuffer.withPending(1L, new ScoresDto(1, 10, 10.0F)).getScoresNumber());
+
+        complete(true);
+
+        assertEquals(1, ratingAggregateBuffer.size());
+        assertEquals(2, ratingAggregateBuffer.withPending(1L, new ScoresDto(1, 10, 10.0F)).getScoresNumber());
+    }
+
+    @Test
+    void add_DiscardsDelta_WhenTransactionRollsBack() {
+        TransactionSynchronizationManager.initSynchronization();
+        ratingAggregateBuffer.add(ScoresChangeDto.of(1L, 0, 7));
+
+        complete(false);
+
+        assertEquals(0, ratingAggregateBuffer.size());
+        assertEquals(1, ratingAggregateBuffer.withPending(1L, new ScoresDto(1, 10, 10.0F)).getScoresNumber());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void flush_WritesOneUpdatePerBook_WhenScoresArePending() {
+        ratingAggregateBuffer.add(ScoresChangeDto.of(1L, 0, 7));
+        ratingAggregateBuffer.add(ScoresChangeDto.of(1L, 0, 8));
+        ratingAggregateBuffer.add(ScoresChangeDto.of(2L, 3, 0));
+
+        ratingAggregateBuffer.flush();
+
+        ArgumentCaptor<List<ScoresChangeDto>> changes = ArgumentCaptor.forClass(List.class);
+        verify(bookRepository).addScores(changes.capture());
+        assertEquals(2, changes.getValue().size());
+        ScoresChangeDto first = changes.getValue().stream().filter(change -> change.getBookId() == 1L).findFirst().orElseThrow();
+        assertEquals(2, first.getScoresNumber());
+        assertEquals(15, first.getScoresSum());
+        assertArrayEquals(new int[] { 0, 0, 0, 0, 0, 0, 1, 1, 0, 0 }, first.getHistogram());
+        assertEquals(0, ratingAggregateBuffer.size());
+        assertEquals(1, ratingAggregateBuffer.withPending(1L, new ScoresDto(1, 10, 10.0F)).getScoresNumber());
+        ArgumentCaptor<Collection<Long>> evicted = ArgumentCaptor.forClass(Collection.class);
+        verify(bookCache).evictScores(evicted.capture());
+        assertEquals(Set.of(1L, 2L), Set.copyOf(evicted.getValue()));
+    }
+
+    @Test
+    void flush_KeepsScoresPending_WhenUpdateFails() {
+        ratingAggregateBuffer.add(ScoresChangeDto.of(1L, 0, 7));
+
+        when(bookRepository.addScores(anyList())).thenThrow(new QueryTimeoutException("timeout"));
+
+        assertThrows(QueryTimeoutException.class, () -> ratingAggregateBuffer.flush());
+        assertEquals(1, ratingAggregateBuffer.size());
+        assertEquals(2, ratingAggregateBuffer.withPending(1L, new ScoresDto(1, 10, 10.0F)).getScoresNumber());
+        verifyNoInteractions(bookCache);
+    }
+
+    @Test
+    void flush_DoesNothing_WhenNoScoresArePending() {
+        ratingAggregateBuffer.flush();
+
+        verifyNoInteractions(bookRepository);
+    }
+
+    private void complete(boolean committed) {
+        List<TransactionSynchronization> synchronizations = TransactionSynchronizationManager.getSynchronizations();
+        if (committed) synchronizations.forEach(TransactionSynchronization::afterCommit);
+        synchronizations.forEach(synchronization -> synchronization.afterCompletion(
+            committed ? TransactionSynchronization.STATUS_COMMITTED : TransactionSynchronization.STATUS_ROLLED_BACK));
+        TransactionSynchronizationManager.clearSynchronization();
+    }
+}
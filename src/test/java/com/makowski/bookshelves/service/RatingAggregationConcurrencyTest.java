@@ -0,0 +1,127 @@
+package com.makowski.bookshelves.service;
+
+import com.makowski.bookshelves.dto.ScoresDto;
+import com.makowski.bookshelves.entity.Book;
+import com.makowski.bookshelves.entity.ScoreHistogram;
+import com.makowski.bookshelves.index.GenreLeaderboard;
+import com.makowski.bookshelves.repository.BookCache;
+import com.makowski.bookshelves.repository.BookRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.IntConsumer;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+class RatingAggregationConcurrencyTest {
+
+    private static final long BOOK_ID = 2L;
+    private static final int THREADS = 8;
+    private static final int RATINGS_PER_THREAD = 250;
+    private static final int RATINGS = THREADS * RATINGS_PER_THREAD;
+    private static final List<String> RESTORED_COLUMNS = Stream.concat(
+            Stream.of("scores_number", "scores_sum", "rating", "weighted_score", "version", "last_modified"),
+            IntStream.rangeClosed(1, ScoreHistogram.SCORES).mapToObj(ScoreHistogram::column))
+        .toList();
+
+    @Autowired
+    BookService bookService;
+    @Autowired
+    BookRepository bookRepository;
+    @Autowired
+    JdbcTemplate jdbcTemplate;
+    @Autowired
+    BookCache bookCache;
+    @Autowired
+    GenreLeaderboard genreLeaderboard;
+
+    ScoresDto initialScores;
+    Map<String, Object> initialRow;
+
+    @BeforeEach
+    void setUp() {
+        initialScores = bookRepository.findScoresById(BOOK_ID);
+        initialRow = jdbcTemplate.queryForMap("select " + String.join(", ", RESTORED_COLUMNS) + " from books where id = ?", BOOK_ID);
+    }
+
+    @AfterEach
+    void tearDown() {
+        List<Object> values = new ArrayList<>();
+        for (String column : RESTORED_COLUMNS) values.add(initialRow.get(column));
+        values.add(BOOK_ID);
+        jdbcTemplate.update("update books set " + RESTORED_COLUMNS.stream().map(column -> column + " = ?").collect(Collectors.joining(", "))
+            + " where id = ?", values.toArray());
+        bookCache.evictAll();
+        genreLeaderboard.clear();
+    }
+
+    @Test
+    void changeScores_KeepsAggregatesConsistent_WhenOneBookIsRatedConcurrently() throws Exception {
+        Book book = bookService.getBook(BOOK_ID);
+
+        int failures = rateConcurrently(i -> bookService.changeScores(book, 0, score(i)));
+
+        ScoresDto scores = bookRepository.findScoresById(BOOK_ID);
+        int expectedNumber = initialScores.getScoresNumber() + RATINGS;
+        int expectedSum = initialScores.getScoresSum() + expectedSumOfScores();
+        assertEquals(0, failures);
+        assertEquals(expectedNumber, scores.getScoresNumber());
+        assertEquals(expectedSum, scores.getScoresSum());
+        assertEquals(BigDecimal.valueOf(expectedSum).divide(BigDecimal.valueOf(expectedNumber), 1, RoundingMode.HALF_UP).floatValue(), scores.getRating());
+    }
+
+    private int rateConcurrently(IntConsumer rate) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<Integer>> futures = new ArrayList<>();
+        for (int thread = 0; thread < THREADS; thread++) {
+            int first = thread * RATINGS_PER_THREAD;
+            Callable<Integer> task = () -> {
+                start.await();
+                int failures = 0;
+                for (int i = first; i < first + RATINGS_PER_THREAD; i++) {
+                    try {
+                        rate.accept(i);
+                    } catch (RuntimeException e) {
+                        failures++;
+                    }
+                }
+                return failures;
+            };
+            futures.add(executor.submit(task));
+        }
+        start.countDown();
+        int failures = 0;
+        for (Future<Integer> future : futures) failures += future.get();
+        executor.shutdown();
+        return failures;
+    }
+
+    private static int score(int i) {
+        return i % 10 + 1;
+    }
+
+    private static int expectedSumOfScores() {
+        int sum = 0;
+        for (int i = 0; i < RATINGS; i++) sum += score(i);
+        return sum;
+    }
+}
@@ -1,5 +1,6 @@
 package com.makowski.bookshelves.service;
 
+import com.makowski.bookshelves.dto.VersionDto;
 import com.makowski.bookshelves.entity.Book;
 import com.makowski.bookshelves.entity.Rating;
 import com.makowski.bookshelves.entity.User;
@@ -14,6 +15,7 @@ import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 
+import java.time.Instant;
 import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -70,7 +72,7 @@ class RatingServiceTest {
         rating.setUser(user);
 
         when(ratingRepository.findById(1L)).thenReturn(Optional.of(rating));
-        when(userService.getLoggedUser()).thenReturn(user);
+        when(userService.getLoggedUserId()).thenReturn(user.getId());
 
         Rating result = ratingService.showRating(1L);
 
@@ -86,13 +88,40 @@ class RatingServiceTest {
         rating.setUser(ratingOwner);
 
         when(ratingRepository.findById(1L)).thenReturn(Optional.of(rating));
-        when(userService.getLoggedUser()).thenReturn(loggedUser);
+        when(userService.getLoggedUserId()).thenReturn(loggedUser.getId());
 
         Rating result = ratingService.showRating(1L);
 
         assertNull(result.getUser());
     }
 
+    @Test
+    void getRatingVersion_CombinesVersionsOfRatingUserAndBook() {
+        Rating rating = TestDataFactory.createTestRating();
+        rating.setVersion(2);
+        rating.setLastModified(Instant.parse("2024-05-01T10:00:00Z"));
+        rating.setUser(TestDataFactory.createTestUser());
+        rating.getUser().setVersion(5);
+        rating.setBook(TestDataFactory.createTestBook());
+        rating.getBook().setVersion(7);
+        rating.getBook().setScoresNumber(3);
+        rating.getBook().setScoresSum(20);
+        rating.getBook().setLastModified(Instant.parse("2024-05-02T10:00:00Z"));
+
+        VersionDto result = ratingService.getRatingVersion(rating);
+
+        assertEquals("r2-u5-b7-r3.20", result.getETag());
+        assertEquals(Instant.parse("2024-05-02T10:00:00Z").toEpochMilli(), result.getLastModified());
+    }
+
+    @Test
+    void getRatingVersion_ReturnsDifferentVersion_WhenUserIsHidden() {
+        Rating rating = TestDataFactory.createTestRating();
+        rating.setBook(TestDataFactory.createTestBook());
+
+        assertEquals("r0-u--b0-r1.0", ratingService.getRatingVersion(rating).getETag());
+    }
+
     @Test
     void createRating_ReturnsRatingAndChangeBooksRate_WhenRatingWithScoreSuccessfullyCreated() {
         User user = TestDataFactory.createTestUser();
@@ -110,7 +139,7 @@ class RatingServiceTest {
 
         assertEquals(user, result.getUser());
         assertEquals(book, result.getBook());
-        assertEquals(6.0F, book.getRating());
+        verify(bookService).changeScores(book, 0, 2);
     }
 
     @Test
@@ -129,7 +158,7 @@ class RatingServiceTest {
 
         assertEquals(user, result.getUser());
         assertEquals(book, result.getBook());
-        assertEquals(10.0F, book.getRating());
+        verify(bookService, never()).changeScores(any(), anyInt(), anyInt());
     }
 
     @Test
@@ -170,14 +199,14 @@ class RatingServiceTest {
         newRating.setScore(2);
 
         when(ratingRepository.findById(1L)).thenReturn(Optional.of(rating));
-        when(userService.getLoggedUser()).thenReturn(user);
+        when(userService.getLoggedUserId()).thenReturn(user.getId());
         when(ratingRepository.save(rating)).thenReturn(rating);
 
         Rating result = ratingService.updateRating(1L, newRating);
 
         assertEquals(1L, result.getId());
         assertEquals(2, result.getScore());
-        assertEquals(6.0F, book.getRating());
+        verify(bookService).changeScores(book, 0, 2);
     }
 
     @Test
@@ -189,7 +218,7 @@ class RatingServiceTest {
         newRating.setReview("test");
 
         when(ratingRepository.findById(1L)).thenReturn(Optional.of(rating));
-        when(userService.getLoggedUser()).thenReturn(user);
+        when(userService.getLoggedUserId()).thenReturn(user.getId());
         when(ratingRepository.save(rating)).thenReturn(rating);
 
         Rating result = ratingService.updateRating(1L, newRating);
@@ -207,7 +236,7 @@ class RatingServiceTest {
         Rating newRating = new Rating();
 
         when(ratingRepository.findById(1L)).thenReturn(Optional.of(rating));
-        when(userService.getLoggedUser()).thenReturn(loggedUser);
+        when(userService.getLoggedUserId()).thenReturn(loggedUser.getId());
 
         assertThrows(AccessDeniedException.class, () -> ratingService.updateRating(1L, newRating));
     }
@@ -220,7 +249,7 @@ class RatingServiceTest {
         Rating newRating = new Rating();
 
         when(ratingRepository.findById(1L)).thenReturn(Optional.of(rating));
-        when(userService.getLoggedUser()).thenReturn(user);
+        when(userService.getLoggedUserId()).thenReturn(user.getId());
 
         assertThrows(InvalidRequestException.class, () -> ratingService.updateRating(1L, newRating));
     }
@@ -234,15 +263,14 @@ class RatingServiceTest {
         rating.setBook(book);
         rating.setScore(10);
 
-        when(userService.getLoggedUser()).thenReturn(user);
+        when(userService.getLoggedUserId()).thenReturn(user.getId());
         when(ratingRepository.existsById(1L)).thenReturn(true);
         when(ratingRepository.findById(1L)).thenReturn(Optional.of(rating));
 
         ratingService.deleteRating(1L);
 
         verify(ratingRepository).deleteById(1L);
-        assertEquals(0.0F, book.getRating());
-
+        verify(bookService).changeScores(book, 10, 0);
     }
 
     @Test
@@ -253,14 +281,14 @@ class RatingServiceTest {
         rating.setUser(user);
         rating.setBook(book);
 
-        when(userService.getLoggedUser()).thenReturn(user);
+        when(userService.getLoggedUserId()).thenReturn(user.getId());
         when(ratingRepository.existsById(1L)).thenReturn(true);
         when(ratingRepository.findById(1L)).thenReturn(Optional.of(rating));
 
         ratingService.deleteRating(1L);
 
         verify(ratingRepository).deleteById(1L);
-        assertEquals(10.0F, book.getRating());
+        verify(bookService, never()).changeScores(any(), anyInt(), anyInt());
     }
 
     @Test
@@ -277,7 +305,7 @@ class RatingServiceTest {
         Rating rating = TestDataFactory.createTestRating();
         rating.setUser(ratingOwner);
 
-        when(userService.getLoggedUser()).thenReturn(loggedUser);
+        when(userService.getLoggedUserId()).thenReturn(loggedUser.getId());
         when(ratingRepository.existsById(1L)).thenReturn(true);
         when(ratingRepository.findById(1L)).thenReturn(Optional.of(rating));
 
@@ -285,53 +313,30 @@ class RatingServiceTest {
     }
 
     @Test
-    void changeRating_changesBooksRating_WhenScoreWasAdded() {
+    void changeRating_AddsScoreToBook_WhenScoreWasAdded() {
         Book book = TestDataFactory.createTestBook();
-        book.setScoresSum(10);
 
         ratingService.changeRating(book, 0, 2);
 
-        assertEquals(2, book.getScoresNumber());
-        assertEquals(12, book.getScoresSum());
-        assertEquals(6.0F, book.getRating());
+        verify(bookService).changeScores(book, 0, 2);
     }
 
     @Test
-    void changeRating_changesBooksRating_WhenScoreWasDeletedAndThereIsNoMoreScores() {
+    void changeRating_SubtractsScoreFromBook_WhenScoreWasDeleted() {
         Book book = TestDataFactory.createTestBook();
-        book.setScoresSum(10);
 
         ratingService.changeRating(book, 10, 0);
 
-        assertEquals(0, book.getScoresNumber());
-        assertEquals(0, book.getScoresSum());
-        assertEquals(0, book.getRating());
+        verify(bookService).changeScores(book, 10, 0);
     }
 
     @Test
-    void changeRating_changesBooksRating_WhenScoreWasDeletedAndThereAreAnotherScores() {
+    void changeRating_MovesScoreOnBook_WhenScoreWasEdited() {
         Book book = TestDataFactory.createTestBook();
-        book.setScoresSum(12);
-        book.setScoresNumber(2);
-
-        ratingService.changeRating(book, 10, 0);
-
-        assertEquals(1, book.getScoresNumber());
-        assertEquals(2, book.getScoresSum());
-        assertEquals(2.0F, book.getRating());
-    }
-
-    @Test
-    void changeRating_changesBooksRating_WhenScoreWasEdited() {
-        Book book = TestDataFactory.createTestBook();
-        book.setScoresSum(12);
-        book.setScoresNumber(2);
 
         ratingService.changeRating(book, 10, 6);
 
-        assertEquals(2, book.getScoresNumber());
-        assertEquals(8, book.getScoresSum());
-        assertEquals(4.0F, book.getRating());
+        verify(bookService).changeScores(book, 10, 6);
     }
 
     @Test
@@ -340,7 +345,7 @@ class RatingServiceTest {
         Rating rating = TestDataFactory.createTestRating();
         rating.setUser(user);
 
-        when(userService.getLoggedUser()).thenReturn(user);
+        when(userService.getLoggedUserId()).thenReturn(user.getId());
         when(ratingRepository.findById(1L)).thenReturn(Optional.of(rating));
 
         boolean result = ratingService.isItWrongUser(1L);
@@ -355,7 +360,7 @@ class RatingServiceTest {
         Rating rating = TestDataFactory.createTestRating();
         rating.setUser(ratingOwner);
 
-        when(userService.getLoggedUser()).thenReturn(loggedUser);
+        when(userService.getLoggedUserId()).thenReturn(loggedUser.getId());
         when(ratingRepository.findById(1L)).thenReturn(Optional.of(rating));
 
         boolean result = ratingService.isItWrongUser(1L);
@@ -0,0 +1,60 @@
+package com.makowski.bookshelves.service;
+
+import com.makowski.bookshelves.repository.BookCache;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ScoreHistogramRebuilderTest {
+
+    @Mock
+    JdbcTemplate jdbcTemplate;
+    @Mock
+    PlatformTransactionManager transactionManager;
+    @Mock
+    BookCache bookCache;
+
+    ScoreHistogramRebuilder scoreHistogramRebuilder;
+
+    @BeforeEach
+    void setUp() {
+        scoreHistogramRebuilder = new ScoreHistogramRebuilder(jdbcTemplate, new TransactionTemplate(transactionManager), bookCache, 100);
+    }
+
+    @Test
+    void rebuild_RecountsBooksInChunksOfIds_WhenBooksExist() {
+        when(jdbcTemplate.queryForMap(anyString())).thenReturn(Map.of("first_id", 1L, "last_id", 250L));
+
+        scoreHistogramRebuilder.rebuild();
+
+        verify(jdbcTemplate).update(ScoreHistogramRebuilder.REBUILD_SQL, 1L, 100L);
+        verify(jdbcTemplate).update(ScoreHistogramRebuilder.REBUILD_SQL, 101L, 200L);
+        verify(jdbcTemplate).update(ScoreHistogramRebuilder.REBUILD_SQL, 201L, 250L);
+        verify(transactionManager, times(3)).commit(any());
+        verify(bookCache).evictAll();
+    }
+
+    @Test
+    void rebuild_DoesNothing_WhenThereAreNoBooks() {
+        Map<String, Object> range = new HashMap<>();
+        range.put("first_id", null);
+        range.put("last_id", null);
+        when(jdbcTemplate.queryForMap(anyString())).thenReturn(range);
+
+        scoreHistogramRebuilder.rebuild();
+
+        verify(jdbcTemplate, never()).update(eq(ScoreHistogramRebuilder.REBUILD_SQL), any(), any());
+        verifyNoInteractions(transactionManager, bookCache);
+    }
+}
@@ -1,9 +1,20 @@
 package com.makowski.bookshelves.service;
 
+import com.makowski.bookshelves.dto.BookDto;
+import com.makowski.bookshelves.dto.BookOnShelfDto;
+import com.makowski.bookshelves.dto.ShelfBookDto;
+import com.makowski.bookshelves.dto.ShelfBookResultDto;
+import com.makowski.bookshelves.dto.ShelfBookResultDto.Result;
+import com.makowski.bookshelves.dto.ShelfBooksDto;
+import com.makowski.bookshelves.dto.ShelfDto;
+import com.makowski.bookshelves.dto.ShelfVersionDto;
+import com.makowski.bookshelves.dto.VersionDto;
 import com.makowski.bookshelves.entity.Book;
 import com.makowski.bookshelves.entity.Shelf;
+import com.makowski.bookshelves.entity.ShelfEntryId;
 import com.makowski.bookshelves.entity.User;
 import com.makowski.bookshelves.exceptions.*;
+import com.makowski.bookshelves.repository.ShelfEntryRepository;
 import com.makowski.bookshelves.repository.ShelfRepository;
 import com.makowski.bookshelves.testutils.TestDataFactory;
 import org.junit.jupiter.api.Test;
@@ -12,6 +23,7 @@ import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 
+import java.time.Instant;
 import java.util.List;
 import java.util.Optional;
 
@@ -26,6 +38,8 @@ class ShelfServiceTest {
     @Mock
     ShelfRepository shelfRepository;
     @Mock
+    ShelfEntryRepository shelfEntryRepository;
+    @Mock
     BookService bookService;
     @Mock
     UserService userService;
@@ -69,7 +83,7 @@ class ShelfServiceTest {
         shelf.setOwner(shelfOwner);
 
         when(shelfRepository.findById(3L)).thenReturn(Optional.of(shelf));
-        when(userService.getLoggedUser()).thenReturn(shelfOwner);
+        when(userService.getLoggedUserId()).thenReturn(shelfOwner.getId());
 
         Shelf result = shelfService.showShelf(3L);
 
@@ -85,11 +99,56 @@ class ShelfServiceTest {
         shelf.setOwner(shelfOwner);
 
         when(shelfRepository.findById(3L)).thenReturn(Optional.of(shelf));
-        when(userService.getLoggedUser()).thenReturn(loggedUser);
+        when(userService.getLoggedUserId()).thenReturn(loggedUser.getId());
 
         assertThrows(AccessDeniedException.class, () -> shelfService.showShelf(3L));
     }
 
+    @Test
+    void getShelfVersion_ReturnsVersionOfShelfOwnerAndBooks_WhenOwnerIsPublic() {
+        Instant modified = Instant.parse("2024-05-01T10:15:30Z");
+        when(shelfRepository.findVersionById(3L)).thenReturn(new ShelfVersionDto(2L, false, 4, modified.minusSeconds(60), 1, null, 3, 12, 5, 36, modified));
+
+        VersionDto result = shelfService.getShelfVersion(3L);
+
+        assertEquals("s4-u1-b3.12-r5.36", result.getETag());
+        assertEquals(modified.toEpochMilli(), result.getLastModified());
+        verifyNoInteractions(userService);
+    }
+
+    @Test
+    void getShelfVersion_ThrowsException_WhenOwnerIsPrivateAndUserIsNotOwner() {
+        when(shelfRepository.findVersionById(3L)).thenReturn(new ShelfVersionDto(2L, true, 0, null, 0, null, 0, 0, 0, 0, null));
+        when(userService.getLoggedUserId()).thenReturn(1L);
+
+        assertThrows(AccessDeniedException.class, () -> shelfService.getShelfVersion(3L));
+    }
+
+    @Test
+    void getShelfVersion_ThrowsException_WhenShelfDoesNotExist() {
+        assertThrows(EntityNotFoundException.class, () -> shelfService.getShelfVersion(3L));
+    }
+
+    @Test
+    void getLibrary_GroupsBooksByShelf() {
+        Book book = TestDataFactory.createTestBook();
+        Book anotherBook = TestDataFactory.createMoreTestBooks().get(0);
+        BookDto bookDto = new BookDto(1L, "title1", "author1", 2025, 10.0F, 1, 10.0F);
+        BookDto anotherBookDto = new BookDto(2L, "title2", "author2", 1990, 9.3F, 4, 9.3F);
+
+        when(shelfRepository.findLibraryShelves(1L)).thenReturn(List.of(new ShelfDto(1L, "Want read"), new ShelfDto(2L, "Have read"), new ShelfDto(3L, "Test Shelf")));
+        when(shelfRepository.findLibraryBooks(1L)).thenReturn(List.of(new ShelfBookDto(1L, book), new ShelfBookDto(1L, anotherBook), new ShelfBookDto(3L, book)));
+        when(bookService.getBookDto(book)).thenReturn(bookDto);
+        when(bookService.getBookDto(anotherBook)).thenReturn(anotherBookDto);
+
+        List<ShelfDto> result = shelfService.getLibrary(1L);
+
+        assertEquals(3, result.size());
+        assertEquals(List.of(bookDto, anotherBookDto), result.get(0).getBooks());
+        assertTrue(result.get(1).getBooks().isEmpty());
+        assertEquals(List.of(bookDto), result.get(2).getBooks());
+    }
+
     @Test
     void createOwnShelf_ReturnsShelf_WhenSuccessfullyCreated() {
         User user = TestDataFactory.createTestUser();
@@ -99,6 +158,7 @@ class ShelfServiceTest {
         shelf.setPermanent(false);
         shelf.setOwner(user);
 
+        when(userService.getLoggedUserId()).thenReturn(user.getId());
         when(userService.getLoggedUser()).thenReturn(user);
         when(shelfRepository.save(shelf)).thenReturn(shelf);
 
@@ -120,7 +180,8 @@ class ShelfServiceTest {
         User user = TestDataFactory.createTestUser();
         user.setShelves(TestDataFactory.createTestDefaultLibrary());
 
-        when(userService.getLoggedUser()).thenReturn(user);
+        when(userService.getLoggedUserId()).thenReturn(user.getId());
+        when(shelfRepository.existsByOwnerIdAndNameIgnoreCase(1L, "HAVE READ")).thenReturn(true);
 
         assertThrows(ForbiddenNameException.class, () -> shelfService.createOwnShelf("HAVE READ"));
     }
@@ -144,23 +205,35 @@ class ShelfServiceTest {
     }
 
     @Test
-    void addToShelf_ReturnsUpdatedShelf_WhenBookSuccessfullyAddedToShelf() {
+    void addToShelf_ReturnsShelf_WhenBookSuccessfullyAddedToShelf() {
         User user = TestDataFactory.createTestUser();
         Shelf shelf = TestDataFactory.createTestShelf();
-        Book book = TestDataFactory.createTestBook();
         shelf.setOwner(user);
 
-        when(userService.getLoggedUser()).thenReturn(user);
-        when(bookService.getBook(1L)).thenReturn(book);
+        when(userService.getLoggedUserId()).thenReturn(user.getId());
         when(shelfRepository.findById(3L)).thenReturn(Optional.of(shelf));
-        when(shelfRepository.save(shelf)).thenReturn(shelf);
+        when(bookService.existsById(1L)).thenReturn(true);
+        when(shelfEntryRepository.existsById(new ShelfEntryId(3L, 1L))).thenReturn(false);
 
         Shelf result = shelfService.addToShelf(1L, 3L);
 
-        assertEquals(shelf.getName(), result.getName());
-        assertEquals(user, result.getOwner());
-        assertEquals(book, result.getBooks().get(0));
-        verify(shelfRepository).save(shelf);
+        assertEquals(shelf, result);
+        verify(shelfEntryRepository).addAll(3L, List.of(1L));
+        verify(shelfRepository, never()).save(any());
+    }
+
+    @Test
+    void addToShelf_ThrowsException_WhenBookDoesNotExist() {
+        User user = TestDataFactory.createTestUser();
+        Shelf shelf = TestDataFactory.createTestShelf();
+        shelf.setOwner(user);
+
+        when(userService.getLoggedUserId()).thenReturn(user.getId());
+        when(shelfRepository.findById(3L)).thenReturn(Optional.of(shelf));
+        when(bookService.existsById(1L)).thenReturn(false);
+
+        assertThrows(EntityNotFoundException.class, () -> shelfService.addToShelf(1L, 3L));
+        verify(shelfEntryRepository, never()).addAll(any(), any());
     }
 
     @Test
@@ -170,7 +243,7 @@ class ShelfServiceTest {
         Shelf shelf = TestDataFactory.createTestShelf();
         shelf.setOwner(shelfOwner);
 
-        when(userService.getLoggedUser()).thenReturn(loggedUser);
+        when(userService.getLoggedUserId()).thenReturn(loggedUser.getId());
         when(shelfRepository.findById(3L)).thenReturn(Optional.of(shelf));
 
         assertThrows(AccessDeniedException.class, () -> shelfService.addToShelf(1L, 3L));
@@ -179,18 +252,17 @@ class ShelfServiceTest {
 
     @Test
     void addToShelf_ThrowsException_WhenThisBookAlreadyExistOnThisShelf() {
-        Book book = TestDataFactory.createTestBook();
         User user = TestDataFactory.createTestUser();
         Shelf shelf = TestDataFactory.createTestShelf();
-
-        shelf.getBooks().add(book);
         shelf.setOwner(user);
 
-        when(userService.getLoggedUser()).thenReturn(user);
+        when(userService.getLoggedUserId()).thenReturn(user.getId());
         when(shelfRepository.findById(3L)).thenReturn(Optional.of(shelf));
-        when(bookService.getBook(1L)).thenReturn(book);
+        when(bookService.existsById(1L)).thenReturn(true);
+        when(shelfEntryRepository.existsById(new ShelfEntryId(3L, 1L))).thenReturn(true);
 
         assertThrows(InvalidRequestException.class, () -> shelfService.addToShelf(1L, 3L));
+        verify(shelfEntryRepository, never()).addAll(any(), any());
     }
 
     @Test
@@ -201,7 +273,7 @@ class ShelfServiceTest {
 
         when(shelfRepository.existsById(3L)).thenReturn(true);
         when(shelfRepository.findById(3L)).thenReturn(Optional.of(shelf));
-        when(userService.getLoggedUser()).thenReturn(user);
+        when(userService.getLoggedUserId()).thenReturn(user.getId());
 
         shelfService.deleteShelf(3L);
         verify(shelfRepository).deleteById(3L);
@@ -223,7 +295,7 @@ class ShelfServiceTest {
 
         when(shelfRepository.existsById(3L)).thenReturn(true);
         when(shelfRepository.findById(3L)).thenReturn(Optional.of(shelf));
-        when(userService.getLoggedUser()).thenReturn(loggedUser);
+        when(userService.getLoggedUserId()).thenReturn(loggedUser.getId());
 
         assertThrows(AccessDeniedException.class, () -> shelfService.deleteShelf(3L));
     }
@@ -237,7 +309,7 @@ class ShelfServiceTest {
 
         when(shelfRepository.existsById(3L)).thenReturn(true);
         when(shelfRepository.findById(3L)).thenReturn(Optional.of(shelf));
-        when(userService.getLoggedUser()).thenReturn(user);
+        when(userService.getLoggedUserId()).thenReturn(user.getId());
 
         assertThrows(PermanentShelfException.class, () -> shelfService.deleteShelf(3L));
     }
@@ -249,7 +321,7 @@ class ShelfServiceTest {
         user.getShelves().add(shelf);
         shelf.setOwner(user);
 
-        when(userService.getLoggedUser()).thenReturn(user);
+        when(userService.getLoggedUserId()).thenReturn(user.getId());
         when(shelfRepository.findById(3L)).thenReturn(Optional.of(shelf));
         when(shelfRepository.save(shelf)).thenReturn(shelf);
 
@@ -272,7 +344,7 @@ class ShelfServiceTest {
         Shelf shelf = TestDataFactory.createTestShelf();
         shelf.setOwner(owner);
 
-        when(userService.getLoggedUser()).thenReturn(loggedUser);
+        when(userService.getLoggedUserId()).thenReturn(loggedUser.getId());
         when(shelfRepository.findById(3L)).thenReturn(Optional.of(shelf));
 
         assertThrows(AccessDeniedException.class, () -> shelfService.renameShelf(3L, "New name"));
@@ -284,7 +356,7 @@ class ShelfServiceTest {
         user.setShelves(TestDataFactory.createTestDefaultLibrary());
         user.getShelves().get(0).setOwner(user);
 
-        when(userService.getLoggedUser()).thenReturn(user);
+        when(userService.getLoggedUserId()).thenReturn(user.getId());
         when(shelfRepository.findById(1L)).thenReturn(Optional.of(user.getShelves().get(0)));
 
         assertThrows(PermanentShelfException.class, () -> shelfService.renameShelf(1L, "New name"));
@@ -298,29 +370,27 @@ class ShelfServiceTest {
         library.get(2).setOwner(user);
         user.setShelves(library);
 
-        when(userService.getLoggedUser()).thenReturn(user);
+        when(userService.getLoggedUserId()).thenReturn(user.getId());
         when(shelfRepository.findById(3L)).thenReturn(Optional.of(user.getShelves().get(2)));
+        when(shelfRepository.existsByOwnerIdAndNameIgnoreCase(1L, "HAVE READ")).thenReturn(true);
 
         assertThrows(ForbiddenNameException.class, () -> shelfService.renameShelf(3L, "HAVE READ"));
     }
 
     @Test
-    void deleteBookFromShelf_ReturnsUpdatedShelf_WhenSuccessfullyUpdated() {
-        Book book = TestDataFactory.createTestBook();
+    void deleteBookFromShelf_ReturnsShelf_WhenSuccessfullyUpdated() {
         User user = TestDataFactory.createTestUser();
         Shelf shelf = TestDataFactory.createTestShelf();
         shelf.setOwner(user);
-        shelf.getBooks().add(book);
 
-        when(userService.getLoggedUser()).thenReturn(user);
+        when(userService.getLoggedUserId()).thenReturn(user.getId());
         when(shelfRepository.findById(3L)).thenReturn(Optional.of(shelf));
-        when(bookService.getBook(1L)).thenReturn(book);
-        when(shelfRepository.save(shelf)).thenReturn(shelf);
+        when(shelfEntryRepository.remove(3L, 1L)).thenReturn(1);
 
         Shelf result = shelfService.deleteBookFromShelf(1L, 3L);
 
-        assertEquals(0, result.getBooks().size());
-        verify(shelfRepository).save(shelf);
+        assertEquals(shelf, result);
+        verify(shelfRepository, never()).save(any());
     }
 
     @Test
@@ -330,7 +400,7 @@ class ShelfServiceTest {
         Shelf shelf = TestDataFactory.createTestShelf();
         shelf.setOwner(shelfOwner);
 
-        when(userService.getLoggedUser()).thenReturn(loggedUser);
+        when(userService.getLoggedUserId()).thenReturn(loggedUser.getId());
         when(shelfRepository.findById(3L)).thenReturn(Optional.of(shelf));
 
         assertThrows(AccessDeniedException.class, () -> shelfService.deleteBookFromShelf(1L, 3L));
@@ -338,25 +408,83 @@ class ShelfServiceTest {
 
     @Test
     void deleteBookFromShelf_ThrowsException_WhenBookDoesNotExistOnThisShelf() {
-        Book book = TestDataFactory.createTestBook();
         User user = TestDataFactory.createTestUser();
         Shelf shelf = TestDataFactory.createTestShelf();
         shelf.setOwner(user);
 
-        when(userService.getLoggedUser()).thenReturn(user);
+        when(userService.getLoggedUserId()).thenReturn(user.getId());
         when(shelfRepository.findById(3L)).thenReturn(Optional.of(shelf));
-        when(bookService.getBook(1L)).thenReturn(book);
+        when(shelfEntryRepository.remove(3L, 1L)).thenReturn(0);
 
         assertThrows(EntityNotFoundException.class, () -> shelfService.deleteBookFromShelf(1L, 3L));
     }
 
+    @Test
+    void updateShelfBooks_ReturnsResultForEveryBook_WhenPermitted() {
+        User user = TestDataFactory.createTestUser();
+        Shelf shelf = TestDataFactory.createTestShelf();
+        shelf.setOwner(user);
+        ShelfBooksDto shelfBooks = new ShelfBooksDto(List.of(1L, 2L, 3L, 1L), List.of(4L, 5L, 6L));
+
+        when(userService.getLoggedUserId()).thenReturn(user.getId());
+        when(shelfRepository.touch(eq(3L), eq(user.getId()), any())).thenReturn(1);
+        when(shelfEntryRepository.findBooksOnShelf(eq(3L), anyCollection())).thenReturn(List.of(
+            new BookOnShelfDto(1L, null), new BookOnShelfDto(2L, 3L), new BookOnShelfDto(4L, 3L), new BookOnShelfDto(5L, null)));
+
+        List<ShelfBookResultDto> results = shelfService.updateShelfBooks(3L, shelfBooks);
+
+        assertEquals(List.of(1L, 2L, 3L, 4L, 5L, 6L), results.stream().map(ShelfBookResultDto::getBookId).toList());
+        assertEquals(List.of(Result.ADDED, Result.ALREADY_ON_SHELF, Result.BOOK_NOT_FOUND, Result.REMOVED, Result.NOT_ON_SHELF, Result.BOOK_NOT_FOUND),
+            results.stream().map(ShelfBookResultDto::getResult).toList());
+        verify(shelfEntryRepository).findBooksOnShelf(eq(3L), anyCollection());
+        verify(shelfEntryRepository).addAll(3L, List.of(1L));
+        verify(shelfEntryRepository).removeAll(3L, List.of(4L));
+    }
+
+    @Test
+    void updateShelfBooks_ThrowsException_WhenUserDoesNotOwnShelf() {
+        User loggedUser = TestDataFactory.createTestUser();
+        User shelfOwner = TestDataFactory.createAnotherTestUser();
+        Shelf shelf = TestDataFactory.createTestShelf();
+        shelf.setOwner(shelfOwner);
+
+        when(userService.getLoggedUserId()).thenReturn(loggedUser.getId());
+        when(shelfRepository.touch(eq(3L), eq(loggedUser.getId()), any())).thenReturn(0);
+        when(shelfRepository.findById(3L)).thenReturn(Optional.of(shelf));
+
+        assertThrows(AccessDeniedException.class, () -> shelfService.updateShelfBooks(3L, new ShelfBooksDto(List.of(1L), null)));
+        verify(shelfEntryRepository, never()).addAll(any(), any());
+    }
+
+    @Test
+    void updateShelfBooks_ThrowsException_WhenShelfDoesNotExist() {
+        when(userService.getLoggedUserId()).thenReturn(1L);
+        when(shelfRepository.findById(3L)).thenReturn(Optional.empty());
+
+        assertThrows(EntityNotFoundException.class, () -> shelfService.updateShelfBooks(3L, new ShelfBooksDto(List.of(1L), null)));
+        verifyNoInteractions(shelfEntryRepository);
+    }
+
+    @Test
+    void updateShelfBooks_ThrowsException_WhenNoBookIdsProvided() {
+        assertThrows(InvalidRequestException.class, () -> shelfService.updateShelfBooks(3L, new ShelfBooksDto(null, List.of())));
+        verifyNoInteractions(shelfRepository, shelfEntryRepository);
+    }
+
+    @Test
+    void updateShelfBooks_ThrowsException_WhenBookIsAddedAndRemoved() {
+        assertThrows(InvalidRequestException.class, () -> shelfService.updateShelfBooks(3L, new ShelfBooksDto(List.of(1L, 2L), List.of(2L))));
+        verifyNoInteractions(shelfRepository, shelfEntryRepository);
+    }
+
     @Test
     void isItProperName_ReturnsTrue_WhenUserDoesNotHaveShelfWithThisName() {
         User user = TestDataFactory.createTestUser();
         Shelf shelf = TestDataFactory.createTestShelf();
         user.getShelves().add(shelf);
 
-        when(userService.getLoggedUser()).thenReturn(user);
+        when(userService.getLoggedUserId()).thenReturn(user.getId());
+        when(shelfRepository.existsByOwnerIdAndNameIgnoreCase(1L, "NEW SHELF")).thenReturn(false);
 
         boolean result = shelfService.isItProperName("NEW SHELF");
 
@@ -369,7 +497,8 @@ class ShelfServiceTest {
         Shelf shelf = TestDataFactory.createTestShelf();
         user.getShelves().add(shelf);
 
-        when(userService.getLoggedUser()).thenReturn(user);
+        when(userService.getLoggedUserId()).thenReturn(user.getId());
+        when(shelfRepository.existsByOwnerIdAndNameIgnoreCase(1L, "TEST SHELF")).thenReturn(true);
 
         boolean result = shelfService.isItProperName("TEST SHELF");
 
@@ -382,7 +511,7 @@ class ShelfServiceTest {
         Shelf shelf = TestDataFactory.createTestShelf();
         shelf.setOwner(user);
 
-        when(userService.getLoggedUser()).thenReturn(user);
+        when(userService.getLoggedUserId()).thenReturn(user.getId());
         when(shelfRepository.findById(3L)).thenReturn(Optional.of(shelf));
 
         boolean result = shelfService.isItWrongUser(3L);
@@ -397,7 +526,7 @@ class ShelfServiceTest {
         Shelf shelf = TestDataFactory.createTestShelf();
         shelf.setOwner(shelfOwner);
 
-        when(userService.getLoggedUser()).thenReturn(loggedUser);
+        when(userService.getLoggedUserId()).thenReturn(loggedUser.getId());
         when(shelfRepository.findById(3L)).thenReturn(Optional.of(shelf));
 
         boolean result = shelfService.isItWrongUser(3L);
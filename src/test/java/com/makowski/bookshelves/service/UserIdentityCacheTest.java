@@ -0,0 +1,44 @@
+package com.makowski.bookshelves.service;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class UserIdentityCacheTest {
+
+    UserIdentityCache userIdentityCache = new UserIdentityCache(10);
+
+    @Test
+    void get_DoesNotCacheLoadedIdentity_WhenUserIsEvictedDuringLoad() {
+        UserIdentityCache.Identity stale = new UserIdentityCache.Identity(1L, "John", false);
+        UserIdentityCache.Identity current = new UserIdentityCache.Identity(1L, "John", true);
+
+        UserIdentityCache.Identity result = userIdentityCache.get(1L, () -> {
+            userIdentityCache.evict(1L);
+            return stale;
+        });
+
+        assertSame(stale, result);
+        assertEquals(0, userIdentityCache.size());
+        assertSame(current, userIdentityCache.get(1L, () -> current));
+    }
+
+    @Test
+    void evict_RemovesIdentityAgainAfterCompletion_WhenTransactionIsActive() {
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            userIdentityCache.evict(1L);
+            userIdentityCache.get(1L, () -> new UserIdentityCache.Identity(1L, "John", false));
+            assertEquals(1, userIdentityCache.size());
+
+            TransactionSynchronizationManager.getSynchronizations()
+                .forEach(synchronization -> synchronization.afterCompletion(TransactionSynchronization.STATUS_COMMITTED));
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+
+        assertEquals(0, userIdentityCache.size());
+    }
+}
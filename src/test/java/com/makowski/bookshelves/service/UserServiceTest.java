@@ -1,17 +1,21 @@
 package com.makowski.bookshelves.service;
 
+import com.makowski.bookshelves.dto.PageDto;
 import com.makowski.bookshelves.dto.PasswordDto;
+import com.makowski.bookshelves.dto.ShelfDto;
 import com.makowski.bookshelves.dto.UserDto;
 import com.makowski.bookshelves.entity.Rating;
 import com.makowski.bookshelves.entity.User;
-import com.makowski.bookshelves.entity.Shelf;
 import com.makowski.bookshelves.exceptions.*;
+import com.makowski.bookshelves.index.UsernameIndex;
+import com.makowski.bookshelves.repository.RatingRepository;
 import com.makowski.bookshelves.repository.UserRepository;
 import com.makowski.bookshelves.testutils.TestDataFactory;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.Authentication;
@@ -39,6 +43,12 @@ class UserServiceTest {
     UserRepository userRepository;
     @Mock
     BCryptPasswordEncoder bCryptPasswordEncoder;
+    @Spy
+    UsernameIndex usernameIndex = new UsernameIndex();
+    @Mock
+    RatingRepository ratingRepository;
+    @Spy
+    UserIdentityCache userIdentityCache = new UserIdentityCache(10);
 
     @Test
     void createUser_ReturnsUser_WhenUserSuccessfullyCreated() {
@@ -54,6 +64,7 @@ class UserServiceTest {
 
         verify(userRepository).save(user);
         verify(shelfService).createShelf("Want read", true, user);
+        verify(usernameIndex).index(user);
         assertEquals("encodedPassword", result.getPassword());
     }
 
@@ -114,6 +125,35 @@ class UserServiceTest {
         assertThrows(EntityNotFoundException.class, () -> userService.findByUsername("TestUser"));
     }
 
+    @Test
+    void getLoggedUserId_ReturnsIdFromToken_WithoutQueryingUserTwice() {
+        UsernamePasswordAuthenticationToken authentication = new UsernamePasswordAuthenticationToken("username1", null);
+        authentication.setDetails(1L);
+        SecurityContext context = SecurityContextHolder.createEmptyContext();
+        context.setAuthentication(authentication);
+        SecurityContextHolder.setContext(context);
+
+        when(userRepository.findById(1L)).thenReturn(Optional.of(TestDataFactory.createTestUser()));
+
+        assertEquals(1L, userService.getLoggedUserId());
+        assertEquals(1L, userService.getLoggedUserId());
+        verify(userRepository, times(1)).findById(1L);
+        verify(userRepository, never()).findByUsername(any());
+    }
+
+    @Test
+    void getLoggedUserId_ThrowsException_WhenUserFromTokenWasDeleted() {
+        UsernamePasswordAuthenticationToken authentication = new UsernamePasswordAuthenticationToken("username1", null);
+        authentication.setDetails(1L);
+        SecurityContext context = SecurityContextHolder.createEmptyContext();
+        context.setAuthentication(authentication);
+        SecurityContextHolder.setContext(context);
+
+        when(userRepository.findById(1L)).thenReturn(Optional.empty());
+
+        assertThrows(EntityNotFoundException.class, () -> userService.getLoggedUserId());
+    }
+
     @Test
     void changePassword_ChangesPassword_WhenPasswordsAreCorrect() {
         SecurityContext context = SecurityContextHolder.createEmptyContext();
@@ -197,6 +237,8 @@ class UserServiceTest {
         userService.deleteUser(1L);
 
         verify(userRepository).deleteById(1L);
+        verify(usernameIndex).remove(1L);
+        verify(userIdentityCache).evict(1L);
     }
 
     @Test
@@ -236,17 +278,18 @@ class UserServiceTest {
         User result = userService.changePrivacyStatus();
 
         assertTrue(result.isPrivateProfile());
+        verify(userIdentityCache).evict(1L);
     }
 
     @Test
     void getUsersLibrary_ReturnsShelves_WhenProfileIsPublic() {
-        List<Shelf> library = TestDataFactory.createTestDefaultLibrary();
+        List<ShelfDto> library = List.of(new ShelfDto(1L, "Want read"), new ShelfDto(2L, "Have read"));
         User user = TestDataFactory.createTestUser();
-        user.setShelves(library);
 
         when(userRepository.findById(1L)).thenReturn(Optional.of(user));
+        when(shelfService.getLibrary(1L)).thenReturn(library);
 
-        List<Shelf> result = userService.getUsersLibrary(1L);
+        List<ShelfDto> result = userService.getUsersLibrary(1L);
 
         assertEquals(library, result);
     }
@@ -258,15 +301,15 @@ class UserServiceTest {
         context.setAuthentication(authentication);
         SecurityContextHolder.setContext(context);
 
-        List<Shelf> library = TestDataFactory.createTestDefaultLibrary();
+        List<ShelfDto> library = List.of(new ShelfDto(1L, "Want read"), new ShelfDto(2L, "Have read"));
         User user = TestDataFactory.createTestUser();
-        user.setShelves(library);
         user.setPrivateProfile(true);
 
         when(userRepository.findById(1L)).thenReturn(Optional.of(user));
         when(userRepository.findByUsername("username1")).thenReturn(Optional.of(user));
+        when(shelfService.getLibrary(1L)).thenReturn(library);
 
-        List<Shelf> result = userService.getUsersLibrary(1L);
+        List<ShelfDto> result = userService.getUsersLibrary(1L);
 
         assertEquals(library, result);
     }
@@ -292,14 +335,15 @@ class UserServiceTest {
     void showUsersRatings_ReturnRatings_WhenProfileIsPublic() {
         Rating rating = TestDataFactory.createTestRating();
         User user = TestDataFactory.createTestUser();
-        user.getRatings().add(rating);
 
         when(userRepository.findById(1L)).thenReturn(Optional.of(user));
+        when(ratingRepository.findByUserIdAfter(eq(1L), eq(0L), any())).thenReturn(List.of(rating));
 
-        List<Rating> result = userService.showUsersRatings(1L);
+        PageDto<Rating> result = userService.showUsersRatings(1L, null, null);
 
-        assertEquals(1, result.size());
-        assertEquals(rating, result.get(0));
+        assertEquals(1, result.getItems().size());
+        assertEquals(rating, result.getItems().get(0));
+        assertNull(result.getNextCursor());
     }
 
     @Test
@@ -312,15 +356,15 @@ class UserServiceTest {
         Rating rating = TestDataFactory.createTestRating();
         User user = TestDataFactory.createTestUser();
         user.setPrivateProfile(true);
-        user.getRatings().add(rating);
 
         when(userRepository.findById(1L)).thenReturn(Optional.of(user));
         when(userRepository.findByUsername("username1")).thenReturn(Optional.of(user));
+        when(ratingRepository.findByUserIdAfter(eq(1L), eq(0L), any())).thenReturn(List.of(rating));
 
-        List<Rating> result = userService.showUsersRatings(1L);
+        PageDto<Rating> result = userService.showUsersRatings(1L, null, null);
 
-        assertEquals(1, result.size());
-        assertEquals(rating, result.get(0));
+        assertEquals(1, result.getItems().size());
+        assertEquals(rating, result.getItems().get(0));
     }
 
     @Test
@@ -337,7 +381,7 @@ class UserServiceTest {
         when(userRepository.findById(1L)).thenReturn(Optional.of(user));
         when(userRepository.findByUsername("username2")).thenReturn(Optional.of(loggedUser));
 
-        assertThrows(AccessDeniedException.class, () -> userService.showUsersRatings(1L));
+        assertThrows(AccessDeniedException.class, () -> userService.showUsersRatings(1L, null, null));
     }
 
     @Test
@@ -345,8 +389,9 @@ class UserServiceTest {
         User user = TestDataFactory.createTestUser();
 
         when(userRepository.findById(1L)).thenReturn(Optional.of(user));
+        when(ratingRepository.findByUserIdAfter(eq(1L), eq(0L), any())).thenReturn(List.of());
 
-        assertThrows(EntityNotFoundException.class, () -> userService.showUsersRatings(1L));
+        assertThrows(EntityNotFoundException.class, () -> userService.showUsersRatings(1L, null, null));
     }
 
     @Test
@@ -372,19 +417,47 @@ class UserServiceTest {
         List<User> users = new ArrayList<>();
         users.add(TestDataFactory.createTestUser());
         users.add(TestDataFactory.createAnotherTestUser());
+        usernameIndex.rebuild(users);
 
-        when(userRepository.findAll()).thenReturn(users);
-        when(userRepository.findById(1L)).thenReturn(Optional.of(users.get(0)));
-        when(userRepository.findById(2L)).thenReturn(Optional.of(users.get(1)));
+        PageDto<UserDto> result = userService.findUser("username", null, null);
 
-        List<UserDto> result = userService.findUser("username");
+        assertEquals(2, result.getItems().size());
+        assertEquals("username1", result.getItems().get(0).getUsername());
+        assertNull(result.getNextCursor());
+        verifyNoInteractions(userRepository);
+    }
 
-        assertEquals(2, result.size());
+    @Test
+    void findUser_ReturnsNextPage_WhenCursorIsProvided() {
+        List<User> users = new ArrayList<>();
+        users.add(TestDataFactory.createTestUser());
+        users.add(TestDataFactory.createAnotherTestUser());
+        usernameIndex.rebuild(users);
+
+        PageDto<UserDto> firstPage = userService.findUser("username", null, 1);
+        PageDto<UserDto> secondPage = userService.findUser("username", firstPage.getNextCursor(), 1);
+
+        assertEquals(1L, firstPage.getItems().get(0).getId());
+        assertEquals(2L, secondPage.getItems().get(0).getId());
+        assertNull(secondPage.getNextCursor());
+    }
+
+    @Test
+    void findUser_ReturnsMatchingUsers_WhenPhraseIsShorterThanTrigram() {
+        List<User> users = new ArrayList<>();
+        users.add(TestDataFactory.createTestUser());
+        users.add(TestDataFactory.createAnotherTestUser());
+        usernameIndex.rebuild(users);
+
+        PageDto<UserDto> result = userService.findUser("E2", null, null);
+
+        assertEquals(1, result.getItems().size());
+        assertEquals(2L, result.getItems().get(0).getId());
     }
 
     @Test
     void findUser_ThrowsException_WhenSearchPhraseIsBlank() {
-        assertThrows(InvalidRequestException.class, () -> userService.findUser("  "));
+        assertThrows(InvalidRequestException.class, () -> userService.findUser("  ", null, null));
     }
 
     @Test
@@ -392,10 +465,9 @@ class UserServiceTest {
         List<User> users = new ArrayList<>();
         users.add(TestDataFactory.createTestUser());
         users.add(TestDataFactory.createAnotherTestUser());
+        usernameIndex.rebuild(users);
 
-        when(userRepository.findAll()).thenReturn(users);
-
-        assertThrows(EntityNotFoundException.class, () -> userService.findUser("test"));
+        assertThrows(EntityNotFoundException.class, () -> userService.findUser("test", null, null));
     }
 
     @Test
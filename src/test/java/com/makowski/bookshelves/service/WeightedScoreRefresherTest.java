@@ -0,0 +1,102 @@
+package com.makowski.bookshelves.service;
+
+import com.makowski.bookshelves.index.GenreLeaderboard;
+import com.makowski.bookshelves.repository.BookCache;
+import com.makowski.bookshelves.repository.GenreMeans;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class WeightedScoreRefresherTest {
+
+    @Mock
+    GenreMeans genreMeans;
+    @Mock
+    PlatformTransactionManager transactionManager;
+    @Mock
+    BookCache bookCache;
+    @Mock
+    GenreLeaderboard genreLeaderboard;
+
+    WeightedScoreRefresher weightedScoreRefresher;
+
+    @BeforeEach
+    void setUp() {
+        weightedScoreRefresher = new WeightedScoreRefresher(genreMeans, new TransactionTemplate(transactionManager), bookCache, genreLeaderboard, 0.05, 2, 100);
+    }
+
+    @AfterEach
+    void tearDown() {
+        weightedScoreRefresher.shutdown();
+    }
+
+    @Test
+    void refresh_RescoresOnlyDriftedGenres_WhenMeansMoved() {
+        when(genreMeans.getMeans()).thenReturn(Map.of("crime", 7.0, "fantasy", 6.0, "horror", 5.0));
+        when(genreMeans.compute()).thenReturn(Map.of("crime", 7.04, "fantasy", 6.5, "poetry", 8.0));
+        when(genreMeans.idRange(anyString())).thenReturn(new long[] { 1, 50 });
+        when(genreMeans.rescore(anyString(), anyDouble(), anyLong(), anyLong())).thenReturn(1);
+
+        List<String> result = weightedScoreRefresher.refresh();
+
+        assertEquals(Set.of("fantasy", "poetry"), Set.copyOf(result));
+        Map<String, Double> used = Map.of("crime", 7.0, "fantasy", 6.5, "poetry", 8.0);
+        verify(genreMeans).save(used);
+        verify(genreMeans).use(used);
+        verify(genreMeans).rescore("fantasy", 6.5, 1, 50);
+        verify(genreMeans).rescore("poetry", 8.0, 1, 50);
+        verify(genreMeans, never()).rescore(eq("crime"), anyDouble(), anyLong(), anyLong());
+        verify(bookCache).evictAll();
+        verify(genreLeaderboard).clear();
+    }
+
+    @Test
+    void refresh_RescoresGenreInIdRangedChunks_EachInOwnTransaction() {
+        when(genreMeans.getMeans()).thenReturn(Map.of("fantasy", 6.0));
+        when(genreMeans.compute()).thenReturn(Map.of("fantasy", 6.5));
+        when(genreMeans.idRange("fantasy")).thenReturn(new long[] { 1, 250 });
+        when(genreMeans.rescore(eq("fantasy"), eq(6.5), anyLong(), anyLong())).thenReturn(100, 100, 50);
+
+        weightedScoreRefresher.refresh();
+
+        verify(genreMeans).rescore("fantasy", 6.5, 1, 100);
+        verify(genreMeans).rescore("fantasy", 6.5, 101, 200);
+        verify(genreMeans).rescore("fantasy", 6.5, 201, 250);
+        verify(transactionManager, times(4)).commit(any());
+    }
+
+    @Test
+    void refresh_SkipsRescore_WhenGenreHasNoBooks() {
+        when(genreMeans.getMeans()).thenReturn(Map.of("fantasy", 6.0));
+        when(genreMeans.compute()).thenReturn(Map.of("fantasy", 6.5));
+        when(genreMeans.idRange("fantasy")).thenReturn(new long[0]);
+
+        weightedScoreRefresher.refresh();
+
+        verify(genreMeans, never()).rescore(anyString(), anyDouble(), anyLong(), anyLong());
+        verify(genreLeaderboard).clear();
+    }
+
+    @Test
+    void refresh_DoesNothing_WhenNoGenreDrifted() {
+        when(genreMeans.getMeans()).thenReturn(Map.of("crime", 7.0));
+        when(genreMeans.compute()).thenReturn(Map.of("crime", 7.03));
+
+        assertTrue(weightedScoreRefresher.refresh().isEmpty());
+        verify(genreMeans, never()).save(any());
+        verifyNoInteractions(transactionManager, bookCache, genreLeaderboard);
+    }
+}
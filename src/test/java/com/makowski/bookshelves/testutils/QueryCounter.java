@@ -0,0 +1,38 @@
+package com.makowski.bookshelves.testutils;
+
+import com.makowski.bookshelves.metrics.RequestStatistics;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class QueryCounter {
+
+    private final RequestStatistics requestStatistics;
+
+    public QueryCounter(RequestStatistics requestStatistics) {
+        this.requestStatistics = requestStatistics;
+    }
+
+    public RequestStatistics.Counts count(Action action) throws Exception {
+        RequestStatistics.Counts counts;
+        requestStatistics.begin();
+        try {
+            action.run();
+        } finally {
+            counts = requestStatistics.end();
+        }
+        return counts;
+    }
+
+    public int statements(Action action) throws Exception {
+        return count(action).getStatements();
+    }
+
+    public void assertStatementsAtMost(int budget, Action action) throws Exception {
+        int statements = statements(action);
+        assertTrue(statements <= budget, "expected at most " + budget + " SQL statements but " + statements + " were issued");
+    }
+
+    public interface Action {
+        void run() throws Exception;
+    }
+}